@@ -0,0 +1,55 @@
+package com.lmz.sentiment_analysis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for work that must not run on Tomcat request threads or on
+ * the scheduler thread shared by all {@code @Scheduled} tasks.
+ * Pools and queues are bounded so a slow LLM cannot exhaust memory;
+ * submissions beyond the queue capacity are rejected.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor llmVerificationExecutor(
+            @Value("${openai.async.pool-size:4}") int poolSize,
+            @Value("${openai.async.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("llm-verify-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor bulkIngestionExecutor(
+            @Value("${bulk.ingest.concurrency:2}") int concurrency) {
+        // Each upload caps its own chunks in flight; the queue only absorbs overlap between uploads
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(concurrency * 2);
+        executor.setThreadNamePrefix("bulk-ingest-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor threatRuleCompileExecutor() {
+        // One compile at a time; ThreatRuleRegistry does not submit another while one is running
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("threat-rules-");
+        return executor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.lmz.sentiment_analysis.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+//Schema migration V5: index for listing the comments of one near-duplicate cluster.
+//Hibernate adds the cluster_id column; comments stored before near-duplicate detection keep it null.
+public class ClusterIdIndexMigration implements SchemaMigration {
+
+    static final String INDEX = "idx_comments_cluster_id";
+
+    @Override
+    public int getVersion() {
+        return 5;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Index comments by near-duplicate cluster id";
+    }
+
+    @Override
+    public void migrate(JdbcTemplate jdbcTemplate) {
+        SchemaInspector.createIndexIfMissing(jdbcTemplate, "comments", INDEX, "cluster_id");
+    }
+}
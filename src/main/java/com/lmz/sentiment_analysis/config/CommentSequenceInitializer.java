@@ -0,0 +1,57 @@
+package com.lmz.sentiment_analysis.config;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+//Schema migration V1: moves the comment id sequence past the highest existing comment id.
+//Comments created before the switch from IDENTITY to a pooled sequence keep their auto-increment ids,
+//so a fresh sequence would otherwise hand out ids that are already taken.
+public class CommentSequenceInitializer implements SchemaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentSequenceInitializer.class);
+
+    static final String SEQUENCE_NAME = "comment_seq";
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Advance " + SEQUENCE_NAME + " past existing comment ids";
+    }
+
+    @Override
+    public void migrate(JdbcTemplate jdbcTemplate) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM comments", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // Leave a full allocation block of headroom: the pooled optimizer hands out ids below the sequence value
+        long next = maxId + Comment.ID_ALLOCATION_SIZE + 1;
+
+        String database = SchemaInspector.databaseProduct(jdbcTemplate);
+        if ("MySQL".equalsIgnoreCase(database)) {
+            // MySQL has no sequences; Hibernate emulates one with a single-row table
+            int updated = jdbcTemplate.update("UPDATE " + SEQUENCE_NAME + " SET next_val = ? WHERE next_val < ?", next, next);
+            if (updated > 0) {
+                logger.info("Advanced {} to {} (max comment id {})", SEQUENCE_NAME, next, maxId);
+            }
+        } else if ("H2".equalsIgnoreCase(database)) {
+            Long current = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(?)",
+                    Long.class, SEQUENCE_NAME);
+            if (current != null && current < next) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE_NAME + " RESTART WITH " + next);
+                logger.info("Advanced {} to {} (max comment id {})", SEQUENCE_NAME, next, maxId);
+            }
+        } else {
+            logger.warn("Not checking {} on {}; make sure it is above the max comment id {}", SEQUENCE_NAME, database, maxId);
+        }
+    }
+}
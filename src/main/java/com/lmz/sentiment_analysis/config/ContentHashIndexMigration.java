@@ -0,0 +1,28 @@
+package com.lmz.sentiment_analysis.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+//Schema migration V4: index for finding an earlier analysis of the same comment content.
+//Hibernate adds the content_hash, engine_version and sentiment_confidence columns; existing rows keep them null
+//(no engine version is known for them, so they are never reused) and are not backfilled.
+public class ContentHashIndexMigration implements SchemaMigration {
+
+    static final String INDEX = "idx_comments_content_hash";
+
+    @Override
+    public int getVersion() {
+        return 4;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Index comments by content hash and engine version";
+    }
+
+    @Override
+    public void migrate(JdbcTemplate jdbcTemplate) {
+        SchemaInspector.createIndexIfMissing(jdbcTemplate, "comments", INDEX, "content_hash, engine_version");
+    }
+}
@@ -1,27 +1,43 @@
 package com.lmz.sentiment_analysis.config;
 
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.lmz.sentiment_analysis.service.CommentListCache;
+import com.lmz.sentiment_analysis.service.SentimentResultCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * Redis cache configuration for caching sentiment analysis results
  * and query responses. This improves performance by avoiding repeated
- * analysis of identical text.
+ * analysis of identical text. Cache statistics are enabled and each
+ * cache's hit ratio is published as the cache.hit.ratio gauge.
  */
 @Configuration
 @EnableCaching
 public class RedisCacheConfig {
 
+    // Created up front so the actuator cache metrics bind to them at startup
+    private static final List<String> CACHE_NAMES = List.of(CommentListCache.CACHE_NAME, SentimentResultCache.CACHE_NAME);
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -32,8 +48,8 @@ public class RedisCacheConfig {
         template.setHashKeySerializer(new StringRedisSerializer());
         
         // Use JSON serialization for values
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(cacheValueSerializer());
+        template.setHashValueSerializer(cacheValueSerializer());
         
         template.afterPropertiesSet();
         return template;
@@ -47,13 +63,49 @@ public class RedisCacheConfig {
                         RedisSerializationContext.SerializationPair.fromSerializer(
                                 new StringRedisSerializer()))
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(
-                                new GenericJackson2JsonRedisSerializer()))
+                        RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer()))
                 .disableCachingNullValues();
 
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .initialCacheNames(new HashSet<>(CACHE_NAMES))
+                .enableStatistics()
                 .transactionAware()
                 .build();
     }
+
+    /**
+     * JSON with type information, as cached values are read back as their
+     * own classes; Java time types are supported for cached comments' timestamps.
+     */
+    public static RedisSerializer<Object> cacheValueSerializer() {
+        return new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+    }
+
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(RedisCacheManager cacheManager) {
+        return registry -> {
+            for (String name : CACHE_NAMES) {
+                Gauge.builder("cache.hit.ratio", cacheManager, manager -> hitRatio(manager, name))
+                        .tag("cache", name)
+                        .description("Share of cache lookups answered from the cache")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(RedisCacheManager cacheManager, String name) {
+        Cache cache = cacheManager.getCache(name);
+        // transactionAware() wraps each cache in a decorator
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        if (!(cache instanceof RedisCache redisCache)) {
+            return Double.NaN;
+        }
+        CacheStatistics statistics = redisCache.getStatistics();
+        long lookups = statistics.getHits() + statistics.getMisses();
+        return lookups == 0 ? Double.NaN : (double) statistics.getHits() / lookups;
+    }
 }
@@ -0,0 +1,13 @@
+package com.lmz.sentiment_analysis.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs such as the sentiment counter
+ * flush and reconciliation.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
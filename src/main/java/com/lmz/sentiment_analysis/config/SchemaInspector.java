@@ -0,0 +1,102 @@
+package com.lmz.sentiment_analysis.config;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Locale;
+
+//Schema lookups and idempotent DDL shared by the schema migrations.
+//Table, column and index names are matched case-insensitively (H2 folds unquoted names to upper case, MySQL keeps them).
+public final class SchemaInspector {
+
+    private SchemaInspector() {}
+
+    public static boolean isMySql(JdbcTemplate jdbcTemplate) {
+        return "MySQL".equalsIgnoreCase(databaseProduct(jdbcTemplate));
+    }
+
+    public static String databaseProduct(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+    }
+
+    public static boolean hasTable(JdbcTemplate jdbcTemplate, String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : nameVariants(table)) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[] {"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    public static boolean hasColumn(JdbcTemplate jdbcTemplate, String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : nameVariants(table)) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, name, null)) {
+                    while (columns.next()) {
+                        if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    public static boolean hasIndex(JdbcTemplate jdbcTemplate, String table, String index) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : nameVariants(table)) {
+                try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, name, false, true)) {
+                    while (indexes.next()) {
+                        if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    //Creates the index unless an index with that name already exists (e.g. created by Hibernate from @Index).
+    public static boolean createIndexIfMissing(JdbcTemplate jdbcTemplate, String table, String index, String columns) {
+        if (hasIndex(jdbcTemplate, table, index)) {
+            return false;
+        }
+        jdbcTemplate.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        return true;
+    }
+
+    public static boolean dropIndexIfExists(JdbcTemplate jdbcTemplate, String table, String index) {
+        if (!hasIndex(jdbcTemplate, table, index)) {
+            return false;
+        }
+        // MySQL scopes index names to the table, H2 to the schema
+        jdbcTemplate.execute(isMySql(jdbcTemplate)
+                ? "DROP INDEX " + index + " ON " + table
+                : "DROP INDEX " + index);
+        return true;
+    }
+
+    public static boolean dropColumnIfExists(JdbcTemplate jdbcTemplate, String table, String column) {
+        if (!hasColumn(jdbcTemplate, table, column)) {
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + column);
+        return true;
+    }
+
+    private static String[] nameVariants(String name) {
+        return new String[] {name.toLowerCase(Locale.ROOT), name.toUpperCase(Locale.ROOT)};
+    }
+}
@@ -0,0 +1,20 @@
+package com.lmz.sentiment_analysis.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+//One versioned change to the database schema or data, applied once by SchemaMigrationRunner.
+//Hibernate (ddl-auto=update) still creates tables and columns for new entity fields; migrations cover what it cannot:
+//indexes on existing tables, dropping columns, and converting existing rows.
+//MySQL commits DDL immediately, so a migration must be safe to re-run after failing part way
+//(check with SchemaInspector before creating or dropping anything).
+public interface SchemaMigration {
+
+    //Unique, increasing version; migrations run in version order.
+    int getVersion();
+
+    //Short summary recorded in the schema_migrations table.
+    String getDescription();
+
+    //Applies the migration. All statements must go through the given template, which holds the migration lock.
+    void migrate(JdbcTemplate jdbcTemplate);
+}
@@ -0,0 +1,102 @@
+package com.lmz.sentiment_analysis.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@DependsOn("entityManagerFactory")
+//This component applies every SchemaMigration whose version is not yet recorded in the schema_migrations table,
+//in version order. It runs while the application context is being refreshed: after Hibernate has updated the tables
+//(the entity manager factory is created first) and every singleton exists, but before the web server accepts
+//requests and before scheduled tasks and CommandLineRunners start, so no comment or rollup is written until the
+//migrations are done.
+//All migrations run on one connection; on MySQL that connection holds a named lock, so when several nodes
+//start at once only one migrates and the others wait, then find the versions recorded.
+//A failing migration stops the application from starting; it is retried on the next start.
+public class SchemaMigrationRunner implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrationRunner.class);
+
+    static final String TABLE = "schema_migrations";
+    static final String LOCK_NAME = "sentiment_analysis.schema_migrations";
+    static final int LOCK_TIMEOUT_SECONDS = 300;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<SchemaMigration> migrations;
+
+    public SchemaMigrationRunner(JdbcTemplate jdbcTemplate, List<SchemaMigration> migrations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(SchemaMigration::getVersion));
+        for (int i = 1; i < this.migrations.size(); i++) {
+            if (this.migrations.get(i).getVersion() == this.migrations.get(i - 1).getVersion()) {
+                throw new IllegalStateException("Duplicate schema migration version " + this.migrations.get(i).getVersion());
+            }
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            migrate(new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+            return null;
+        });
+    }
+
+    //Applies the pending migrations through a template bound to a single connection.
+    void migrate(JdbcTemplate connection) {
+        connection.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "version INT NOT NULL PRIMARY KEY, " +
+                "description VARCHAR(255) NOT NULL, " +
+                "applied_at TIMESTAMP NOT NULL, " +
+                "execution_ms BIGINT NOT NULL)");
+
+        boolean mySql = SchemaInspector.isMySql(connection);
+        if (mySql) {
+            Integer locked = connection.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+            if (locked == null || locked != 1) {
+                throw new IllegalStateException("Timed out waiting for the schema migration lock");
+            }
+        }
+        try {
+            Set<Integer> applied = new HashSet<>(connection.queryForList("SELECT version FROM " + TABLE, Integer.class));
+            for (SchemaMigration migration : migrations) {
+                if (!applied.contains(migration.getVersion())) {
+                    apply(connection, migration);
+                }
+            }
+        } finally {
+            if (mySql) {
+                connection.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+        }
+    }
+
+    private void apply(JdbcTemplate connection, SchemaMigration migration) {
+        logger.info("Applying schema migration V{}: {}", migration.getVersion(), migration.getDescription());
+        long start = System.nanoTime();
+        try {
+            migration.migrate(connection);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Schema migration V" + migration.getVersion() + " ("
+                    + migration.getDescription() + ") failed", e);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        connection.update("INSERT INTO " + TABLE + " (version, description, applied_at, execution_ms) VALUES (?, ?, ?, ?)",
+                migration.getVersion(), migration.getDescription(), new Timestamp(System.currentTimeMillis()), elapsedMs);
+        logger.info("Applied schema migration V{} in {} ms", migration.getVersion(), elapsedMs);
+    }
+}
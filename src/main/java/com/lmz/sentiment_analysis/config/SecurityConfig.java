@@ -27,6 +27,9 @@ public class SecurityConfig {
         http
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        // Bulk backfills and full exports are operator tasks
+                        .requestMatchers("/api/comments/bulk/**", "/api/comments/bulk").hasRole("ADMIN")
+                        .requestMatchers("/api/comments/export").hasRole("ADMIN")
                         .requestMatchers("/register", "/css/**", "/js/**", "/h2-console/**").permitAll()
                         .anyRequest().authenticated()
                 )
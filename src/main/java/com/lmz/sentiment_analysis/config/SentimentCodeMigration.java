@@ -0,0 +1,74 @@
+package com.lmz.sentiment_analysis.config;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+@Component
+//Schema migration V2: converts comments stored before sentiments became one-byte codes.
+//Those rows carry the label, emoji and background color as strings; the label is mapped to its code in id-range
+//chunks (so no single statement locks the whole table), then the three legacy columns and their index are dropped.
+//On a database created after the change the legacy columns never existed and this only records the version.
+public class SentimentCodeMigration implements SchemaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentCodeMigration.class);
+
+    static final String LEGACY_SENTIMENT_COLUMN = "sentiment";
+    static final List<String> LEGACY_COLUMNS = List.of("sentiment", "emoji", "background_color");
+    static final String LEGACY_INDEX = "idx_comments_sentiment";
+    static final int CHUNK_SIZE = 10_000;
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Convert comment sentiment labels to codes";
+    }
+
+    @Override
+    public void migrate(JdbcTemplate jdbcTemplate) {
+        if (!SchemaInspector.hasColumn(jdbcTemplate, "comments", LEGACY_SENTIMENT_COLUMN)) {
+            return;
+        }
+        long start = System.nanoTime();
+        long converted = backfill(jdbcTemplate);
+        SchemaInspector.dropIndexIfExists(jdbcTemplate, "comments", LEGACY_INDEX);
+        for (String column : LEGACY_COLUMNS) {
+            SchemaInspector.dropColumnIfExists(jdbcTemplate, "comments", column);
+        }
+        logger.info("Converted {} comments to sentiment codes in {} ms", converted, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Map each legacy label to its code, one id range at a time. Unknown labels become neutral, as before.
+    long backfill(JdbcTemplate jdbcTemplate) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM comments", Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+        String sql = "UPDATE comments SET sentiment_code = " + codeCase()
+                + " WHERE sentiment_code IS NULL AND " + LEGACY_SENTIMENT_COLUMN + " IS NOT NULL AND id > ? AND id <= ?";
+        long converted = 0;
+        for (long from = 0; from < maxId; from += CHUNK_SIZE) {
+            converted += jdbcTemplate.update(sql, from, Math.min(from + CHUNK_SIZE, maxId));
+        }
+        return converted;
+    }
+
+    // CASE expression mapping the lower-cased label column to its code
+    static String codeCase() {
+        StringBuilder sql = new StringBuilder("CASE LOWER(").append(LEGACY_SENTIMENT_COLUMN).append(')');
+        for (SentimentLabel sentiment : SentimentLabel.values()) {
+            sql.append(" WHEN '").append(sentiment.getLabel().toLowerCase(Locale.ROOT))
+               .append("' THEN ").append(sentiment.getCode());
+        }
+        return sql.append(" ELSE ").append(SentimentLabel.NEUTRAL.getCode()).append(" END").toString();
+    }
+}
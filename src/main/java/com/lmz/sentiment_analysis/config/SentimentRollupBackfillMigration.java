@@ -0,0 +1,172 @@
+package com.lmz.sentiment_analysis.config;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.model.SentimentRollup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+//Schema migration V6: builds the sentiment_rollups table behind the trend API from the comments stored before it ran.
+//Like every migration it runs once, on one node, under the migration lock, during context refresh: before this node
+//serves requests, ingests uploads or flushes rollups, so none of this node's writes interleave with it.
+//The cutoff is fixed at this process's start time; every comment this process saves is created after it and is
+//recorded by SentimentTrendService as usual.
+//Buckets of days before the cutoff's day are rewritten with absolute values (delete, then insert), which makes a
+//re-run after a failure safe. The cutoff's own day may already hold writes of other nodes, so its comments from before
+//the cutoff are added to the buckets instead, in one transaction.
+//Other nodes still running during a rolling deploy can write to any bucket, past days included (bulk uploads with a
+//historical createdAt, deleted or upgraded old comments), so every insert adds to a row that already exists rather
+//than failing. Their writes made while this migration runs can leave the buckets they touched off by those comments.
+//Comments are read one hour at a time, so memory holds at most one hour of comments and one day of buckets.
+public class SentimentRollupBackfillMigration implements SchemaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentRollupBackfillMigration.class);
+
+    static final String TABLE = "sentiment_rollups";
+
+    private final Supplier<LocalDateTime> cutoff;
+
+    public SentimentRollupBackfillMigration() {
+        this(() -> LocalDateTime.ofInstant(Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime()),
+                                           ZoneId.systemDefault()));
+    }
+
+    SentimentRollupBackfillMigration(Supplier<LocalDateTime> cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    public int getVersion() {
+        return 6;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Build sentiment rollups from existing comments";
+    }
+
+    @Override
+    public void migrate(JdbcTemplate jdbcTemplate) {
+        long start = System.nanoTime();
+        LocalDateTime end = cutoff.get();
+        LocalDateTime today = SentimentRollup.Granularity.DAY.bucketStart(end);
+
+        // Whole days before the cutoff: replace whatever is there, adding to rows another node inserts meanwhile
+        jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE bucket_start < ?", today);
+        long rows = backfill(jdbcTemplate, null, today, buckets -> insert(jdbcTemplate, buckets));
+
+        // The cutoff's day: add the comments before the cutoff to the live buckets
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        Long added = transaction.execute(status -> backfill(jdbcTemplate, today, end, buckets -> add(jdbcTemplate, buckets)));
+        rows += added != null ? added : 0;
+
+        logger.info("Built sentiment rollups from {} comments created before {} in {} ms",
+                    rows, end, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Aggregates the comments created in [from, to) (from may be null) into buckets and hands them to the
+    // writer one day at a time. Returns the number of comments read.
+    private long backfill(JdbcTemplate jdbcTemplate, LocalDateTime from, LocalDateTime to,
+                          BucketWriter writer) {
+        Map<SentimentRollup.Key, double[]> day = new HashMap<>();
+        LocalDate currentDay = null;
+        long rows = 0;
+
+        LocalDateTime next = from == null
+                ? jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM comments WHERE created_at < ?",
+                                              LocalDateTime.class, to)
+                : jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM comments WHERE created_at >= ? AND created_at < ?",
+                                              LocalDateTime.class, from, to);
+        while (next != null) {
+            LocalDateTime hour = SentimentRollup.Granularity.HOUR.bucketStart(next);
+            LocalDateTime hourEnd = hour.plusHours(1).isBefore(to) ? hour.plusHours(1) : to;
+            if (!hour.toLocalDate().equals(currentDay)) {
+                writer.write(day);
+                day.clear();
+                currentDay = hour.toLocalDate();
+            }
+
+            List<Object[]> comments = jdbcTemplate.query(
+                    "SELECT created_at, sentiment_code, sentiment_score FROM comments " +
+                    "WHERE created_at >= ? AND created_at < ? AND sentiment_code IS NOT NULL",
+                    (resultSet, rowNum) -> new Object[] {
+                            resultSet.getObject(1, LocalDateTime.class), resultSet.getInt(2), resultSet.getDouble(3)},
+                    hour, hourEnd);
+            for (Object[] comment : comments) {
+                LocalDateTime createdAt = (LocalDateTime) comment[0];
+                String label = SentimentLabel.fromCode((Integer) comment[1]).getLabel();
+                for (SentimentRollup.Granularity granularity : SentimentRollup.Granularity.values()) {
+                    double[] bucket = day.computeIfAbsent(
+                            new SentimentRollup.Key(granularity, granularity.bucketStart(createdAt), label),
+                            key -> new double[2]);
+                    bucket[0]++;
+                    bucket[1] += (Double) comment[2];
+                }
+            }
+            rows += comments.size();
+
+            next = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM comments WHERE created_at >= ? AND created_at < ?",
+                                               LocalDateTime.class, hourEnd, to);
+        }
+        writer.write(day);
+        return rows;
+    }
+
+    // One batch insert per day; if another node inserted one of the buckets meanwhile, the day is added row by row
+    private void insert(JdbcTemplate jdbcTemplate, Map<SentimentRollup.Key, double[]> buckets) {
+        List<Object[]> rows = new ArrayList<>();
+        buckets.forEach((key, bucket) -> rows.add(new Object[] {
+                key.getGranularity().name(), key.getBucketStart(), key.getSentiment(), (long) bucket[0], bucket[1]}));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate("INSERT INTO " + TABLE +
+                    " (granularity, bucket_start, sentiment, comment_count, score_sum) VALUES (?, ?, ?, ?, ?)", rows));
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Sentiment rollups of a past day were written concurrently, adding to them instead");
+            transaction.executeWithoutResult(status -> add(jdbcTemplate, buckets));
+        }
+    }
+
+    private void add(JdbcTemplate jdbcTemplate, Map<SentimentRollup.Key, double[]> buckets) {
+        buckets.forEach((key, bucket) -> {
+            if (addToBucket(jdbcTemplate, key, bucket) > 0) {
+                return;
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO " + TABLE +
+                        " (granularity, bucket_start, sentiment, comment_count, score_sum) VALUES (?, ?, ?, ?, ?)",
+                        key.getGranularity().name(), key.getBucketStart(), key.getSentiment(), (long) bucket[0], bucket[1]);
+            } catch (DataIntegrityViolationException e) {
+                // A live flush inserted the bucket first
+                addToBucket(jdbcTemplate, key, bucket);
+            }
+        });
+    }
+
+    private int addToBucket(JdbcTemplate jdbcTemplate, SentimentRollup.Key key, double[] bucket) {
+        return jdbcTemplate.update("UPDATE " + TABLE + " SET comment_count = comment_count + ?, score_sum = score_sum + ? " +
+                "WHERE granularity = ? AND bucket_start = ? AND sentiment = ?",
+                (long) bucket[0], bucket[1], key.getGranularity().name(), key.getBucketStart(), key.getSentiment());
+    }
+
+    // Receives one day of buckets: per key, the comment count and the score sum
+    private interface BucketWriter {
+        void write(Map<SentimentRollup.Key, double[]> buckets);
+    }
+}
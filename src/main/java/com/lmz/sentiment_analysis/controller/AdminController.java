@@ -1,6 +1,7 @@
 package com.lmz.sentiment_analysis.controller;
 
-import com.lmz.sentiment_analysis.repository.CommentRepository;
+import com.lmz.sentiment_analysis.service.CommentPage;
+import com.lmz.sentiment_analysis.service.CommentService;
 import com.lmz.sentiment_analysis.service.UserService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,12 +14,12 @@ import org.springframework.web.bind.annotation.*;
 // listing comments, and deleting a comment.
 public class AdminController {
     private final UserService userService;
-    private final CommentRepository commentRepository;
+    private final CommentService commentService;
 
-    // Constructor injection for UserService and CommentRepository dependencies.
-    public AdminController(UserService userService, CommentRepository commentRepository) {
+    // Constructor injection for UserService and CommentService dependencies.
+    public AdminController(UserService userService, CommentService commentService) {
         this.userService = userService;
-        this.commentRepository = commentRepository;
+        this.commentService = commentService;
     }
 
     //Handles GET requests to the admin dashboard.
@@ -43,11 +44,22 @@ public class AdminController {
         return "redirect:/admin/users";
     }
 
-    //Handles GET requests to list all comments.
-    //Retrieves a list of comments from the CommentRepository and adds it to the model.
+    //Handles GET requests to list comments one page at a time, newest first.
+    //Adds the page of comments and the cursor for the next page (null on the last page) to the model.
     @GetMapping("/comments")
-    public String listComments(Model model) {
-        model.addAttribute("comments", commentRepository.findAll());
+    public String listComments(@RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) Integer size,
+                               Model model) {
+        CommentPage page;
+        try {
+            page = commentService.getAllCommentsPage(cursor, size);
+        } catch (IllegalArgumentException e) {
+            // Stale or tampered cursor: start again from the newest comments
+            page = commentService.getAllCommentsPage(null, size);
+        }
+        model.addAttribute("comments", page.getComments());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("pageSize", size);
         return "admin/comments";
     }
 
@@ -55,7 +67,8 @@ public class AdminController {
     //After deletion, redirects back to the comments list page.
     @GetMapping("/comments/delete/{id}")
     public String deleteComment(@PathVariable Long id) {
-        commentRepository.deleteById(id);
+        // Deleting through the service keeps the sentiment counters in step
+        commentService.deleteComment(id);
         return "redirect:/admin/comments";
     }
 }
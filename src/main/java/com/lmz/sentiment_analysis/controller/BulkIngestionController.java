@@ -0,0 +1,84 @@
+package com.lmz.sentiment_analysis.controller;
+
+import com.lmz.sentiment_analysis.security.SecurityUtil;
+import com.lmz.sentiment_analysis.service.BulkIngestionJob;
+import com.lmz.sentiment_analysis.service.BulkIngestionService;
+import com.lmz.sentiment_analysis.service.BulkRecordReader;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/comments/bulk")
+//This REST controller handles bulk ingestion of comment corpora.
+//The request body (CSV or NDJSON) is streamed straight into the ingestion service without being buffered,
+//and endpoints are provided to poll job progress and download the per-record error file.
+public class BulkIngestionController {
+
+    private final BulkIngestionService bulkIngestionService;
+
+    public BulkIngestionController(BulkIngestionService bulkIngestionService) {
+        this.bulkIngestionService = bulkIngestionService;
+    }
+
+    //Ingests the request body. The format comes from the "format" parameter (csv or ndjson) or the Content-Type.
+    //Responds once every record has been processed; poll /jobs meanwhile to follow progress.
+    @PostMapping
+    public ResponseEntity<BulkIngestionJob> ingest(@RequestParam(required = false) String format,
+                                                   HttpServletRequest request) throws IOException {
+        BulkRecordReader.Format resolved = resolveFormat(format, request.getContentType());
+        if (resolved == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        BulkIngestionJob job = bulkIngestionService.ingest(request.getInputStream(), resolved,
+                                                           SecurityUtil.getCurrentUserId());
+        return ResponseEntity.ok(job);
+    }
+
+    //Lists running and recently finished ingestion jobs, newest first.
+    @GetMapping("/jobs")
+    public ResponseEntity<List<BulkIngestionJob>> listJobs() {
+        return ResponseEntity.ok(bulkIngestionService.getJobs());
+    }
+
+    //Retrieves the progress of one ingestion job.
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<BulkIngestionJob> getJob(@PathVariable String id) {
+        BulkIngestionJob job = bulkIngestionService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    //Downloads the CSV of rejected records (record number and reason) for a finished job.
+    @GetMapping("/jobs/{id}/errors")
+    public ResponseEntity<Resource> getErrors(@PathVariable String id) {
+        BulkIngestionJob job = bulkIngestionService.getJob(id);
+        if (job == null || !job.isFinished() || !job.isHasErrors() || !Files.exists(job.getErrorFile())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + "-errors.csv\"")
+                .body(new FileSystemResource(job.getErrorFile()));
+    }
+
+    // Explicit format parameter first, then the Content-Type header
+    private BulkRecordReader.Format resolveFormat(String format, String contentType) {
+        String hint = (format != null ? format : contentType != null ? contentType : "").toLowerCase(Locale.ROOT);
+        if (hint.contains("csv")) {
+            return BulkRecordReader.Format.CSV;
+        }
+        if (hint.contains("ndjson") || hint.contains("jsonl") || hint.contains("json-seq")) {
+            return BulkRecordReader.Format.NDJSON;
+        }
+        return null;
+    }
+}
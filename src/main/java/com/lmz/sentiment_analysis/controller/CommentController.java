@@ -1,20 +1,30 @@
 package com.lmz.sentiment_analysis.controller;
 import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentRollup;
+import com.lmz.sentiment_analysis.service.CommentPage;
 import com.lmz.sentiment_analysis.service.CommentService;
-import java.util.List;
+import com.lmz.sentiment_analysis.service.SentimentTrend;
+import com.lmz.sentiment_analysis.service.SentimentTrendService;
+import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/comments")
 //This REST controller handles HTTP API requests related to comments.
-// It provides endpoints for adding a comment, retrieving the current user's comments, and obtaining a global sentiment distribution of all comments.
+// It provides endpoints for adding a comment, retrieving the current user's comments, and obtaining a global sentiment distribution
+// and a sentiment trend over time for all comments.
 public class CommentController {
     @Autowired
     private CommentService commentService;
 
+    @Autowired
+    private SentimentTrendService sentimentTrendService;
+
     //Adds a new comment
     @PostMapping("/add")
     public ResponseEntity<Comment> addComment(@RequestParam String content) {
@@ -22,11 +32,26 @@ public class CommentController {
         return ResponseEntity.ok(savedComment);
     }
 
-    //Retrieves a list of comments for the current user
+    //Retrieves a single comment so clients can poll until a provisional sentiment is upgraded
+    @GetMapping("/{id}")
+    public ResponseEntity<Comment> getComment(@PathVariable Long id) {
+        Comment comment = commentService.getComment(id);
+        if (comment == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(comment);
+    }
+
+    //Retrieves one page of comments for the current user, newest first.
+    //Pass the returned nextCursor back as "cursor" to fetch the following page; size is capped server-side.
     @GetMapping("/my")
-    public ResponseEntity<List<Comment>> getMyComments() {
-        List<Comment> myComments = commentService.getAllComments();
-        return ResponseEntity.ok(myComments);
+    public ResponseEntity<CommentPage> getMyComments(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(commentService.getCommentPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     //Retrieves the global sentiment distribution for all comments
@@ -35,4 +60,21 @@ public class CommentController {
         Map<String, Long> distribution = commentService.getGlobalSentimentDistribution();
         return ResponseEntity.ok(distribution);
     }
+
+    //Retrieves sentiment counts and the average sentiment score per minute, hour or day for buckets starting in [from, to).
+    //Times are ISO-8601 in server time (e.g. 2025-01-31T00:00); by default the last 60 buckets up to now are returned.
+    @GetMapping("/sentiment-trend")
+    public ResponseEntity<SentimentTrend> getSentimentTrend(
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            SentimentRollup.Granularity resolved = SentimentRollup.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minus(resolved.getBucketDuration().multipliedBy(59));
+            return ResponseEntity.ok(sentimentTrendService.getTrend(resolved, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package com.lmz.sentiment_analysis.controller;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.service.BulkRecordReader;
+import com.lmz.sentiment_analysis.service.CommentExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/comments/export")
+//This REST controller exports comments for offline analysis.
+//The response is streamed while rows are read from the database, so exports of any size use constant memory.
+public class CommentExportController {
+
+    private final CommentExportService commentExportService;
+
+    public CommentExportController(CommentExportService commentExportService) {
+        this.commentExportService = commentExportService;
+    }
+
+    //Exports comments as NDJSON (default) or CSV, oldest first.
+    //Optional filters: userId, sentiment label (e.g. "Very positive"), and a createdAt range [from, to) in ISO-8601 (e.g. 2025-01-31T00:00).
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        String requested = format.toLowerCase(Locale.ROOT);
+        BulkRecordReader.Format resolved;
+        MediaType mediaType;
+        if (requested.equals("csv")) {
+            resolved = BulkRecordReader.Format.CSV;
+            mediaType = new MediaType("text", "csv");
+        } else if (requested.equals("ndjson") || requested.equals("jsonl")) {
+            resolved = BulkRecordReader.Format.NDJSON;
+            mediaType = new MediaType("application", "x-ndjson");
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+
+        SentimentLabel sentimentFilter = null;
+        if (sentiment != null && !sentiment.isBlank()) {
+            try {
+                sentimentFilter = SentimentLabel.parse(sentiment);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        SentimentLabel filter = sentimentFilter;
+        StreamingResponseBody body = out ->
+                commentExportService.export(userId, filter, from, to, resolved, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"comments." + resolved.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
+    }
+}
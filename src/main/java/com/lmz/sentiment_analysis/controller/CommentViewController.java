@@ -12,7 +12,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 @Controller
 @RequestMapping("/comments")
 //This Spring MVC controller handles form submissions for comments.
-//It processes a submitted comment, retrieves the resulting sentiment analysis information (emoji, sentiment, score, and background color), and then passes these attributes to the view for display on the result page.
+//It processes a submitted comment, retrieves the resulting sentiment analysis information (sentiment and score), and then passes these attributes to the view for display on the result page.
 public class CommentViewController {
 
     @Autowired
@@ -24,10 +24,9 @@ public class CommentViewController {
         // Process the submitted comment and obtain a Comment object with sentiment analysis results.
         Comment savedComment = commentService.addComment(content);
         // Add sentiment analysis results and original content into the model to be used in the view.
-        model.addAttribute("emoji", savedComment.getEmoji());
+        // The view derives the label, emoji and background color from the sentiment
         model.addAttribute("sentiment", savedComment.getSentiment());
         model.addAttribute("score", savedComment.getSentimentScore());
-        model.addAttribute("bgColor", savedComment.getBackgroundColor());
         model.addAttribute("content", savedComment.getContent());
         // Return the view name "result" to display the analysis results.
         return "result";
@@ -49,6 +49,7 @@ public class SecurityAnalysisController {
         response.put("riskLevel", result.getRiskLevel().toString());
         response.put("threatScore", result.getThreatScore());
         response.put("detectedThreats", result.getDetectedThreats());
+        response.put("matches", result.getMatches());
 
         return ResponseEntity.ok(response);
     }
@@ -76,13 +77,15 @@ public class SecurityAnalysisController {
             securityAnalysisService.analyzeThreatReport(report, sentimentResult.getSentiment());
 
         Map<String, Object> response = new HashMap<>();
-        response.put("sentiment", threatResult.getSentiment());
+        response.put("sentiment", threatResult.getSentiment().getLabel());
         response.put("sentimentConfidence", sentimentResult.getConfidence());
         response.put("sentimentSource", sentimentResult.getSource());
         response.put("riskLevel", threatResult.getRiskLevel().toString());
         response.put("severityScore", threatResult.getSeverityScore());
         response.put("isThreat", threatResult.isThreat());
         response.put("detectedThreats", threatResult.getDetectedThreats());
+        response.put("matches", threatResult.getMatches());
+        response.put("indicators", threatResult.getIndicators());
         response.put("recommendation", threatResult.getRecommendation());
 
         return ResponseEntity.ok(response);
@@ -100,6 +103,7 @@ public class SecurityAnalysisController {
         stats.put("features", new String[]{
             "Malicious content detection",
             "Threat intelligence analysis",
+            "Indicator of compromise extraction",
             "Risk level assessment",
             "Security sentiment analysis"
         });
@@ -1,27 +1,69 @@
 package com.lmz.sentiment_analysis.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        // Keyset pagination on (createdAt, id), globally and per user
+        @Index(name = "idx_comments_created_id", columnList = "createdAt, id"),
+        @Index(name = "idx_comments_user_created_id", columnList = "userId, createdAt, id"),
+        // Per-sentiment GROUP BY counts and sentiment-filtered exports in creation order
+        @Index(name = "idx_comments_sentiment_created", columnList = "sentiment_code, createdAt, id"),
+        // Looks up an earlier analysis of the same text by the same engine version
+        @Index(name = "idx_comments_content_hash", columnList = "contentHash, engineVersion"),
+        // Lists the members of a near-duplicate cluster (e.g. one bot flood)
+        @Index(name = "idx_comments_cluster_id", columnList = "clusterId")
+})
+// Cache entries written while emoji and backgroundColor were still serialized carry them as properties
+@JsonIgnoreProperties(ignoreUnknown = true)
 //This entity represents a comment in the application. It stores the comment content,
-// sentiment analysis results (sentiment, emoji, sentiment score, background color),
+// sentiment analysis results (sentiment code, sentiment score, confidence, source and provisional flag),
+// the content hash and engine version that let repeated comments reuse an earlier analysis,
+// the near-duplicate cluster the comment belongs to,
 //creation timestamp, and the identifier of the user who posted the comment.
+//The emoji and background color are derived from the sentiment when rendered.
 public class Comment {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence (a table-backed sequence on MySQL) so Hibernate can batch inserts;
+    // each round trip reserves 50 ids. migration V1 (CommentSequenceInitializer) moved it past pre-existing rows.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = Comment.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Comment cannot be blank")
     @Column(nullable = false)
     private String content;
 
-    private String sentiment;
-    private String emoji;
+    // One byte per row instead of the label string; migration V2 (SentimentCodeMigration) converted rows stored as labels
+    @Convert(converter = SentimentLabelConverter.class)
+    @Column(name = "sentiment_code")
+    private SentimentLabel sentiment;
     private double sentimentScore;
-    private String backgroundColor;
+    // Confidence of the analysis that produced the sentiment; null for comments stored before it was recorded
+    private Double sentimentConfidence;
+
+    // Which engine produced the sentiment (e.g. "CoreNLP", "Hybrid (CoreNLP + LLM)").
+    private String sentimentSource;
+    // True while a low-confidence result is waiting for background LLM verification.
+    private boolean provisional;
+
+    // SHA-256 of the normalized content (see TextFingerprint) and the engine and model version that analyzed it.
+    // A comment with the same hash and version can reuse this comment's sentiment instead of being analyzed again.
+    @Column(length = 64)
+    private String contentHash;
+    @Column(length = 128)
+    private String engineVersion;
+
+    // Content hash of the first comment of the near-duplicate cluster this comment belongs to (its own hash if it
+    // started the cluster); null if the comment was not checked for near-duplicates.
+    @Column(length = 64)
+    private String clusterId;
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -35,6 +77,23 @@ public class Comment {
         this.content = content;
     }
 
+    // Copy constructor: a detached copy of every stored property, so the copy and the original can be used
+    // on different threads (e.g. one persisted by the write-behind flusher while the other is serialized).
+    public Comment(Comment other) {
+        this.id = other.id;
+        this.content = other.content;
+        this.sentiment = other.sentiment;
+        this.sentimentScore = other.sentimentScore;
+        this.sentimentConfidence = other.sentimentConfidence;
+        this.sentimentSource = other.sentimentSource;
+        this.provisional = other.provisional;
+        this.contentHash = other.contentHash;
+        this.engineVersion = other.engineVersion;
+        this.clusterId = other.clusterId;
+        this.createdAt = other.createdAt;
+        this.userId = other.userId;
+    }
+
     // Getter & Setter methods for all properties
     public Long getId() {
         return id;
@@ -50,18 +109,17 @@ public class Comment {
         this.content = content;
     }
 
-    public String getSentiment() {
+    public SentimentLabel getSentiment() {
         return sentiment;
     }
-    public void setSentiment(String sentiment) {
+    public void setSentiment(SentimentLabel sentiment) {
         this.sentiment = sentiment;
     }
 
+    // Derived from the sentiment; not stored, and left out of JSON (clients derive it from the sentiment)
+    @JsonIgnore
     public String getEmoji() {
-        return emoji;
-    }
-    public void setEmoji(String emoji) {
-        this.emoji = emoji;
+        return sentiment != null ? sentiment.getEmoji() : null;
     }
 
     public double getSentimentScore() {
@@ -71,11 +129,52 @@ public class Comment {
         this.sentimentScore = sentimentScore;
     }
 
+    public Double getSentimentConfidence() {
+        return sentimentConfidence;
+    }
+    public void setSentimentConfidence(Double sentimentConfidence) {
+        this.sentimentConfidence = sentimentConfidence;
+    }
+
+    // Derived from the sentiment; not stored, and left out of JSON (clients derive it from the sentiment)
+    @JsonIgnore
     public String getBackgroundColor() {
-        return backgroundColor;
+        return sentiment != null ? sentiment.getBackgroundColor() : null;
+    }
+
+    public String getSentimentSource() {
+        return sentimentSource;
+    }
+    public void setSentimentSource(String sentimentSource) {
+        this.sentimentSource = sentimentSource;
+    }
+
+    public boolean isProvisional() {
+        return provisional;
+    }
+    public void setProvisional(boolean provisional) {
+        this.provisional = provisional;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getEngineVersion() {
+        return engineVersion;
+    }
+    public void setEngineVersion(String engineVersion) {
+        this.engineVersion = engineVersion;
+    }
+
+    public String getClusterId() {
+        return clusterId;
     }
-    public void setBackgroundColor(String backgroundColor) {
-        this.backgroundColor = backgroundColor;
+    public void setClusterId(String clusterId) {
+        this.clusterId = clusterId;
     }
 
     public LocalDateTime getCreatedAt() {
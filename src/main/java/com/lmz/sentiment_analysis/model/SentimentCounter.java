@@ -0,0 +1,40 @@
+package com.lmz.sentiment_analysis.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "sentiment_counters")
+//This entity holds the persisted number of comments for one sentiment label.
+//Rows are updated incrementally by SentimentCounterService and periodically reconciled against the comments table.
+public class SentimentCounter {
+
+    @Id
+    @Column(length = 64)
+    private String label;
+
+    @Column(nullable = false)
+    private long commentCount;
+
+    //Default constructor required by JPA.
+    public SentimentCounter() {}
+
+    public SentimentCounter(String label, long commentCount) {
+        this.label = label;
+        this.commentCount = commentCount;
+    }
+
+    // Getter & Setter methods for all properties
+    public String getLabel() {
+        return label;
+    }
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+}
@@ -0,0 +1,84 @@
+package com.lmz.sentiment_analysis.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+//The five sentiment classes. Comments store only the one-byte code (the CoreNLP class index, 0 = very negative ... 4 = very positive);
+//the display label, emoji, background color and score are derived from the constant when needed.
+//JSON uses the display label, so API responses and cached entries keep the strings they had before.
+public enum SentimentLabel {
+    VERY_NEGATIVE(0, "Very negative", "😠", "#be2528", 0.10),
+    NEGATIVE(1, "Negative", "😞", "#808080", 0.30),
+    NEUTRAL(2, "Neutral", "😐", "#FFFFFF", 0.50),
+    POSITIVE(3, "Positive", "😊", "#D0F0C0", 0.85),
+    VERY_POSITIVE(4, "Very positive", "😄", "#ffff00", 0.95);
+
+    private static final SentimentLabel[] BY_CODE = values();
+
+    private final byte code;
+    private final String label;
+    private final String emoji;
+    private final String backgroundColor;
+    private final double score;
+
+    SentimentLabel(int code, String label, String emoji, String backgroundColor, double score) {
+        this.code = (byte) code;
+        this.label = label;
+        this.emoji = emoji;
+        this.backgroundColor = backgroundColor;
+        this.score = score;
+    }
+
+    // Label for a stored code or a CoreNLP predicted class index
+    public static SentimentLabel fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown sentiment code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    // Label for a display label ("Very positive") or constant name ("VERY_POSITIVE"), ignoring case
+    @JsonCreator
+    public static SentimentLabel parse(String value) {
+        if (value != null) {
+            String trimmed = value.trim();
+            for (SentimentLabel sentiment : BY_CODE) {
+                if (sentiment.label.equalsIgnoreCase(trimmed) || sentiment.name().equalsIgnoreCase(trimmed)) {
+                    return sentiment;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown sentiment: " + value);
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    public String getEmoji() {
+        return emoji;
+    }
+
+    public String getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    // Score stored with comments of this sentiment
+    public double getScore() {
+        return score;
+    }
+
+    public boolean isNegative() {
+        return this == NEGATIVE || this == VERY_NEGATIVE;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,19 @@
+package com.lmz.sentiment_analysis.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+//Stores a SentimentLabel as its one-byte code (a TINYINT column) instead of the label string.
+public class SentimentLabelConverter implements AttributeConverter<SentimentLabel, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(SentimentLabel sentiment) {
+        return sentiment != null ? sentiment.getCode() : null;
+    }
+
+    @Override
+    public SentimentLabel convertToEntityAttribute(Byte code) {
+        return code != null ? SentimentLabel.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,159 @@
+package com.lmz.sentiment_analysis.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+@Entity
+@Table(name = "sentiment_rollups", indexes = {
+        // Range reads by granularity and bucket, whatever column order the primary key gets
+        @Index(name = "idx_rollups_granularity_bucket", columnList = "granularity, bucketStart")
+})
+@IdClass(SentimentRollup.Key.class)
+//This entity holds the number of comments and the sum of their sentiment scores for one sentiment label
+//in one time bucket (a minute, an hour or a day, by comment creation time).
+//Rows are maintained incrementally by SentimentTrendService, so trend queries never scan the comments table.
+public class SentimentRollup {
+
+    //Bucket sizes kept in the rollup table.
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        // Start of the bucket containing the given time
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        // Start of the bucket following the one starting at the given time
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return bucketStart.plus(1, unit);
+        }
+
+        public Duration getBucketDuration() {
+            return unit.getDuration();
+        }
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Granularity granularity;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(length = 64)
+    private String sentiment;
+
+    @Column(nullable = false)
+    private long commentCount;
+
+    @Column(nullable = false)
+    private double scoreSum;
+
+    //Default constructor required by JPA.
+    public SentimentRollup() {}
+
+    public SentimentRollup(Granularity granularity, LocalDateTime bucketStart, String sentiment,
+                           long commentCount, double scoreSum) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.sentiment = sentiment;
+        this.commentCount = commentCount;
+        this.scoreSum = scoreSum;
+    }
+
+    // Getter & Setter methods for all properties
+    public Granularity getGranularity() {
+        return granularity;
+    }
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getSentiment() {
+        return sentiment;
+    }
+    public void setSentiment(String sentiment) {
+        this.sentiment = sentiment;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public double getScoreSum() {
+        return scoreSum;
+    }
+    public void setScoreSum(double scoreSum) {
+        this.scoreSum = scoreSum;
+    }
+
+    //Composite primary key: one row per granularity, bucket and sentiment label.
+    public static class Key implements Serializable {
+        private Granularity granularity;
+        private LocalDateTime bucketStart;
+        private String sentiment;
+
+        public Key() {}
+
+        public Key(Granularity granularity, LocalDateTime bucketStart, String sentiment) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.sentiment = sentiment;
+        }
+
+        public Granularity getGranularity() {
+            return granularity;
+        }
+
+        public LocalDateTime getBucketStart() {
+            return bucketStart;
+        }
+
+        public String getSentiment() {
+            return sentiment;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return granularity == key.granularity
+                    && Objects.equals(bucketStart, key.bucketStart)
+                    && Objects.equals(sentiment, key.sentiment);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularity, bucketStart, sentiment);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.lmz.sentiment_analysis.repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+
+//Repository fragment of CommentRepository for the comment export, implemented in CommentExportRepositoryImpl.
+// The export query picks its fetch size from the database in use, which a query annotation cannot do.
+public interface CommentExportRepository {
+
+    // Forward-only stream of comments for export, oldest first; null filters are ignored.
+    // Must be consumed inside a transaction and closed, and nothing else may run on its connection until then
+    // (MySQL streams the rows over it). Read-only, so Hibernate keeps no snapshots.
+    Stream<Comment> streamForExport(Long userId, SentimentLabel sentiment, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,58 @@
+package com.lmz.sentiment_analysis.repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+
+//Streams the export query with a fetch size suited to the database.
+// MySQL Connector/J ignores a positive fetch size and buffers the whole result unless useCursorFetch is set, and that
+// flag applies to the whole pool: it turns every query into a server-side prepared statement. Instead the export alone
+// asks for a streaming result set (fetch size Integer.MIN_VALUE), which reads rows one at a time over its connection.
+// Other databases honour a plain fetch size.
+class CommentExportRepositoryImpl implements CommentExportRepository {
+
+    // Rows fetched per round trip on databases other than MySQL
+    static final int EXPORT_FETCH_SIZE = 500;
+    // Connector/J's signal for a row-by-row streaming result set
+    static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final EntityManager entityManager;
+    private volatile Integer fetchSize;
+
+    CommentExportRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Stream<Comment> streamForExport(Long userId, SentimentLabel sentiment, LocalDateTime from, LocalDateTime to) {
+        return entityManager.createQuery("SELECT c FROM Comment c " +
+                        "WHERE (:userId IS NULL OR c.userId = :userId) " +
+                        "AND (:sentiment IS NULL OR c.sentiment = :sentiment) " +
+                        "AND (:from IS NULL OR c.createdAt >= :from) " +
+                        "AND (:to IS NULL OR c.createdAt < :to) " +
+                        "ORDER BY c.createdAt, c.id", Comment.class)
+                .setParameter("userId", userId)
+                .setParameter("sentiment", sentiment)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private int fetchSize() {
+        Integer size = fetchSize;
+        if (size == null) {
+            boolean mySql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof MySQLDialect;
+            size = mySql ? MYSQL_STREAMING_FETCH_SIZE : EXPORT_FETCH_SIZE;
+            fetchSize = size;
+        }
+        return size;
+    }
+}
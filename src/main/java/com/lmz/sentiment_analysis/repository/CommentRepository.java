@@ -1,12 +1,55 @@
 package com.lmz.sentiment_analysis.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.lmz.sentiment_analysis.model.Comment;
 //This repository interface provides CRUD operations for Comment entities.
 // It extends JpaRepository to inherit several methods for working with Comment persistence,
-// it includes a custom method to find comments by a given user's ID.
-public interface CommentRepository extends JpaRepository<Comment, Long> {
-    // Custom query method to find a list of comments by the specified user ID.
-    List<Comment> findByUserId(Long userId);
+// it includes a custom method to find comments by a given user's ID, a lookup of an earlier analysis by content hash,
+// an aggregate count per sentiment,
+// and keyset (cursor) queries that page through comments newest first by (createdAt, id).
+// Pass a Pageable of size n + 1 to find out whether another page follows.
+// The cursor predicate is written as createdAt <= x AND (createdAt < x OR id < y) rather than a plain OR,
+// so the database can range-scan the (createdAt, id) and (userId, createdAt, id) indexes instead of the table.
+// CommentRepositoryQueryPlanTest fails if one of the paging queries stops using an index.
+// The export stream comes from the CommentExportRepository fragment.
+public interface CommentRepository extends JpaRepository<Comment, Long>, CommentExportRepository {
+    // Most recent final (non-provisional) analysis of the same normalized text by the given engine version.
+    Optional<Comment> findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc(String contentHash,
+                                                                                           String engineVersion);
+
+    // Number of comments per sentiment, counted by the database (served from the sentiment index).
+    @Query("SELECT c.sentiment AS sentiment, COUNT(c) AS count FROM Comment c " +
+           "WHERE c.sentiment IS NOT NULL GROUP BY c.sentiment")
+    List<SentimentCount> countBySentiment();
+
+    // First page of all comments, newest first.
+    @Query("SELECT c FROM Comment c ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPage(Pageable pageable);
+
+    // Page of all comments strictly after the (createdAt, id) cursor.
+    @Query("SELECT c FROM Comment c " +
+           "WHERE c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    // First page of one user's comments, newest first.
+    @Query("SELECT c FROM Comment c WHERE c.userId = :userId ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Page of one user's comments strictly after the (createdAt, id) cursor.
+    @Query("SELECT c FROM Comment c WHERE c.userId = :userId " +
+           "AND c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageByUserIdAfter(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
 }
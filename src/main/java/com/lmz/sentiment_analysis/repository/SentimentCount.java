@@ -0,0 +1,9 @@
+package com.lmz.sentiment_analysis.repository;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+
+//Projection for the per-sentiment comment count returned by the GROUP BY aggregate in CommentRepository.
+public interface SentimentCount {
+    SentimentLabel getSentiment();
+    long getCount();
+}
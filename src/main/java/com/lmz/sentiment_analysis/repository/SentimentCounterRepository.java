@@ -0,0 +1,30 @@
+package com.lmz.sentiment_analysis.repository;
+
+import com.lmz.sentiment_analysis.model.SentimentCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+//This repository interface manages the persisted per-sentiment comment counters.
+// Besides the inherited CRUD operations it declares an atomic in-place increment,
+// so several application nodes can flush their deltas to the same row without lost updates.
+public interface SentimentCounterRepository extends JpaRepository<SentimentCounter, String> {
+
+    // Adds delta to the label's count; returns the number of rows updated (0 if the label has no row yet).
+    @Transactional
+    @Modifying
+    @Query("UPDATE SentimentCounter c SET c.commentCount = c.commentCount + :delta WHERE c.label = :label")
+    int addToCount(@Param("label") String label, @Param("delta") long delta);
+
+    // Loads every counter row and locks it until the surrounding transaction ends,
+    // so flushes from any node wait while the counters are reconciled.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM SentimentCounter c")
+    List<SentimentCounter> findAllForUpdate();
+}
@@ -0,0 +1,35 @@
+package com.lmz.sentiment_analysis.repository;
+
+import com.lmz.sentiment_analysis.model.SentimentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+//This repository interface manages the time-bucketed sentiment rollups behind the trend API.
+// Like the sentiment counters it declares an atomic in-place increment, so several nodes can flush
+// deltas to the same bucket, and a range read that walks the primary key in bucket order.
+public interface SentimentRollupRepository extends JpaRepository<SentimentRollup, SentimentRollup.Key> {
+
+    // Adds to one bucket's count and score sum; returns the number of rows updated (0 if the bucket has no row yet).
+    @Transactional
+    @Modifying
+    @Query("UPDATE SentimentRollup r SET r.commentCount = r.commentCount + :count, r.scoreSum = r.scoreSum + :scoreSum " +
+           "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart AND r.sentiment = :sentiment")
+    int addToBucket(@Param("granularity") SentimentRollup.Granularity granularity,
+                    @Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("sentiment") String sentiment,
+                    @Param("count") long count,
+                    @Param("scoreSum") double scoreSum);
+
+    // Buckets starting in [from, to), oldest first.
+    @Query("SELECT r FROM SentimentRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<SentimentRollup> findRange(@Param("granularity") SentimentRollup.Granularity granularity,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+}
@@ -1,17 +1,19 @@
 package com.lmz.sentiment_analysis.security;
 
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 
 //This class implements Spring Security's UserDetails interface to represent a custom security user.
-// It holds user information including id, username, password, and granted authorities (roles/permissions)
-public class CustomUserDetails implements UserDetails {
+// It holds user information including id, username, password, and granted authorities (roles/permissions).
+// The password hash is erased once authentication succeeds, so the principal kept in the session does not carry it.
+public class CustomUserDetails implements UserDetails, CredentialsContainer {
 
     private final Long id;
     private final String username;
-    private final String password;
+    private String password;
     private final Collection<? extends GrantedAuthority> authorities;
     //Constructs a new CustomUserDetails instance with the given user information and authorities.
     public CustomUserDetails(Long id, String username, String password,
@@ -37,6 +39,12 @@ public class CustomUserDetails implements UserDetails {
         return password;
     }
 
+    @Override
+    // Called by the authentication manager after a successful login.
+    public void eraseCredentials() {
+        password = null;
+    }
+
     @Override
     public String getUsername(){
         return username;
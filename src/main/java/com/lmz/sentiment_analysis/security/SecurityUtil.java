@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 
 @Component
 //This utility class provides helper methods for accessing security-related information.
-//It offers methods to retrieve the current user's username and to check whether the user has admin privileges by examining the security context.
+//It offers methods to retrieve the current user's username and id and to check whether the user has admin privileges by examining the security context.
 public class SecurityUtil {
     //Retrieves the current authenticated username from the security context.
     public static String getCurrentUsername() {
@@ -26,6 +26,19 @@ public class SecurityUtil {
         // Otherwise, fallback to the principal's toString representation.
         return principal != null ? principal.toString() : null;
     }
+    //Retrieves the current user's id from the principal loaded at login, without a user lookup.
+    //Every login principal is a CustomUserDetails; returns null for anonymous callers.
+    public static Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof CustomUserDetails) {
+            return ((CustomUserDetails) principal).getId();
+        }
+        return null;
+    }
     //Checks if the current authenticated user has the 'ROLE_ADMIN' authority.
     public static boolean isAdmin() {
         // Get the current Authentication object from the SecurityContext.
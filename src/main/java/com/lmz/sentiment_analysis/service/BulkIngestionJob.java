@@ -0,0 +1,123 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk ingestion upload. Counters are updated by the
+ * reader and the analysis workers while the upload streams in, so the job
+ * can be polled for progress.
+ */
+public class BulkIngestionJob {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final Long userId;
+    private final BulkRecordReader.Format format;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicLong recordsRead = new AtomicLong();
+    private final AtomicLong recordsStored = new AtomicLong();
+    private final AtomicLong recordsFailed = new AtomicLong();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failureMessage;
+    private volatile Path errorFile;
+
+    BulkIngestionJob(String id, Long userId, BulkRecordReader.Format format, Path errorFile) {
+        this.id = id;
+        this.userId = userId;
+        this.format = format;
+        this.errorFile = errorFile;
+    }
+
+    void recordRead() {
+        recordsRead.incrementAndGet();
+    }
+
+    void recordsStored(long count) {
+        recordsStored.addAndGet(count);
+    }
+
+    void recordsFailed(long count) {
+        recordsFailed.addAndGet(count);
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        failureMessage = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    void discardErrorFile() {
+        errorFile = null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public BulkRecordReader.Format getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead.get();
+    }
+
+    public long getRecordsStored() {
+        return recordsStored.get();
+    }
+
+    public long getRecordsFailed() {
+        return recordsFailed.get();
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    /**
+     * Whether a per-record error file can be downloaded for this job.
+     */
+    public boolean isHasErrors() {
+        return errorFile != null && recordsFailed.get() > 0;
+    }
+
+    @JsonIgnore
+    public Path getErrorFile() {
+        return errorFile;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+}
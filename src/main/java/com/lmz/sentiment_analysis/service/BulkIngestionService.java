@@ -0,0 +1,401 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams bulk comment uploads (CSV or NDJSON) into the comments table.
+ * The request thread parses records and hands fixed-size chunks to the
+ * bulkIngestionExecutor; a semaphore caps the chunks in flight, so a fast
+ * upload blocks the reader (and therefore the client) instead of filling
+ * memory. Each chunk is analyzed with {@link HybridNLPProcessor#analyzeSentimentBatch}
+ * and saved with {@link CommentService#saveAll}, which Hibernate sends as
+ * JDBC insert batches. Rejected records are written to a
+ * per-job error file.
+ */
+@Service
+public class BulkIngestionService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIngestionService.class);
+
+    // Matches the default length of Comment.content
+    static final int MAX_CONTENT_LENGTH = 255;
+
+    private final HybridNLPProcessor hybridNLPProcessor;
+    private final CommentService commentService;
+    private final SentimentCounterService sentimentCounterService;
+    private final SentimentTrendService sentimentTrendService;
+    private final CommentListCache commentListCache;
+    private final TaskExecutor executor;
+
+    private final Map<String, BulkIngestionJob> jobs = new ConcurrentHashMap<>();
+    private final LongAdder storedRecords = new LongAdder();
+    private final LongAdder failedRecords = new LongAdder();
+
+    @Value("${bulk.ingest.chunk-size:100}")
+    private int chunkSize = 100;
+
+    @Value("${bulk.ingest.max-in-flight-chunks:4}")
+    private int maxInFlightChunks = 4;
+
+    @Value("${bulk.ingest.error-dir:${java.io.tmpdir}/sentiment-bulk-errors}")
+    private String errorDir = System.getProperty("java.io.tmpdir") + "/sentiment-bulk-errors";
+
+    @Value("${bulk.ingest.max-retained-jobs:50}")
+    private int maxRetainedJobs = 50;
+
+    public BulkIngestionService(HybridNLPProcessor hybridNLPProcessor,
+                                CommentService commentService,
+                                SentimentCounterService sentimentCounterService,
+                                SentimentTrendService sentimentTrendService,
+                                CommentListCache commentListCache,
+                                @Qualifier("bulkIngestionExecutor") TaskExecutor executor) {
+        this.hybridNLPProcessor = hybridNLPProcessor;
+        this.commentService = commentService;
+        this.sentimentCounterService = sentimentCounterService;
+        this.sentimentTrendService = sentimentTrendService;
+        this.commentListCache = commentListCache;
+        this.executor = executor;
+    }
+
+    /**
+     * Ingest an upload. Blocks until every record has been read, analyzed
+     * and stored; progress can be polled meanwhile with {@link #getJob}.
+     * 
+     * @param body The upload body, read incrementally
+     * @param format The upload format
+     * @param userId Owner of the created comments, or null
+     * @return The finished job
+     */
+    public BulkIngestionJob ingest(InputStream body, BulkRecordReader.Format format, Long userId) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path errorFile = Files.createDirectories(Paths.get(errorDir)).resolve(id + "-errors.csv");
+        ErrorWriter errors = new ErrorWriter(Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8));
+        BulkIngestionJob job = new BulkIngestionJob(id, userId, format, errorFile);
+        register(job);
+        logger.info("Bulk ingestion {} started ({})", id, format);
+
+        Semaphore inFlight = new Semaphore(maxInFlightChunks);
+        try (errors) {
+            try (BulkRecordReader reader = BulkRecordReader.forFormat(format,
+                    new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                List<PendingComment> chunk = new ArrayList<>(chunkSize);
+                BulkRecordReader.BulkRecord record;
+                while ((record = reader.next()) != null) {
+                    job.recordRead();
+                    PendingComment pending;
+                    try {
+                        pending = validate(record);
+                    } catch (IllegalArgumentException e) {
+                        errors.write(record.getNumber(), e.getMessage());
+                        recordFailures(job, 1);
+                        continue;
+                    }
+                    chunk.add(pending);
+                    if (chunk.size() >= chunkSize) {
+                        submit(chunk, job, errors, inFlight);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    submit(chunk, job, errors, inFlight);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Bulk ingestion {} aborted after {} records: {}", id, job.getRecordsRead(), e.getMessage());
+                job.fail("Upload aborted: " + e.getMessage());
+            } finally {
+                // Wait for the chunks still in flight before closing the error file
+                inFlight.acquireUninterruptibly(maxInFlightChunks);
+                inFlight.release(maxInFlightChunks);
+            }
+        }
+
+        if (job.getRecordsFailed() == 0) {
+            Files.deleteIfExists(errorFile);
+            job.discardErrorFile();
+        }
+        if (job.getRecordsStored() > 0) {
+            commentListCache.evictForUser(userId);
+        }
+        if (!job.isFinished()) {
+            job.complete();
+        }
+        logger.info("Bulk ingestion {} {}: read={}, stored={}, failed={}", id, job.getStatus(),
+                    job.getRecordsRead(), job.getRecordsStored(), job.getRecordsFailed());
+        return job;
+    }
+
+    public BulkIngestionJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Running and recently finished jobs, newest first.
+     */
+    public List<BulkIngestionJob> getJobs() {
+        List<BulkIngestionJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparing(BulkIngestionJob::getStartedAt).reversed());
+        return list;
+    }
+
+    private void submit(List<PendingComment> chunk, BulkIngestionJob job, ErrorWriter errors, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        Runnable task = () -> {
+            try {
+                processChunk(chunk, job, errors);
+            } finally {
+                inFlight.release();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (TaskRejectedException e) {
+            // Executor saturated by other uploads: run on the reader thread, which also slows the upload
+            task.run();
+        }
+    }
+
+    private void processChunk(List<PendingComment> chunk, BulkIngestionJob job, ErrorWriter errors) {
+        List<String> texts = new ArrayList<>(chunk.size());
+        for (PendingComment pending : chunk) {
+            texts.add(pending.content);
+        }
+
+        List<HybridNLPProcessor.SentimentResult> results;
+        try {
+            results = hybridNLPProcessor.analyzeSentimentBatch(texts);
+        } catch (RuntimeException e) {
+            logger.warn("Bulk ingestion {}: analysis of {} records failed: {}", job.getId(), chunk.size(), e.getMessage());
+            for (PendingComment pending : chunk) {
+                errors.write(pending.recordNumber, "Analysis failed: " + e.getMessage());
+            }
+            recordFailures(job, chunk.size());
+            return;
+        }
+
+        try {
+            List<Comment> comments = toComments(chunk, results, job.getUserId(), 0, chunk.size());
+            commentService.saveAll(comments);
+            recordStored(job, comments);
+        } catch (RuntimeException e) {
+            // Retry row by row so one bad record does not reject the whole chunk
+            logger.warn("Bulk ingestion {}: batch insert failed, retrying rows individually: {}",
+                        job.getId(), e.getMessage());
+            List<Comment> stored = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    List<Comment> row = toComments(chunk, results, job.getUserId(), i, i + 1);
+                    commentService.saveAll(row);
+                    stored.addAll(row);
+                } catch (RuntimeException rowError) {
+                    errors.write(chunk.get(i).recordNumber, "Insert failed: " + rootMessage(rowError));
+                    recordFailures(job, 1);
+                }
+            }
+            recordStored(job, stored);
+        }
+    }
+
+    /**
+     * Build fresh (unsaved) entities for records [from, to) of a chunk.
+     */
+    private List<Comment> toComments(List<PendingComment> chunk, List<HybridNLPProcessor.SentimentResult> results,
+                                     Long userId, int from, int to) {
+        List<Comment> comments = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            PendingComment pending = chunk.get(i);
+            HybridNLPProcessor.SentimentResult result = results.get(i);
+            Comment comment = new Comment(pending.content);
+            CommentServiceImpl.applySentiment(comment, result.getSentiment());
+            comment.setSentimentSource(result.getSource());
+            comment.setCreatedAt(pending.createdAt);
+            comment.setUserId(userId);
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private void recordStored(BulkIngestionJob job, List<Comment> comments) {
+        for (Comment comment : comments) {
+            sentimentCounterService.increment(comment.getSentiment());
+            sentimentTrendService.record(comment);
+        }
+        job.recordsStored(comments.size());
+        storedRecords.add(comments.size());
+    }
+
+    private void recordFailures(BulkIngestionJob job, int count) {
+        job.recordsFailed(count);
+        failedRecords.add(count);
+    }
+
+    /**
+     * Check a parsed record before it is queued for analysis.
+     * 
+     * @throws IllegalArgumentException describing why the record is rejected
+     */
+    private PendingComment validate(BulkRecordReader.BulkRecord record) {
+        if (record.getError() != null) {
+            throw new IllegalArgumentException(record.getError());
+        }
+        String content = record.getContent() != null ? record.getContent().trim() : "";
+        if (content.isEmpty()) {
+            throw new IllegalArgumentException("Comment cannot be blank");
+        }
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Comment exceeds " + MAX_CONTENT_LENGTH + " characters");
+        }
+        return new PendingComment(record.getNumber(), content, parseCreatedAt(record.getCreatedAt()));
+    }
+
+    private LocalDateTime parseCreatedAt(String value) {
+        if (value == null || value.isBlank()) {
+            return LocalDateTime.now();
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(value.trim()).toLocalDateTime();
+            } catch (DateTimeParseException offsetError) {
+                throw new IllegalArgumentException("Invalid createdAt: " + value);
+            }
+        }
+    }
+
+    private void register(BulkIngestionJob job) {
+        jobs.put(job.getId(), job);
+        if (jobs.size() <= maxRetainedJobs) {
+            return;
+        }
+        // Forget the oldest finished jobs and their error files
+        List<BulkIngestionJob> finished = new ArrayList<>();
+        for (BulkIngestionJob candidate : jobs.values()) {
+            if (candidate.isFinished()) {
+                finished.add(candidate);
+            }
+        }
+        finished.sort(Comparator.comparing(BulkIngestionJob::getStartedAt));
+        for (BulkIngestionJob old : finished) {
+            if (jobs.size() <= maxRetainedJobs) {
+                break;
+            }
+            jobs.remove(old.getId());
+            if (old.getErrorFile() != null) {
+                try {
+                    Files.deleteIfExists(old.getErrorFile());
+                } catch (IOException e) {
+                    logger.warn("Could not delete error file {}: {}", old.getErrorFile(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private long activeJobs() {
+        Collection<BulkIngestionJob> current = jobs.values();
+        return current.stream().filter(job -> !job.isFinished()).count();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("bulk.ingest.records", storedRecords, LongAdder::sum)
+                .tag("result", "stored")
+                .register(registry);
+        FunctionCounter.builder("bulk.ingest.records", failedRecords, LongAdder::sum)
+                .tag("result", "failed")
+                .register(registry);
+        Gauge.builder("bulk.ingest.jobs.active", this, BulkIngestionService::activeJobs)
+                .description("Bulk uploads currently streaming")
+                .register(registry);
+    }
+
+    /**
+     * A validated record waiting for analysis.
+     */
+    private static class PendingComment {
+        final long recordNumber;
+        final String content;
+        final LocalDateTime createdAt;
+
+        PendingComment(long recordNumber, String content, LocalDateTime createdAt) {
+            this.recordNumber = recordNumber;
+            this.content = content;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Thread-safe CSV writer for rejected records ("record,error").
+     */
+    private static class ErrorWriter implements AutoCloseable {
+        private final BufferedWriter writer;
+
+        ErrorWriter(BufferedWriter writer) throws IOException {
+            this.writer = writer;
+            writer.write("record,error");
+            writer.newLine();
+        }
+
+        synchronized void write(long recordNumber, String message) {
+            try {
+                writer.write(Long.toString(recordNumber));
+                writer.write(',');
+                writeQuoted(writer, message);
+                writer.newLine();
+            } catch (IOException e) {
+                logger.warn("Could not write bulk error for record {}: {}", recordNumber, e.getMessage());
+            }
+        }
+
+        private static void writeQuoted(Writer writer, String value) throws IOException {
+            writer.write('"');
+            writer.write(value != null ? value.replace("\"", "\"\"") : "");
+            writer.write('"');
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Incremental reader for bulk comment uploads. Records are parsed one at a
+ * time from the underlying stream, so memory use does not depend on the
+ * upload size. Malformed records are returned with an error instead of
+ * aborting the whole upload.
+ */
+public abstract class BulkRecordReader implements Closeable {
+
+    /**
+     * Upload formats accepted by the bulk ingestion endpoint.
+     */
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    // Records longer than this are consumed but not kept in memory
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    protected final BufferedReader reader;
+    protected long recordNumber;
+
+    protected BulkRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    public static BulkRecordReader forFormat(Format format, Reader reader) {
+        return format == Format.CSV ? new Csv(reader) : new Ndjson(reader);
+    }
+
+    /**
+     * Read the next record.
+     * 
+     * @return The record, or null at the end of the stream
+     */
+    public abstract BulkRecord next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * One uploaded record. Exactly one of content and error is normally set.
+     */
+    public static class BulkRecord {
+        private final long number;
+        private final String content;
+        private final String createdAt;
+        private final String error;
+
+        BulkRecord(long number, String content, String createdAt, String error) {
+            this.number = number;
+            this.content = content;
+            this.createdAt = createdAt;
+            this.error = error;
+        }
+
+        static BulkRecord failed(long number, String error) {
+            return new BulkRecord(number, null, null, error);
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public String getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * RFC 4180 CSV. If the first row names a "content" column it is treated
+     * as a header (an optional "createdAt"/"created_at" column is also read);
+     * otherwise the first column of every row is the comment text.
+     */
+    static class Csv extends BulkRecordReader {
+        private boolean headerChecked;
+        private int contentColumn;
+        private int createdAtColumn = -1;
+        private boolean oversized;
+
+        Csv(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        public BulkRecord next() throws IOException {
+            while (true) {
+                List<String> fields = readRow();
+                if (fields == null) {
+                    return null;
+                }
+                if (!headerChecked) {
+                    headerChecked = true;
+                    if (applyHeader(fields)) {
+                        continue;
+                    }
+                }
+                if (fields.size() == 1 && fields.get(0).isEmpty() && !oversized) {
+                    // Blank line
+                    continue;
+                }
+
+                recordNumber++;
+                if (oversized) {
+                    return BulkRecord.failed(recordNumber, "Record exceeds " + MAX_RECORD_CHARS + " characters");
+                }
+                if (contentColumn >= fields.size()) {
+                    return BulkRecord.failed(recordNumber, "Missing content column");
+                }
+                String createdAt = createdAtColumn >= 0 && createdAtColumn < fields.size()
+                        ? fields.get(createdAtColumn) : null;
+                return new BulkRecord(recordNumber, fields.get(contentColumn), createdAt, null);
+            }
+        }
+
+        private boolean applyHeader(List<String> fields) {
+            int content = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+                if (name.equals("content")) {
+                    content = i;
+                } else if (name.equals("createdat") || name.equals("created_at")) {
+                    createdAtColumn = i;
+                }
+            }
+            if (content < 0) {
+                createdAtColumn = -1;
+                return false;
+            }
+            contentColumn = content;
+            return true;
+        }
+
+        /**
+         * Read one row, honouring quoted fields that contain commas,
+         * escaped quotes and line breaks.
+         */
+        private List<String> readRow() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            int rowChars = 0;
+            boolean inQuotes = false;
+            boolean sawAnything = false;
+            oversized = false;
+
+            int c;
+            while ((c = reader.read()) != -1) {
+                sawAnything = true;
+                if (inQuotes) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            rowChars = append(field, '"', rowChars);
+                        } else {
+                            inQuotes = false;
+                            if (peek != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        rowChars = append(field, (char) c, rowChars);
+                    }
+                } else if (c == '"') {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                    break;
+                } else {
+                    rowChars = append(field, (char) c, rowChars);
+                }
+            }
+
+            if (!sawAnything) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int append(StringBuilder field, char c, int rowChars) {
+            if (rowChars >= MAX_RECORD_CHARS) {
+                oversized = true;
+                return rowChars;
+            }
+            field.append(c);
+            return rowChars + 1;
+        }
+    }
+
+    /**
+     * Newline-delimited JSON: one object per line with a "content" string
+     * and an optional "createdAt" string.
+     */
+    static class Ndjson extends BulkRecordReader {
+        private static final ObjectMapper objectMapper = new ObjectMapper();
+
+        private final StringBuilder line = new StringBuilder();
+        private boolean oversized;
+
+        Ndjson(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        public BulkRecord next() throws IOException {
+            while (readLine()) {
+                if (!oversized && line.toString().isBlank()) {
+                    continue;
+                }
+                recordNumber++;
+                if (oversized) {
+                    return BulkRecord.failed(recordNumber, "Record exceeds " + MAX_RECORD_CHARS + " characters");
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line.toString());
+                } catch (JsonProcessingException e) {
+                    return BulkRecord.failed(recordNumber, "Invalid JSON: " + e.getOriginalMessage());
+                }
+                JsonNode content = node.get("content");
+                if (content == null || !content.isTextual()) {
+                    return BulkRecord.failed(recordNumber, "Missing content field");
+                }
+                JsonNode createdAt = node.get("createdAt");
+                return new BulkRecord(recordNumber, content.asText(),
+                        createdAt != null && createdAt.isTextual() ? createdAt.asText() : null, null);
+            }
+            return null;
+        }
+
+        /**
+         * Read one line into {@code line}, keeping at most MAX_RECORD_CHARS
+         * characters; the rest of a longer line is skipped up to its line break.
+         *
+         * @return False at the end of the stream
+         */
+        private boolean readLine() throws IOException {
+            line.setLength(0);
+            oversized = false;
+            boolean sawAnything = false;
+
+            int c;
+            while ((c = reader.read()) != -1) {
+                sawAnything = true;
+                if (c == '\n') {
+                    break;
+                }
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                    break;
+                }
+                if (line.length() < MAX_RECORD_CHARS) {
+                    line.append((char) c);
+                } else {
+                    oversized = true;
+                }
+            }
+            return sawAnything;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reuses the stored analysis of an earlier comment with the same normalized
+ * content. Comments carry a content hash and the engine and model version
+ * that analyzed them (the version the sentiment result cache is scoped to),
+ * so a stored result is only reused while the engine that produced it is
+ * still current. Unlike the result cache, this survives restarts and cache
+ * eviction, which is what keeps spam and templated comments cheap.
+ */
+@Service
+public class CommentDeduplicator implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentDeduplicator.class);
+
+    private final CommentRepository commentRepository;
+    private final String engineVersion;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder llmCallsSaved = new LongAdder();
+
+    @Value("${comments.dedup.enabled:true}")
+    private boolean enabled = true;
+
+    public CommentDeduplicator(CommentRepository commentRepository, SentimentResultCache resultCache) {
+        this.commentRepository = commentRepository;
+        this.engineVersion = resultCache.getVersion();
+    }
+
+    /**
+     * Look up a reusable analysis for a comment's content.
+     *
+     * @param contentHash The {@link TextFingerprint#hash} of the content
+     * @return The stored result of the latest final analysis by the current
+     *         engine version, or null if the content has to be analyzed
+     */
+    public HybridNLPProcessor.SentimentResult findReusable(String contentHash) {
+        if (!enabled) {
+            return null;
+        }
+        Optional<Comment> previous = commentRepository
+                .findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc(contentHash, engineVersion);
+        // LLM fallbacks are not reused, for the same reason they are not cached: a later LLM call may do better
+        if (previous.isEmpty() || previous.get().getSentiment() == null
+                || previous.get().getSentimentConfidence() == null
+                || HybridNLPProcessor.LLM_FALLBACK_SOURCE.equals(previous.get().getSentimentSource())) {
+            misses.increment();
+            return null;
+        }
+
+        Comment comment = previous.get();
+        hits.increment();
+        if (HybridNLPProcessor.HYBRID_SOURCE.equals(comment.getSentimentSource())) {
+            llmCallsSaved.increment();
+        }
+        logger.debug("Reusing the analysis of comment {}: sentiment={}, source={}",
+                     comment.getId(), comment.getSentiment(), comment.getSentimentSource());
+        return new HybridNLPProcessor.SentimentResult(comment.getSentiment(), comment.getSentimentConfidence(),
+                                                      comment.getSentimentSource());
+    }
+
+    /**
+     * Record on the comment what a later duplicate needs to reuse its analysis.
+     */
+    public void stamp(Comment comment, String contentHash, HybridNLPProcessor.SentimentResult result) {
+        comment.setContentHash(contentHash);
+        comment.setEngineVersion(engineVersion);
+        comment.setSentimentConfidence(result.getConfidence());
+    }
+
+    public String getEngineVersion() {
+        return engineVersion;
+    }
+
+    /**
+     * Comments that reused a stored analysis; each one saved a CoreNLP parse.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Reused analyses that had been verified by the LLM, i.e. LLM calls saved.
+     */
+    public long getLlmCallsSaved() {
+        return llmCallsSaved.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("comments.dedup.requests", hits, LongAdder::sum)
+                .description("Comments that reused the stored analysis of identical content")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("comments.dedup.requests", misses, LongAdder::sum)
+                .description("Comments that reused the stored analysis of identical content")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("comments.dedup.saved", hits, LongAdder::sum)
+                .description("Analysis work skipped by reusing stored results")
+                .tag("work", "corenlp")
+                .register(registry);
+        FunctionCounter.builder("comments.dedup.saved", llmCallsSaved, LongAdder::sum)
+                .description("Analysis work skipped by reusing stored results")
+                .tag("work", "llm")
+                .register(registry);
+    }
+}
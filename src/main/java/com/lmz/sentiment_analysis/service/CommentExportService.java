@@ -0,0 +1,178 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams comments out as CSV or NDJSON. Rows are read through a
+ * forward-only JPA stream with a fetch-size hint, written as soon as they
+ * arrive and detached right after, so the persistence context and the
+ * heap stay flat however many rows match. The CSV layout includes the
+ * content and createdAt columns, so an export can be fed back into bulk ingestion.
+ */
+@Service
+public class CommentExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentExportService.class);
+
+    static final String[] COLUMNS = {
+            "id", "userId", "content", "sentiment", "sentimentScore", "sentimentSource", "provisional", "createdAt"
+    };
+
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final CommentRepository commentRepository;
+    private final EntityManager entityManager;
+
+    public CommentExportService(CommentRepository commentRepository, EntityManager entityManager) {
+        this.commentRepository = commentRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Write every comment matching the filters to the output, oldest first.
+     * Null filters match everything. The output is flushed but not closed.
+     *
+     * @param userId Only comments by this user
+     * @param sentiment Only comments with this sentiment
+     * @param from Only comments created at or after this time
+     * @param to Only comments created before this time
+     * @return The number of comments written
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, SentimentLabel sentiment, LocalDateTime from, LocalDateTime to,
+                       BulkRecordReader.Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Comment> comments = commentRepository.streamForExport(userId, sentiment, from, to)) {
+            RowWriter rowWriter = format == BulkRecordReader.Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+            Iterator<Comment> iterator = comments.iterator();
+            while (iterator.hasNext()) {
+                Comment comment = iterator.next();
+                rowWriter.write(comment);
+                // Nothing refers back to an exported row, so let it go
+                entityManager.detach(comment);
+                rows++;
+            }
+            rowWriter.finish();
+        }
+        writer.flush();
+        logger.info("Exported {} comments as {} in {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private interface RowWriter {
+        void write(Comment comment) throws IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row.
+     */
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Comment comment) throws IOException {
+            writer.write(field(comment.getId()));
+            writer.write(',');
+            writer.write(field(comment.getUserId()));
+            writer.write(',');
+            writer.write(field(comment.getContent()));
+            writer.write(',');
+            writer.write(field(comment.getSentiment()));
+            writer.write(',');
+            writer.write(Double.toString(comment.getSentimentScore()));
+            writer.write(',');
+            writer.write(field(comment.getSentimentSource()));
+            writer.write(',');
+            writer.write(Boolean.toString(comment.isProvisional()));
+            writer.write(',');
+            writer.write(field(comment.getCreatedAt()));
+            writer.write("\r\n");
+        }
+
+        static String field(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * One JSON object per line.
+     */
+    private static class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = jsonFactory.createGenerator(writer);
+            // Lines are separated explicitly below
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Comment comment) throws IOException {
+            generator.writeStartObject();
+            writeNumber("id", comment.getId());
+            writeNumber("userId", comment.getUserId());
+            generator.writeStringField("content", comment.getContent());
+            generator.writeStringField("sentiment",
+                    comment.getSentiment() != null ? comment.getSentiment().getLabel() : null);
+            generator.writeNumberField("sentimentScore", comment.getSentimentScore());
+            generator.writeStringField("sentimentSource", comment.getSentimentSource());
+            generator.writeBooleanField("provisional", comment.isProvisional());
+            generator.writeStringField("createdAt",
+                    comment.getCreatedAt() != null ? comment.getCreatedAt().toString() : null);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+
+        private void writeNumber(String name, Long value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeNumberField(name, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.security.SecurityUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keys and targeted eviction for the "comments" cache, which holds the
+ * first page of each user's comment listing ({@code /api/comments/my}
+ * without a cursor and at the default size), the page a user sees on every
+ * visit. Each user's page is cached under their user id, the same id the
+ * page is queried by and that comments store for their author, so neither
+ * reading nor evicting needs a user lookup. The page shown to anonymous
+ * callers contains every comment and is cached under {@link #ALL_KEY}.
+ * A write therefore evicts only the author's entry and the shared one.
+ */
+@Component
+public class CommentListCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentListCache.class);
+
+    public static final String CACHE_NAME = "comments";
+    public static final String ALL_KEY = "all";
+
+    private final CacheManager cacheManager;
+
+    public CommentListCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Cache key for the first page of a user's comments.
+     *
+     * @param userId The user's id, or null for anonymous callers
+     */
+    public static String keyFor(Long userId) {
+        if (userId == null) {
+            return ALL_KEY;
+        }
+        return "user:" + userId;
+    }
+
+    /**
+     * Cache key for the current caller, taken from the security context
+     * without any database lookup.
+     */
+    public static String currentKey() {
+        return keyFor(SecurityUtil.getCurrentUserId());
+    }
+
+    /**
+     * Evict the cached first page of the comment's author and the shared one.
+     *
+     * @param userId The author's id, or null for an anonymous comment
+     */
+    public void evictForUser(Long userId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        if (userId != null) {
+            evict(cache, keyFor(userId));
+        }
+        evict(cache, ALL_KEY);
+    }
+
+    private void evict(Cache cache, String key) {
+        try {
+            cache.evict(key);
+        } catch (RuntimeException e) {
+            logger.warn("Evicting comment list {} failed: {}", key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.lmz.sentiment_analysis.model.Comment;
+
+/**
+ * One page of a keyset-paginated comment listing.
+ * {@code nextCursor} is null on the last page. The first page of a user's
+ * listing is cached (see {@link CommentListCache}), so a page is also read
+ * back from its JSON form.
+ */
+@JsonIgnoreProperties(value = "hasMore", allowGetters = true)
+public class CommentPage {
+
+    private final List<Comment> comments;
+    private final String nextCursor;
+
+    // Copied, so the page never holds a view of a larger list
+    @JsonCreator
+    public CommentPage(@JsonProperty("comments") List<Comment> comments,
+                       @JsonProperty("nextCursor") String nextCursor) {
+        this.comments = new ArrayList<>(comments);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Comment> getComments() {
+        return comments;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
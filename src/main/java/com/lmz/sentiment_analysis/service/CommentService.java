@@ -4,10 +4,15 @@ import com.lmz.sentiment_analysis.model.Comment;
 import java.util.Map;
 
 //This interface defines the contract for comment-related operations.
-//It declares methods to add a comment, retrieve all comments, and compute a global distribution of sentiment values from the comments.
+//It declares methods to add or delete a comment, save already-analyzed comments in one batch, fetch a single comment (to poll for a provisional result's upgrade),
+//page through comments with a cursor (the current user's, or every comment for the admin console), and compute a global distribution of sentiment values from the comments.
 public interface CommentService {
     Comment addComment(String content);
-    List<Comment> getAllComments();
+    List<Comment> saveAll(List<Comment> comments);
+    Comment getComment(Long id);
+    void deleteComment(Long id);
+    CommentPage getCommentPage(String cursor, Integer size);
+    CommentPage getAllCommentsPage(String cursor, Integer size);
     Map<String, Long> getGlobalSentimentDistribution();
 }
 
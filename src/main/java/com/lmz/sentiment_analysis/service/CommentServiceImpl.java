@@ -2,21 +2,23 @@ package com.lmz.sentiment_analysis.service;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.lmz.sentiment_analysis.model.Comment;
-import com.lmz.sentiment_analysis.model.User;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
 import com.lmz.sentiment_analysis.repository.CommentRepository;
-import com.lmz.sentiment_analysis.repository.UserRepository;
+import com.lmz.sentiment_analysis.security.SecurityUtil;
 
 @Service
 public class CommentServiceImpl implements CommentService {
@@ -25,97 +27,202 @@ public class CommentServiceImpl implements CommentService {
 
     private final CommentRepository commentRepository;
     private final HybridNLPProcessor hybridNLPProcessor;
-    private final UserRepository userRepository;
+    private final SentimentUpgradeService sentimentUpgradeService;
+    private final SentimentCounterService sentimentCounterService;
+    private final SentimentTrendService sentimentTrendService;
+    private final CommentListCache commentListCache;
+    private final CommentWriteBehindQueue writeBehindQueue;
+    private final CommentDeduplicator commentDeduplicator;
+    private final NearDuplicateDetector nearDuplicateDetector;
+
+    @Value("${openai.async-verification.enabled:false}")
+    private boolean asyncVerificationEnabled;
+
+    @Value("${comments.page.default-size:20}")
+    private int defaultPageSize = 20;
+
+    @Value("${comments.page.max-size:100}")
+    private int maxPageSize = 100;
 
     @Autowired
     public CommentServiceImpl(CommentRepository commentRepository,
                               HybridNLPProcessor hybridNLPProcessor,
-                              UserRepository userRepository) {
+                              SentimentUpgradeService sentimentUpgradeService,
+                              SentimentCounterService sentimentCounterService,
+                              SentimentTrendService sentimentTrendService,
+                              CommentListCache commentListCache,
+                              CommentWriteBehindQueue writeBehindQueue,
+                              CommentDeduplicator commentDeduplicator,
+                              NearDuplicateDetector nearDuplicateDetector) {
         this.commentRepository = commentRepository;
         this.hybridNLPProcessor = hybridNLPProcessor;
-        this.userRepository = userRepository;
+        this.sentimentUpgradeService = sentimentUpgradeService;
+        this.sentimentCounterService = sentimentCounterService;
+        this.sentimentTrendService = sentimentTrendService;
+        this.commentListCache = commentListCache;
+        this.writeBehindQueue = writeBehindQueue;
+        this.commentDeduplicator = commentDeduplicator;
+        this.nearDuplicateDetector = nearDuplicateDetector;
     }
 
     @Override
-    @CacheEvict(value = {"comments", "sentimentDistribution"}, allEntries = true)
+    // Only the author's cached first page and the shared all-comments page can change
+    @Caching(evict = {
+            @CacheEvict(value = CommentListCache.CACHE_NAME,
+                    key = "T(com.lmz.sentiment_analysis.service.CommentListCache).currentKey()"),
+            @CacheEvict(value = CommentListCache.CACHE_NAME, key = "'" + CommentListCache.ALL_KEY + "'")
+    })
     public Comment addComment(String content) {
         Comment comment = new Comment(content);
+        String contentHash = TextFingerprint.hash(content);
         
-        // Use hybrid NLP processor for sentiment analysis
-        HybridNLPProcessor.SentimentResult result = hybridNLPProcessor.analyzeSentiment(content);
-        comment.setSentiment(result.getSentiment());
+        // Inherit the sentiment of a recent near-duplicate, or reuse the stored analysis of identical content
+        // when the same engine version produced it. Otherwise use hybrid NLP processor for sentiment analysis.
+        // In async verification mode a low-confidence result is saved as provisional and upgraded in the background.
+        HybridNLPProcessor.SentimentResult result;
+        NearDuplicateDetector.Cluster cluster = nearDuplicateDetector.findCluster(content);
+        if (cluster != null) {
+            result = cluster.getResult();
+            comment.setClusterId(cluster.getId());
+        } else {
+            result = commentDeduplicator.findReusable(contentHash);
+            if (result == null) {
+                result = asyncVerificationEnabled
+                        ? hybridNLPProcessor.analyzeSentimentProvisional(content)
+                        : hybridNLPProcessor.analyzeSentiment(content);
+            }
+            comment.setClusterId(nearDuplicateDetector.startCluster(content, contentHash, result));
+        }
 
         logger.info("Sentiment analysis completed: sentiment={}, confidence={}, source={}", 
                     result.getSentiment(), result.getConfidence(), result.getSource());
 
-        // Set emoji, background color, and sentiment score based on the sentiment result
-        switch (result.getSentiment().toLowerCase()) {
-            case "very positive":
-                comment.setEmoji("😄");
-                comment.setBackgroundColor("#ffff00");
-                comment.setSentimentScore(0.95);
-                break;
-            case "positive":
-                comment.setEmoji("😊");
-                comment.setBackgroundColor("#D0F0C0");
-                comment.setSentimentScore(0.85);
-                break;
-            case "negative":
-                comment.setEmoji("😞");
-                comment.setBackgroundColor("#808080");
-                comment.setSentimentScore(0.30);
-                break;
-            case "very negative":
-                comment.setEmoji("😠");
-                comment.setBackgroundColor("#be2528");
-                comment.setSentimentScore(0.10);
-                break;
-            default:
-                comment.setEmoji("😐");
-                comment.setBackgroundColor("#FFFFFF");
-                comment.setSentimentScore(0.50);
-                break;
+        applySentiment(comment, result.getSentiment());
+        comment.setSentimentSource(result.getSource());
+        comment.setProvisional(result.isProvisional());
+        if (cluster == null) {
+            commentDeduplicator.stamp(comment, contentHash, result);
+        } else {
+            // An inherited result was not produced for this text, so it is not offered for reuse by exact duplicates
+            comment.setSentimentConfidence(result.getConfidence());
         }
         
-        Long currentUserId = getCurrentUserId();
+        Long currentUserId = SecurityUtil.getCurrentUserId();
         if (currentUserId != null) {
             comment.setUserId(currentUserId);
         }
+
+        // In write-behind mode the flusher persists a copy of the comment, then updates counters and cache.
+        // The returned comment has no id yet, so provisional results, whose upgrade is polled by id,
+        // are saved here; so is everything else when the queue is full.
+        if (writeBehindQueue.isEnabled() && !result.isProvisional() && writeBehindQueue.enqueue(comment)) {
+            return comment;
+        }
         
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        sentimentCounterService.increment(savedComment.getSentiment());
+        sentimentTrendService.record(savedComment);
+        if (result.isProvisional()) {
+            sentimentUpgradeService.scheduleUpgrade(savedComment.getId(), content, result);
+        }
+        return savedComment;
     }
 
     @Override
-    @Cacheable(value = "comments", key = "#root.methodName + '_' + @commentServiceImpl.getCurrentUserId()")
-    public List<Comment> getAllComments() {
-        Long currentUserId = getCurrentUserId();
+    @Transactional
+    // Saves already-analyzed comments in one transaction; with pooled ids and hibernate.jdbc.batch_size
+    // the inserts go out as JDBC batches (multi-row inserts on MySQL with rewriteBatchedStatements)
+    public List<Comment> saveAll(List<Comment> comments) {
+        return commentRepository.saveAll(comments);
+    }
+
+    @Override
+    public Comment getComment(Long id) {
+        Comment comment = commentRepository.findById(id).orElse(null);
+        if (comment == null) {
+            return null;
+        }
+        // Users may only poll their own comments; admins may poll any
+        Long currentUserId = SecurityUtil.getCurrentUserId();
+        if (SecurityUtil.isAdmin() || (currentUserId != null && currentUserId.equals(comment.getUserId()))) {
+            return comment;
+        }
+        return null;
+    }
+
+    @Override
+    public void deleteComment(Long id) {
+        commentRepository.findById(id).ifPresent(comment -> {
+            commentRepository.delete(comment);
+            sentimentCounterService.decrement(comment.getSentiment());
+            sentimentTrendService.remove(comment);
+            commentListCache.evictForUser(comment.getUserId());
+        });
+    }
+
+    // Set the sentiment and its score; emoji and background color are derived from the sentiment
+    static void applySentiment(Comment comment, SentimentLabel sentiment) {
+        comment.setSentiment(sentiment);
+        comment.setSentimentScore(sentiment.getScore());
+    }
+
+    @Override
+    // The first page at the default size is cached per user, keyed by the user id carried by the login principal
+    @Cacheable(value = CommentListCache.CACHE_NAME,
+            key = "T(com.lmz.sentiment_analysis.service.CommentListCache).currentKey()",
+            condition = "(#cursor == null || #cursor.isBlank()) && #size == null")
+    public CommentPage getCommentPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        CommentCursor after = cursor != null && !cursor.isBlank() ? CommentCursor.decode(cursor) : null;
+
+        // The current user's comments, or every comment when anonymous
+        Long currentUserId = SecurityUtil.getCurrentUserId();
+        List<Comment> rows;
         if (currentUserId != null) {
-            return commentRepository.findByUserId(currentUserId);
+            rows = after == null
+                    ? commentRepository.findPageByUserId(currentUserId, limit)
+                    : commentRepository.findPageByUserIdAfter(currentUserId, after.getCreatedAt(), after.getId(), limit);
         } else {
-            return commentRepository.findAll();
+            rows = after == null
+                    ? commentRepository.findPage(limit)
+                    : commentRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
         }
+        return toPage(rows, pageSize);
     }
 
     @Override
-    @Cacheable(value = "sentimentDistribution")
-    public Map<String, Long> getGlobalSentimentDistribution() {
-        return commentRepository.findAll().stream()
-                .collect(Collectors.groupingBy(
-                        Comment::getSentiment,
-                        Collectors.counting()
-                ));
+    public CommentPage getAllCommentsPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        CommentCursor after = cursor != null && !cursor.isBlank() ? CommentCursor.decode(cursor) : null;
+
+        List<Comment> rows = after == null
+                ? commentRepository.findPage(limit)
+                : commentRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        return toPage(rows, pageSize);
     }
 
-    public Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() ||
-                "anonymousUser".equals(authentication.getPrincipal())) {
-            return null;
+    // Clamp the requested page size to [1, maxPageSize]
+    private int resolvePageSize(Integer size) {
+        if (size == null || size < 1) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    // Rows were fetched with one extra entry; its presence means another page follows
+    private CommentPage toPage(List<Comment> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new CommentPage(rows, null);
         }
+        List<Comment> page = rows.subList(0, pageSize);
+        return new CommentPage(page, CommentCursor.after(page.get(pageSize - 1)).encode());
+    }
 
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .map(User::getId)
-                .orElse(null);
+    @Override
+    public Map<String, Long> getGlobalSentimentDistribution() {
+        // Served from incrementally maintained counters, so it needs no cache and no eviction
+        return sentimentCounterService.getDistribution();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,273 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional write-behind persistence for analyzed comments
+ * ({@code comments.write-behind.enabled}). Requests hand the analyzed
+ * Comment to a bounded queue and return without waiting for the database;
+ * the queue keeps its own copy, so the flusher never touches the instance
+ * the request returns.
+ * a single flusher thread saves queued comments in batched transactions.
+ * A batch is written once it reaches {@code max-batch-size} or once its
+ * oldest comment has waited {@code max-lag-ms}, which bounds how long an
+ * accepted comment can stay unpersisted. The queue is drained on graceful
+ * shutdown. Counters and cache eviction run after the comment is persisted.
+ * Provisional results are not accepted: their background upgrade is polled
+ * by id, which a queued comment does not have yet.
+ */
+@Component
+public class CommentWriteBehindQueue implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentWriteBehindQueue.class);
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final CommentRepository commentRepository;
+    private final SentimentCounterService sentimentCounterService;
+    private final SentimentTrendService sentimentTrendService;
+    private final CommentListCache commentListCache;
+
+    @Value("${comments.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${comments.write-behind.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${comments.write-behind.max-batch-size:200}")
+    private int maxBatchSize = 200;
+
+    @Value("${comments.write-behind.max-lag-ms:200}")
+    private long maxLagMillis = 200;
+
+    @Value("${comments.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMillis = 30000;
+
+    private BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(1);
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAdder lagNanos = new LongAdder();
+    private volatile int lastBatchSize;
+
+    public CommentWriteBehindQueue(CommentRepository commentRepository,
+                                   SentimentCounterService sentimentCounterService,
+                                   SentimentTrendService sentimentTrendService,
+                                   CommentListCache commentListCache) {
+        this.commentRepository = commentRepository;
+        this.sentimentCounterService = sentimentCounterService;
+        this.sentimentTrendService = sentimentTrendService;
+        this.commentListCache = commentListCache;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        running = true;
+        flusher = new Thread(this::flushLoop, "comment-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Comment write-behind enabled: capacity={}, max batch={}, max lag={} ms",
+                    queueCapacity, maxBatchSize, maxLagMillis);
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Queue a copy of an analyzed comment for persistence. The caller's
+     * instance is not modified and keeps a null id.
+     *
+     * @param comment The analyzed, unsaved comment; must not be provisional
+     * @return false if write-behind is off or the queue is full; the caller must then save synchronously
+     */
+    public boolean enqueue(Comment comment) {
+        if (!running || !queue.offer(new Pending(new Comment(comment), System.nanoTime()))) {
+            rejected.increment();
+            return false;
+        }
+        enqueued.increment();
+        return true;
+    }
+
+    /**
+     * Stop accepting comments and persist everything still queued.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything the flusher did not get to, including late offers racing the stop
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.info("Persisting {} queued comments on shutdown", remaining.size());
+            for (int from = 0; from < remaining.size(); from += Math.max(1, maxBatchSize)) {
+                persist(remaining.subList(from, Math.min(remaining.size(), from + Math.max(1, maxBatchSize))));
+            }
+        }
+    }
+
+    private void flushLoop() {
+        int batchLimit = Math.max(1, maxBatchSize);
+        long maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+        // Keep draining after a stop until the queue is empty
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<Pending> batch = new ArrayList<>(batchLimit);
+                batch.add(first);
+                // The lag bound counts from when the oldest comment was accepted
+                long deadline = first.enqueuedAt + maxLagNanos;
+                while (batch.size() < batchLimit) {
+                    if (queue.drainTo(batch, batchLimit - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    // Wake up regularly so a shutdown does not wait out the full lag
+                    Pending next = queue.poll(Math.min(remaining, POLL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Comment write-behind flusher error: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void persist(List<Pending> batch) {
+        List<Comment> comments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            comments.add(pending.comment);
+        }
+
+        List<Pending> saved = new ArrayList<>(batch.size());
+        long start = System.nanoTime();
+        try {
+            commentRepository.saveAll(comments);
+            saved.addAll(batch);
+        } catch (RuntimeException e) {
+            // One bad row fails the whole transaction; retry row by row to keep the good ones
+            logger.warn("Write-behind batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                // The failed persist may have assigned an id that was never committed
+                pending.comment.setId(null);
+                try {
+                    commentRepository.save(pending.comment);
+                    saved.add(pending);
+                } catch (RuntimeException rowError) {
+                    failed.increment();
+                    logger.error("Dropping write-behind comment from user {}: {}",
+                                 pending.comment.getUserId(), rowError.getMessage());
+                }
+            }
+        }
+        long finished = System.nanoTime();
+        flushNanos.add(finished - start);
+        batches.increment();
+        lastBatchSize = batch.size();
+
+        Set<Long> authors = new LinkedHashSet<>();
+        for (Pending pending : saved) {
+            lagNanos.add(finished - pending.enqueuedAt);
+            persisted.increment();
+            sentimentCounterService.increment(pending.comment.getSentiment());
+            sentimentTrendService.record(pending.comment);
+            authors.add(pending.comment.getUserId());
+        }
+        for (Long author : authors) {
+            commentListCache.evictForUser(author);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("comments.write-behind.queue.depth", this, q -> q.queue.size())
+                .description("Analyzed comments waiting to be persisted")
+                .register(registry);
+        FunctionCounter.builder("comments.write-behind.enqueued", enqueued, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("comments.write-behind.rejected", rejected, LongAdder::sum)
+                .description("Comments saved synchronously because write-behind was off or full")
+                .register(registry);
+        FunctionCounter.builder("comments.write-behind.persisted", persisted, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("comments.write-behind.failed", failed, LongAdder::sum)
+                .description("Queued comments that could not be persisted")
+                .register(registry);
+        Gauge.builder("comments.write-behind.batch.size", this, q -> q.lastBatchSize)
+                .description("Size of the most recent flushed batch")
+                .register(registry);
+        FunctionTimer.builder("comments.write-behind.flush", this,
+                              q -> q.batches.sum(), q -> q.flushNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent writing each batch")
+                .register(registry);
+        FunctionTimer.builder("comments.write-behind.lag", this,
+                              q -> q.persisted.sum(), q -> q.lagNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time from enqueue until the comment was persisted")
+                .register(registry);
+    }
+
+    /**
+     * An accepted comment waiting for the flusher.
+     */
+    static class Pending {
+        final Comment comment;
+        final long enqueuedAt;
+
+        Pending(Comment comment, long enqueuedAt) {
+            this.comment = comment;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.lmz.sentiment_analysis.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Registry of shared Stanford CoreNLP pipelines, keyed by annotator profile.
+ * Each profile is loaded lazily on first use and then reused by every
+ * processor, so the parser and sentiment models are held in memory once per node.
+ */
+@Component
+public class CoreNLPPipelineRegistry implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoreNLPPipelineRegistry.class);
+
+    /**
+     * Annotator profiles supported by the registry.
+     */
+    public enum Profile {
+        SENTIMENT("tokenize,ssplit,parse,sentiment"),
+        TOKENIZE("tokenize,ssplit");
+
+        private final String annotators;
+
+        Profile(String annotators) {
+            this.annotators = annotators;
+        }
+
+        public String getAnnotators() {
+            return annotators;
+        }
+    }
+
+    private final Map<Profile, PipelineHolder> holders = new EnumMap<>(Profile.class);
+
+    public CoreNLPPipelineRegistry() {
+        for (Profile profile : Profile.values()) {
+            holders.put(profile, new PipelineHolder(profile));
+        }
+    }
+
+    /**
+     * Get the shared pipeline for a profile, loading it on first use.
+     * Concurrent callers for the same profile wait for a single load.
+     *
+     * @param profile The annotator profile
+     * @return The shared pipeline
+     */
+    public StanfordCoreNLP getPipeline(Profile profile) {
+        return holders.get(profile).get();
+    }
+
+    /**
+     * Statistics for every profile that has been loaded so far.
+     */
+    public Map<Profile, PipelineStats> getLoadedProfileStats() {
+        Map<Profile, PipelineStats> stats = new EnumMap<>(Profile.class);
+        for (PipelineHolder holder : holders.values()) {
+            PipelineStats holderStats = holder.stats;
+            if (holderStats != null) {
+                stats.put(holder.profile, holderStats);
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (PipelineHolder holder : holders.values()) {
+            Gauge.builder("corenlp.pipeline.memory", holder,
+                            h -> h.stats != null ? h.stats.getApproximateMemoryBytes() : 0)
+                    .tag("profile", holder.profile.name())
+                    .description("Approximate heap retained by a loaded CoreNLP pipeline")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("corenlp.pipeline.load.time", holder,
+                            h -> h.stats != null ? h.stats.getLoadTimeMillis() : 0)
+                    .tag("profile", holder.profile.name())
+                    .description("Time taken to load a CoreNLP pipeline")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Lazily initialized holder for one profile (double-checked locking).
+     */
+    private static class PipelineHolder {
+        private final Profile profile;
+        private volatile StanfordCoreNLP pipeline;
+        private volatile PipelineStats stats;
+
+        PipelineHolder(Profile profile) {
+            this.profile = profile;
+        }
+
+        StanfordCoreNLP get() {
+            StanfordCoreNLP result = pipeline;
+            if (result == null) {
+                synchronized (this) {
+                    result = pipeline;
+                    if (result == null) {
+                        result = load();
+                        pipeline = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private StanfordCoreNLP load() {
+            logger.info("Loading CoreNLP pipeline for profile {} ({})", profile, profile.getAnnotators());
+
+            Runtime runtime = Runtime.getRuntime();
+            long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+            long start = System.nanoTime();
+
+            Properties props = new Properties();
+            props.setProperty("annotators", profile.getAnnotators());
+            StanfordCoreNLP loaded = new StanfordCoreNLP(props);
+
+            long loadTimeMillis = (System.nanoTime() - start) / 1_000_000;
+            long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+            // Heap delta around the load; approximate because other threads allocate too
+            long approximateMemory = Math.max(0, usedAfter - usedBefore);
+
+            stats = new PipelineStats(profile.getAnnotators(), approximateMemory, loadTimeMillis);
+            logger.info("Loaded CoreNLP pipeline for profile {} in {} ms, approx. {} MB retained",
+                        profile, loadTimeMillis, approximateMemory / (1024 * 1024));
+            return loaded;
+        }
+    }
+
+    /**
+     * Load statistics for a pipeline profile.
+     */
+    public static class PipelineStats {
+        private final String annotators;
+        private final long approximateMemoryBytes;
+        private final long loadTimeMillis;
+
+        public PipelineStats(String annotators, long approximateMemoryBytes, long loadTimeMillis) {
+            this.annotators = annotators;
+            this.approximateMemoryBytes = approximateMemoryBytes;
+            this.loadTimeMillis = loadTimeMillis;
+        }
+
+        public String getAnnotators() {
+            return annotators;
+        }
+
+        public long getApproximateMemoryBytes() {
+            return approximateMemoryBytes;
+        }
+
+        public long getLoadTimeMillis() {
+            return loadTimeMillis;
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package com.lmz.sentiment_analysis.service;
 
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,46 +19,118 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
+import org.ejml.simple.SimpleMatrix;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+
 import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.neural.rnn.RNNCoreAnnotations;
 import edu.stanford.nlp.pipeline.Annotation;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import edu.stanford.nlp.sentiment.SentimentCoreAnnotations;
+import edu.stanford.nlp.trees.Tree;
 import edu.stanford.nlp.util.CoreMap;
 
 /**
  * Hybrid NLP Processor combining Stanford CoreNLP with LLM verification.
  * Uses CoreNLP as the primary analysis engine and falls back to LLM
  * when confidence is low, creating a robust sentiment analysis pipeline.
+ * Concurrent requests for the same (normalized) text share one in-flight analysis.
  */
 @Service
 @Primary
-public class HybridNLPProcessor {
+public class HybridNLPProcessor implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(HybridNLPProcessor.class);
 
-    private final StanfordCoreNLP pipeline;
+    public static final String HYBRID_SOURCE = "Hybrid (CoreNLP + LLM)";
+    public static final String LLM_FALLBACK_SOURCE = "CoreNLP (LLM fallback)";
+    public static final String PROVISIONAL_SOURCE = "CoreNLP (provisional)";
+
+    private final CoreNLPPipelineRegistry pipelineRegistry;
     private final LLMVerificationService llmVerificationService;
+    private final SentimentResultCache resultCache;
+
+    // In-flight analyses keyed by normalized text hash; ConcurrentHashMap locks per bin
+    private final ConcurrentMap<String, CompletableFuture<SentimentResult>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedRequests = new LongAdder();
 
     @Value("${openai.confidence.threshold:0.7}")
     private double confidenceThreshold;
 
+    @Value("${nlp.batch.threads:0}")
+    private int batchThreads;
+
     @Autowired
-    public HybridNLPProcessor(LLMVerificationService llmVerificationService) {
-        Properties props = new Properties();
-        props.setProperty("annotators", "tokenize,ssplit,parse,sentiment");
-        this.pipeline = new StanfordCoreNLP(props);
+    public HybridNLPProcessor(CoreNLPPipelineRegistry pipelineRegistry,
+                              LLMVerificationService llmVerificationService,
+                              SentimentResultCache resultCache) {
+        this.pipelineRegistry = pipelineRegistry;
         this.llmVerificationService = llmVerificationService;
+        this.resultCache = resultCache;
     }
 
     /**
      * Analyze sentiment using hybrid approach:
-     * 1. First use CoreNLP for fast analysis
-     * 2. If confidence is low, verify with LLM
+     * 1. Return a cached result for identical (normalized) text
+     * 2. Join an analysis of the same text that is already in flight
+     * 3. Otherwise use CoreNLP for fast analysis
+     * 4. If confidence is low, verify with LLM
      * 
      * @param text The text to analyze
      * @return Sentiment analysis result with confidence
      */
     public SentimentResult analyzeSentiment(String text) {
+        SentimentResult cached = resultCache.get(text);
+        if (cached != null) {
+            logger.debug("Sentiment cache hit: sentiment={}, source={}", cached.getSentiment(), cached.getSource());
+            return cached;
+        }
+
+        String key = TextFingerprint.hash(text);
+        CompletableFuture<SentimentResult> own = new CompletableFuture<>();
+        CompletableFuture<SentimentResult> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalescedRequests.increment();
+            logger.debug("Joining in-flight analysis for identical text");
+            return await(existing);
+        }
+
+        try {
+            SentimentResult result = analyzeUncached(text);
+            // Cache before leaving the in-flight map so later callers hit the cache
+            cacheIfFinal(text, result);
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Wait for an in-flight analysis, rethrowing its failure unwrapped.
+     */
+    private SentimentResult await(CompletableFuture<SentimentResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Run CoreNLP and, for low-confidence results, the LLM.
+     */
+    private SentimentResult analyzeUncached(String text) {
         // Phase 1: CoreNLP Analysis
         CoreNLPResult coreNLPResult = analyzeSentimentWithCoreNLP(text);
         
@@ -60,84 +142,305 @@ public class HybridNLPProcessor {
             return new SentimentResult(
                 coreNLPResult.sentiment, 
                 coreNLPResult.confidence, 
-                "CoreNLP"
+                "CoreNLP",
+                coreNLPResult.distribution
             );
         }
 
         // Phase 2: LLM Verification for low-confidence cases
+        if (!llmVerificationService.isAvailable()) {
+            logger.info("Low confidence detected but LLM circuit is open. Using CoreNLP result.");
+            return llmFallback(coreNLPResult);
+        }
         logger.info("Low confidence detected. Verifying with LLM...");
         LLMVerificationService.LLMSentimentResult llmResult = 
             llmVerificationService.verifySentiment(text);
 
+        return combine(coreNLPResult, llmResult);
+    }
+
+    /**
+     * Non-blocking variant of {@link #analyzeSentiment(String)}. Confident
+     * CoreNLP results (and cached results) are returned as final; otherwise
+     * the CoreNLP result is returned immediately marked provisional, and the
+     * caller is expected to finish it later with {@link #completeProvisional}.
+     * 
+     * @param text The text to analyze
+     * @return A final or provisional sentiment result
+     */
+    public SentimentResult analyzeSentimentProvisional(String text) {
+        SentimentResult cached = resultCache.get(text);
+        if (cached != null) {
+            return cached;
+        }
+
+        CoreNLPResult coreNLPResult = analyzeSentimentWithCoreNLP(text);
+        logger.info("CoreNLP analysis: sentiment={}, confidence={}", 
+                    coreNLPResult.sentiment, coreNLPResult.confidence);
+
+        if (coreNLPResult.confidence >= confidenceThreshold) {
+            SentimentResult result = new SentimentResult(coreNLPResult.sentiment,
+                coreNLPResult.confidence, "CoreNLP", coreNLPResult.distribution);
+            resultCache.put(text, result);
+            return result;
+        }
+
+        logger.info("Low confidence detected. Returning provisional result; LLM verification deferred.");
+        return new SentimentResult(coreNLPResult.sentiment, coreNLPResult.confidence,
+            PROVISIONAL_SOURCE, coreNLPResult.distribution);
+    }
+
+    /**
+     * Run the deferred LLM verification for a provisional result. Blocks on
+     * the LLM, so it should be called from a background executor.
+     * 
+     * @param text The analyzed text
+     * @param provisional The provisional result returned earlier
+     * @return The final sentiment result
+     */
+    public SentimentResult completeProvisional(String text, SentimentResult provisional) {
+        CoreNLPResult coreNLPResult = new CoreNLPResult(provisional.getSentiment(),
+            provisional.getConfidence(), provisional.getClassDistribution());
+
+        if (!llmVerificationService.isAvailable()) {
+            return llmFallback(coreNLPResult);
+        }
+        LLMVerificationService.LLMSentimentResult llmResult = 
+            llmVerificationService.verifySentiment(text);
+
+        SentimentResult result = combine(coreNLPResult, llmResult);
+        cacheIfFinal(text, result);
+        return result;
+    }
+
+    /**
+     * Analyze many texts at once. Cached texts are answered directly, CoreNLP
+     * annotates the remaining texts across {@code nlp.batch.threads} threads,
+     * and all low-confidence items are handed to the LLM together as one group.
+     * 
+     * @param texts The texts to analyze
+     * @return Sentiment results in input order
+     */
+    public List<SentimentResult> analyzeSentimentBatch(List<String> texts) {
+        List<SentimentResult> results = new ArrayList<>(texts.size());
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            SentimentResult cached = resultCache.get(texts.get(i));
+            results.add(cached);
+            if (cached == null) {
+                missIndexes.add(i);
+            }
+        }
+        if (missIndexes.isEmpty()) {
+            return results;
+        }
+
+        // Phase 1: multi-threaded CoreNLP annotation of the uncached texts
+        List<Annotation> annotations = new ArrayList<>(missIndexes.size());
+        for (int index : missIndexes) {
+            annotations.add(new Annotation(texts.get(index)));
+        }
+        StanfordCoreNLP pipeline = pipelineRegistry.getPipeline(CoreNLPPipelineRegistry.Profile.SENTIMENT);
+        pipeline.annotate(annotations, resolveBatchThreads());
+
+        List<CoreNLPResult> coreNLPResults = new ArrayList<>(missIndexes.size());
+        List<Integer> lowConfidence = new ArrayList<>();
+        for (int i = 0; i < annotations.size(); i++) {
+            CoreNLPResult coreNLPResult = toCoreNLPResult(annotations.get(i));
+            coreNLPResults.add(coreNLPResult);
+            if (coreNLPResult.confidence >= confidenceThreshold) {
+                results.set(missIndexes.get(i), new SentimentResult(coreNLPResult.sentiment,
+                    coreNLPResult.confidence, "CoreNLP", coreNLPResult.distribution));
+            } else {
+                lowConfidence.add(i);
+            }
+        }
+
+        // Phase 2: LLM verification of the low-confidence group
+        if (!lowConfidence.isEmpty() && !llmVerificationService.isAvailable()) {
+            logger.info("Batch of {}: LLM circuit is open. Using CoreNLP results for {} low-confidence items.",
+                        texts.size(), lowConfidence.size());
+            for (int i : lowConfidence) {
+                results.set(missIndexes.get(i), llmFallback(coreNLPResults.get(i)));
+            }
+        } else if (!lowConfidence.isEmpty()) {
+            logger.info("Batch of {}: {} low-confidence items. Verifying with LLM...",
+                        texts.size(), lowConfidence.size());
+            List<String> lowConfidenceTexts = new ArrayList<>(lowConfidence.size());
+            for (int i : lowConfidence) {
+                lowConfidenceTexts.add(texts.get(missIndexes.get(i)));
+            }
+
+            List<LLMVerificationService.LLMSentimentResult> llmResults =
+                llmVerificationService.verifySentimentBatch(lowConfidenceTexts);
+
+            for (int j = 0; j < lowConfidence.size(); j++) {
+                int i = lowConfidence.get(j);
+                results.set(missIndexes.get(i), combine(coreNLPResults.get(i), llmResults.get(j)));
+            }
+        }
+
+        for (int index : missIndexes) {
+            cacheIfFinal(texts.get(index), results.get(index));
+        }
+        return results;
+    }
+
+    /**
+     * Number of requests answered by joining another request's in-flight analysis.
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequests.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("nlp.requests.coalesced", coalescedRequests, LongAdder::sum)
+                .description("Sentiment requests that joined an identical in-flight analysis")
+                .register(registry);
+        Gauge.builder("nlp.requests.in.flight", inFlight, ConcurrentMap::size)
+                .description("Distinct texts currently being analyzed")
+                .register(registry);
+    }
+
+    /**
+     * Cache a result unless it is an LLM fallback, which a later
+     * successful LLM call should be able to improve on.
+     */
+    private void cacheIfFinal(String text, SentimentResult result) {
+        if (!LLM_FALLBACK_SOURCE.equals(result.getSource())) {
+            resultCache.put(text, result);
+        }
+    }
+
+    /**
+     * Combine a low-confidence CoreNLP result with its LLM verification.
+     */
+    private SentimentResult combine(CoreNLPResult coreNLPResult,
+                                    LLMVerificationService.LLMSentimentResult llmResult) {
         if (llmResult.isSuccess()) {
             logger.info("LLM verification: sentiment={}, confidence={}", 
                        llmResult.getSentiment(), llmResult.getConfidence());
             return new SentimentResult(
                 llmResult.getSentiment(), 
                 llmResult.getConfidence(), 
-                "Hybrid (CoreNLP + LLM)"
+                HYBRID_SOURCE,
+                coreNLPResult.distribution
             );
         }
 
         // Fallback to CoreNLP if LLM fails
         logger.warn("LLM verification failed. Using CoreNLP result.");
+        return llmFallback(coreNLPResult);
+    }
+
+    /**
+     * The CoreNLP result, labelled as used in place of the LLM.
+     */
+    private SentimentResult llmFallback(CoreNLPResult coreNLPResult) {
         return new SentimentResult(
             coreNLPResult.sentiment, 
             coreNLPResult.confidence, 
-            "CoreNLP (LLM fallback)"
+            LLM_FALLBACK_SOURCE,
+            coreNLPResult.distribution
         );
     }
 
+    /**
+     * Number of annotation threads for batch analysis; 0 means one per core.
+     */
+    private int resolveBatchThreads() {
+        return batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * Analyze sentiment using Stanford CoreNLP.
      */
     private CoreNLPResult analyzeSentimentWithCoreNLP(String text) {
         Annotation annotation = new Annotation(text);
+        StanfordCoreNLP pipeline = pipelineRegistry.getPipeline(CoreNLPPipelineRegistry.Profile.SENTIMENT);
         pipeline.annotate(annotation);
+        return toCoreNLPResult(annotation);
+    }
 
+    /**
+     * Extract the sentiment of the first sentence from an annotated document.
+     * The predicted class index is the sentiment code, so no label string is
+     * parsed unless the sentence has no sentiment tree.
+     */
+    private CoreNLPResult toCoreNLPResult(Annotation annotation) {
         for (CoreMap sentence : annotation.get(CoreAnnotations.SentencesAnnotation.class)) {
-            String sentiment = sentence.get(SentimentCoreAnnotations.SentimentClass.class);
-            
-            // Calculate confidence based on sentiment distribution
-            // CoreNLP provides sentiment scores from 0-4
-            String sentimentValue = sentence.get(SentimentCoreAnnotations.SentimentAnnotatedTree.class).toString();
-            double confidence = calculateConfidence(sentiment, sentimentValue);
+            // The root node of the sentiment tree carries the probability of each
+            // of the 5 classes (0 = very negative ... 4 = very positive)
+            Tree sentimentTree = sentence.get(SentimentCoreAnnotations.SentimentAnnotatedTree.class);
+            int predictedClass = sentimentTree != null ? RNNCoreAnnotations.getPredictedClass(sentimentTree) : -1;
+            SentimentLabel sentiment = toSentimentLabel(predictedClass,
+                sentence.get(SentimentCoreAnnotations.SentimentClass.class));
+            double[] distribution = classDistribution(sentimentTree);
+            double confidence = calculateConfidence(predictedClass, distribution);
             
-            return new CoreNLPResult(sentiment, confidence);
+            return new CoreNLPResult(sentiment, confidence, distribution);
         }
 
-        return new CoreNLPResult("Neutral", 0.5);
+        return new CoreNLPResult(SentimentLabel.NEUTRAL, 0.5, null);
     }
 
     /**
-     * Calculate confidence score based on sentiment strength.
-     * This is a heuristic based on the extremity of the sentiment.
+     * The sentiment for a predicted class index, falling back to the
+     * class label when the tree has no prediction.
      */
-    private double calculateConfidence(String sentiment, String sentimentTree) {
-        switch (sentiment.toLowerCase()) {
-            case "very positive":
-            case "very negative":
-                return 0.85; // High confidence for extreme sentiments
-            case "positive":
-            case "negative":
-                return 0.70; // Medium confidence
-            case "neutral":
-                return 0.55; // Lower confidence for neutral
-            default:
-                return 0.50;
+    private SentimentLabel toSentimentLabel(int predictedClass, String sentimentClass) {
+        if (predictedClass >= 0 && predictedClass <= SentimentLabel.VERY_POSITIVE.getCode()) {
+            return SentimentLabel.fromCode(predictedClass);
         }
+        return sentimentClass != null ? SentimentLabel.parse(sentimentClass) : SentimentLabel.NEUTRAL;
+    }
+
+    /**
+     * Read the root node's class probability distribution.
+     * 
+     * @return The 5-class distribution, or null if the tree has no predictions
+     */
+    private double[] classDistribution(Tree sentimentTree) {
+        if (sentimentTree == null) {
+            return null;
+        }
+        SimpleMatrix predictions = RNNCoreAnnotations.getPredictions(sentimentTree);
+        if (predictions == null) {
+            return null;
+        }
+        double[] distribution = new double[predictions.getNumElements()];
+        for (int i = 0; i < distribution.length; i++) {
+            distribution[i] = predictions.get(i);
+        }
+        return distribution;
+    }
+
+    /**
+     * Confidence is the probability the model assigned to the predicted class.
+     */
+    private double calculateConfidence(int predictedClass, double[] distribution) {
+        if (distribution == null) {
+            return 0.5;
+        }
+        if (predictedClass < 0 || predictedClass >= distribution.length) {
+            return 0.5;
+        }
+        return distribution[predictedClass];
     }
 
     /**
      * Inner class for CoreNLP results.
      */
     private static class CoreNLPResult {
-        final String sentiment;
+        final SentimentLabel sentiment;
         final double confidence;
+        final double[] distribution;
 
-        CoreNLPResult(String sentiment, double confidence) {
+        CoreNLPResult(SentimentLabel sentiment, double confidence, double[] distribution) {
             this.sentiment = sentiment;
             this.confidence = confidence;
+            this.distribution = distribution;
         }
     }
 
@@ -145,17 +448,24 @@ public class HybridNLPProcessor {
      * Public result class for sentiment analysis.
      */
     public static class SentimentResult {
-        private final String sentiment;
+        private final SentimentLabel sentiment;
         private final double confidence;
         private final String source;
+        private final double[] classDistribution;
 
-        public SentimentResult(String sentiment, double confidence, String source) {
+        public SentimentResult(SentimentLabel sentiment, double confidence, String source) {
+            this(sentiment, confidence, source, null);
+        }
+
+        public SentimentResult(SentimentLabel sentiment, double confidence, String source,
+                               double[] classDistribution) {
             this.sentiment = sentiment;
             this.confidence = confidence;
             this.source = source;
+            this.classDistribution = classDistribution;
         }
 
-        public String getSentiment() {
+        public SentimentLabel getSentiment() {
             return sentiment;
         }
 
@@ -166,5 +476,20 @@ public class HybridNLPProcessor {
         public String getSource() {
             return source;
         }
+
+        /**
+         * CoreNLP class probabilities, indexed very negative (0) to very positive (4).
+         * Null when CoreNLP produced no sentiment tree.
+         */
+        public double[] getClassDistribution() {
+            return classDistribution != null ? classDistribution.clone() : null;
+        }
+
+        /**
+         * True if this is a CoreNLP result still awaiting LLM verification.
+         */
+        public boolean isProvisional() {
+            return PROVISIONAL_SOURCE.equals(source);
+        }
     }
 }
@@ -0,0 +1,501 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Extracts indicators of compromise from text in one left-to-right pass:
+ * IPv4 and IPv6 addresses, domain names, http/https/ftp URLs, MD5, SHA-1
+ * and SHA-256 hashes, and CVE identifiers. The text is split into tokens of
+ * ASCII letters, digits and {@code . - _ :}; a URL token instead runs to the
+ * next whitespace, quote or angle bracket. Tokens are classified by hand
+ * rather than with regexes, and a plain word is rejected after one length
+ * check, so the cost is a table lookup per character.
+ * <ul>
+ *   <li>A port ({@code 10.0.0.5:8443}) or a label ({@code ip:10.0.0.5}) next to an address or domain is not part of it.</li>
+ *   <li>The host of a URL is not reported again as a domain or address.</li>
+ *   <li>A domain must end in a known top-level domain, so file names ({@code report.pdf}) and code
+ *       ({@code os.path.join}) are not domains; nor are names whose last label mixes upper and lower
+ *       case ({@code hi.Then}, {@code System.Net.WebClient}), which are sentences or identifiers.</li>
+ *   <li>Trailing sentence punctuation is not part of an indicator.</li>
+ * </ul>
+ */
+public final class IocScanner {
+
+    /**
+     * Kinds of indicator.
+     */
+    public enum Type {
+        IPV4, IPV6, DOMAIN, URL, MD5, SHA1, SHA256, CVE
+    }
+
+    // Character classes of ASCII characters, as bit flags
+    private static final byte TOKEN = 1;
+    private static final byte HEX = 2;
+    private static final byte DIGIT = 4;
+    private static final byte LETTER = 8;
+    private static final byte DOT = 16;
+    private static final byte COLON = 32;
+    private static final byte HYPHEN = 64;
+    private static final byte[] CLASSES = new byte[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] = TOKEN | HEX | DIGIT;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = (byte) (TOKEN | LETTER | (c <= 'f' ? HEX : 0));
+            CLASSES[c - 'a' + 'A'] = CLASSES[c];
+        }
+        CLASSES['.'] = TOKEN | DOT;
+        CLASSES[':'] = TOKEN | COLON;
+        CLASSES['-'] = TOKEN | HYPHEN;
+        CLASSES['_'] = TOKEN;
+    }
+
+    private static final String[] URL_SCHEMES = {"http://", "https://", "ftp://"};
+
+    // Top-level domains a reported domain may end in: every country code, the original generic ones,
+    // and the newer generic ones common in threat reports. Words that mostly appear as code members
+    // (name, email, host, link) are left out.
+    private static final String TOP_LEVEL_DOMAINS =
+        "ac ad ae af ag ai al am ao aq ar as at au aw ax az ba bb bd be bf bg bh bi bj bm bn bo br bs bt bw by bz "
+        + "ca cc cd cf cg ch ci ck cl cm cn co cr cu cv cw cx cy cz de dj dk dm do dz ec ee eg er es et eu "
+        + "fi fj fk fm fo fr ga gd ge gf gg gh gi gl gm gn gp gq gr gs gt gu gw gy hk hm hn hr ht hu "
+        + "id ie il im in io iq ir is it je jm jo jp ke kg kh ki km kn kp kr kw ky kz la lb lc li lk lr ls lt lu lv ly "
+        + "ma mc md me mg mh mk ml mm mn mo mp mq mr ms mt mu mv mw mx my mz na nc ne nf ng ni nl no np nr nu nz "
+        + "om pa pe pf pg ph pk pl pm pn pr ps pt pw py qa re ro rs ru rw sa sb sc sd se sg sh si sk sl sm sn so sr ss "
+        + "st su sv sx sy sz tc td tf tg th tj tk tl tm tn to tr tt tv tw tz ua ug uk us uy uz va vc ve vg vi vn vu "
+        + "wf ws ye yt za zm zw "
+        + "aero arpa asia biz cat com coop edu gov info int jobs mil mobi museum net org pro tel travel "
+        + "app bid bond buzz cfd click cloud club cyou dev fun icu live loan lol monster online quest sbs shop site "
+        + "space store tech top vip website xyz";
+
+    // The allowed top-level domains packed by tldCode, sorted for binary search
+    private static final long[] TLD_CODES = Arrays.stream(TOP_LEVEL_DOMAINS.split(" "))
+            .mapToLong(tld -> tldCode(tld, 0, tld.length()))
+            .sorted()
+            .toArray();
+
+    private IocScanner() {
+    }
+
+    /**
+     * Every indicator in the text, in order of offset.
+     */
+    public static List<Indicator> findAll(CharSequence text) {
+        List<Indicator> indicators = new ArrayList<>();
+        scan(text, (type, start, end) ->
+                indicators.add(new Indicator(type, text.subSequence(start, end).toString(), start, end)));
+        return indicators;
+    }
+
+    /**
+     * Report every indicator to the listener, in order of offset.
+     * Allocates nothing per character or per indicator.
+     */
+    public static void scan(CharSequence text, IndicatorListener listener) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!isTokenChar(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            // Only h or f can start a URL scheme
+            char lower = (char) (c | 0x20);
+            if (lower == 'h' || lower == 'f') {
+                int urlEnd = urlEnd(text, start);
+                if (urlEnd > 0) {
+                    listener.onIndicator(Type.URL, start, urlEnd);
+                    i = skipUrlTail(text, urlEnd);
+                    continue;
+                }
+            }
+
+            // Collect the token and the classes of its characters
+            int flags = 0;
+            while (i < length) {
+                c = text.charAt(i);
+                if (c < 128) {
+                    byte cls = CLASSES[c];
+                    if (cls == 0) {
+                        break;
+                    }
+                    flags |= cls;
+                } else if (Character.isLetterOrDigit(c)) {
+                    // Non-ASCII letters belong to the word but no indicator contains them
+                    flags |= LETTER | TOKEN | 128;
+                } else {
+                    break;
+                }
+                i++;
+            }
+            if ((flags & 128) == 0) {
+                classifyToken(text, start, i, flags, listener);
+            }
+        }
+    }
+
+    private static void classifyToken(CharSequence text, int start, int end, int flags, IndicatorListener listener) {
+        int length = end - start;
+        if ((flags & (DOT | COLON | HYPHEN)) == 0) {
+            // A plain word or number: only a hash is possible
+            if (length == 32 || length == 40 || length == 64) {
+                classifySegment(text, start, end, listener);
+            }
+            return;
+        }
+        if ((flags & COLON) == 0) {
+            classifySegment(text, start, end, listener);
+            return;
+        }
+        int trimmedEnd = end;
+        while (trimmedEnd > start && text.charAt(trimmedEnd - 1) == '.') {
+            trimmedEnd--;
+        }
+        if (isIpv6(text, start, trimmedEnd)) {
+            listener.onIndicator(Type.IPV6, start, trimmedEnd);
+            return;
+        }
+        // Ports and labels: classify the parts between colons on their own
+        int segmentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || text.charAt(i) == ':') {
+                if (i > segmentStart) {
+                    classifySegment(text, segmentStart, i, listener);
+                }
+                segmentStart = i + 1;
+            }
+        }
+    }
+
+    // A colon-free part of a token
+    private static void classifySegment(CharSequence text, int start, int end, IndicatorListener listener) {
+        while (start < end && isTrimmed(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isTrimmed(text.charAt(end - 1))) {
+            end--;
+        }
+        int length = end - start;
+        if (length == 0) {
+            return;
+        }
+
+        Type hash = length == 32 ? Type.MD5 : length == 40 ? Type.SHA1 : length == 64 ? Type.SHA256 : null;
+        if (hash != null && allHex(text, start, end)) {
+            listener.onIndicator(hash, start, end);
+        } else if (isCve(text, start, end)) {
+            listener.onIndicator(Type.CVE, start, end);
+        } else if (ipv4End(text, start, end) == end) {
+            listener.onIndicator(Type.IPV4, start, end);
+        } else if (isDomain(text, start, end)) {
+            listener.onIndicator(Type.DOMAIN, start, end);
+        }
+    }
+
+    // End of a URL starting at start, or -1 if no URL starts there
+    private static int urlEnd(CharSequence text, int start) {
+        String scheme = null;
+        for (String candidate : URL_SCHEMES) {
+            if (regionMatchesIgnoreCase(text, start, candidate)) {
+                scheme = candidate;
+                break;
+            }
+        }
+        if (scheme == null) {
+            return -1;
+        }
+        int hostStart = start + scheme.length();
+        if (hostStart >= text.length() || !(isTokenChar(text.charAt(hostStart)) || text.charAt(hostStart) == '[')) {
+            return -1;
+        }
+        int end = skipUrlTail(text, hostStart);
+        // Sentence punctuation and closing brackets after a URL are usually not part of it
+        while (end > hostStart && ".,;:!?)]}".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int skipUrlTail(CharSequence text, int i) {
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c <= ' ' || c == '"' || c == '\'' || c == '<' || c == '>' || c == '`' || Character.isWhitespace(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // CVE-yyyy-nnnn with 4 to 7 sequence digits
+    private static boolean isCve(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < 13 || length > 16 || !regionMatchesIgnoreCase(text, start, "cve-")) {
+            return false;
+        }
+        for (int i = start + 4; i < start + 8; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        if (text.charAt(start + 8) != '-') {
+            return false;
+        }
+        for (int i = start + 9; i < end; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // End of a dotted-quad address at start (each part 0-255), or -1
+    private static int ipv4End(CharSequence text, int start, int end) {
+        int i = start;
+        for (int part = 0; part < 4; part++) {
+            if (part > 0) {
+                if (i >= end || text.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+            int value = 0;
+            int digits = 0;
+            while (i < end && digits < 4 && isDigit(text.charAt(i))) {
+                value = value * 10 + (text.charAt(i) - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 3 || value > 255) {
+                return -1;
+            }
+        }
+        return i;
+    }
+
+    // Hex groups separated by colons, at most one "::", optionally ending in a dotted quad
+    private static boolean isIpv6(CharSequence text, int start, int end) {
+        if (end - start < 2) {
+            return false;
+        }
+        int i = start;
+        int groups = 0;
+        boolean compressed = false;
+        if (text.charAt(i) == ':') {
+            if (text.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+            if (i == end) {
+                return false;
+            }
+        }
+        while (true) {
+            int groupStart = i;
+            while (i < end && i - groupStart < 4 && isHex(text.charAt(i))) {
+                i++;
+            }
+            if (i == groupStart) {
+                return false;
+            }
+            if (i < end && text.charAt(i) == '.') {
+                if (ipv4End(text, groupStart, end) != end) {
+                    return false;
+                }
+                groups += 2;
+                break;
+            }
+            groups++;
+            if (i == end) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < end && text.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+                if (i == end) {
+                    break;
+                }
+            } else if (i == end) {
+                return false;
+            }
+        }
+        return compressed ? groups < 8 : groups == 8;
+    }
+
+    // At least two labels of letters, digits and inner hyphens; the last a known top-level domain
+    private static boolean isDomain(CharSequence text, int start, int end) {
+        if (end - start > 253) {
+            return false;
+        }
+        int labelStart = start;
+        int labels = 0;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : '.';
+            if (c == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength == 0 || labelLength > 63
+                        || text.charAt(labelStart) == '-' || text.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labels++;
+                if (i < end) {
+                    labelStart = i + 1;
+                }
+            } else if (c >= 128 || (CLASSES[c] & (LETTER | DIGIT | HYPHEN)) == 0) {
+                return false;
+            }
+        }
+        return labels >= 2 && isTopLevelDomain(text, labelStart, end);
+    }
+
+    // A known top-level domain written in one case (com, COM, not Com)
+    private static boolean isTopLevelDomain(CharSequence text, int start, int end) {
+        boolean upper = false;
+        boolean lower = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            upper |= c >= 'A' && c <= 'Z';
+            lower |= c >= 'a' && c <= 'z';
+        }
+        long code = tldCode(text, start, end);
+        return !(upper && lower) && code >= 0 && Arrays.binarySearch(TLD_CODES, code) >= 0;
+    }
+
+    // Up to 12 ASCII letters, case-folded, packed 5 bits each so a lookup allocates nothing; -1 for anything else
+    private static long tldCode(CharSequence text, int start, int end) {
+        if (end - start < 2 || end - start > 12) {
+            return -1;
+        }
+        long code = 0;
+        for (int i = start; i < end; i++) {
+            char c = (char) (text.charAt(i) | 0x20);
+            if (c < 'a' || c > 'z') {
+                return -1;
+            }
+            code = code << 5 | (c - 'a' + 1);
+        }
+        return code;
+    }
+
+    private static boolean allHex(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isHex(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether text continues at start with the lower-case ASCII string, ignoring case
+    private static boolean regionMatchesIgnoreCase(CharSequence text, int start, String lowerCase) {
+        if (start + lowerCase.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length(); i++) {
+            char c = text.charAt(start + i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return c < 128 ? CLASSES[c] != 0 : Character.isLetterOrDigit(c);
+    }
+
+    // Characters that can join an indicator to surrounding text but never start or end one
+    private static boolean isTrimmed(char c) {
+        return c == '.' || c == '-' || c == '_';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHex(char c) {
+        return c < 128 && (CLASSES[c] & HEX) != 0;
+    }
+
+    /**
+     * Callback for {@link #scan}.
+     */
+    @FunctionalInterface
+    public interface IndicatorListener {
+        void onIndicator(Type type, int start, int end);
+    }
+
+    /**
+     * One indicator: its kind, the text as written, and its [start, end) offsets.
+     */
+    public static final class Indicator {
+        private final Type type;
+        private final String value;
+        private final int start;
+        private final int end;
+
+        public Indicator(Type type, String value, int start, int end) {
+            this.type = type;
+            this.value = value;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + value + "@" + start + "-" + end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Indicator)) {
+                return false;
+            }
+            Indicator other = (Indicator) o;
+            return type == other.type && start == other.start && end == other.end && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, value, start, end);
+        }
+    }
+}
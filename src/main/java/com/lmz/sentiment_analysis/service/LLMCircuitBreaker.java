@@ -0,0 +1,176 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for LLM calls.
+ * Records the outcome of the last {@code windowSize} calls and opens when
+ * either the failure rate or the slow-call rate reaches its threshold. After
+ * {@code openDuration} it lets {@code halfOpenCalls} trial calls through and
+ * closes again only if they are healthy.
+ */
+public class LLMCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    // Ring buffer of recent outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int recorded;
+    private int next;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenCompleted;
+    private long notPermittedCount;
+
+    public LLMCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                             double slowCallRateThreshold, Duration slowCallDuration,
+                             Duration openDuration, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+             slowCallDuration, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    LLMCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                      double slowCallRateThreshold, Duration slowCallDuration,
+                      Duration openDuration, int halfOpenCalls, LongSupplier clock) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        this.failed = new boolean[this.windowSize];
+        this.slow = new boolean[this.windowSize];
+    }
+
+    /**
+     * Whether a call would currently be allowed, without reserving it.
+     */
+    public synchronized boolean isCallPermitted() {
+        State current = currentState();
+        return current == State.CLOSED
+                || (current == State.HALF_OPEN && halfOpenPermitted < halfOpenCalls);
+    }
+
+    /**
+     * Reserve permission for one call. Every granted permission must be
+     * followed by {@link #onSuccess}, {@link #onError} or {@link #releasePermission}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        State current = currentState();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.HALF_OPEN && halfOpenPermitted < halfOpenCalls) {
+            halfOpenPermitted++;
+            return true;
+        }
+        notPermittedCount++;
+        return false;
+    }
+
+    /**
+     * Give back a permission for a call that was never made.
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermitted > 0) {
+            halfOpenPermitted--;
+        }
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(false, durationNanos >= slowCallNanos);
+    }
+
+    public synchronized void onError(long durationNanos) {
+        record(true, durationNanos >= slowCallNanos);
+    }
+
+    public synchronized State getState() {
+        return currentState();
+    }
+
+    public synchronized long getNotPermittedCount() {
+        return notPermittedCount;
+    }
+
+    private State currentState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    private void record(boolean isFailure, boolean isSlow) {
+        if (failed[next]) {
+            failures--;
+        }
+        if (slow[next]) {
+            slowCalls--;
+        }
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        if (isFailure) {
+            failures++;
+        }
+        if (isSlow) {
+            slowCalls++;
+        }
+        next = (next + 1) % windowSize;
+        recorded = Math.min(recorded + 1, windowSize);
+
+        if (state == State.HALF_OPEN) {
+            halfOpenCompleted++;
+            if (halfOpenCompleted >= halfOpenCalls) {
+                transitionTo(thresholdsExceeded(halfOpenCompleted) ? State.OPEN : State.CLOSED);
+            }
+        } else if (state == State.CLOSED && recorded >= minimumCalls && thresholdsExceeded(recorded)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private boolean thresholdsExceeded(int calls) {
+        double failureRate = (double) failures / calls;
+        double slowCallRate = (double) slowCalls / calls;
+        return failureRate >= failureRateThreshold || slowCallRate >= slowCallRateThreshold;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        // Each state judges only the calls made in it
+        resetWindow();
+        halfOpenPermitted = 0;
+        halfOpenCompleted = 0;
+        if (newState == State.OPEN) {
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    private void resetWindow() {
+        Arrays.fill(failed, false);
+        Arrays.fill(slow, false);
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
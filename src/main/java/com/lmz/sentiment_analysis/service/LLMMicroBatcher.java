@@ -0,0 +1,195 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent single-text LLM verifications into batches of up to
+ * {@code maxItems} texts, waiting at most {@code maxWaitMillis} after the first
+ * text arrives. Each batch is sent through the batch verifier on a small
+ * dispatch pool, and the results are handed back to the waiting callers.
+ */
+class LLMMicroBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LLMMicroBatcher.class);
+
+    private final Function<List<String>, List<LLMVerificationService.LLMSentimentResult>> batchVerifier;
+    private final int maxItems;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService dispatcher;
+    private final Semaphore dispatchPermits;
+    private final Thread collector;
+
+    private volatile boolean running = true;
+
+    LLMMicroBatcher(Function<List<String>, List<LLMVerificationService.LLMSentimentResult>> batchVerifier,
+                    int maxItems, long maxWaitMillis, int queueCapacity, int dispatchThreads) {
+        this.batchVerifier = batchVerifier;
+        this.maxItems = Math.max(1, maxItems);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        this.dispatchPermits = new Semaphore(dispatchThreads);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "llm-batch-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.collector = new Thread(this::collectLoop, "llm-batch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * Queue a text for the next batch.
+     * 
+     * @param text The text to verify
+     * @return A future for the result, or null if the queue is full
+     */
+    CompletableFuture<LLMVerificationService.LLMSentimentResult> submit(String text) {
+        if (!running) {
+            return null;
+        }
+        Pending pending = new Pending(text);
+        if (!queue.offer(pending)) {
+            return null;
+        }
+        // A shutdown between the running check and the offer no longer drains the queue
+        if (!running) {
+            failQueued();
+        }
+        return pending.future;
+    }
+
+    /**
+     * Stop collecting and fail any texts still waiting in the queue.
+     */
+    void shutdown() {
+        running = false;
+        collector.interrupt();
+        dispatcher.shutdown();
+        failQueued();
+    }
+
+    private void failQueued() {
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        failAll(remaining);
+    }
+
+    private void failAll(List<Pending> pendings) {
+        for (Pending pending : pendings) {
+            pending.future.complete(new LLMVerificationService.LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false));
+        }
+    }
+
+    private void collectLoop() {
+        try {
+            collectBatches();
+        } finally {
+            // Nothing collects after this; fail what is left instead of leaving callers waiting
+            failQueued();
+        }
+    }
+
+    private void collectBatches() {
+        while (running) {
+            boolean dispatched = false;
+            List<Pending> batch = new ArrayList<>(maxItems);
+            try {
+                // Hold a dispatch permit before collecting, so a saturated
+                // dispatcher backs up into the bounded queue
+                dispatchPermits.acquire();
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxItems) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                try {
+                    dispatcher.execute(() -> {
+                        try {
+                            dispatch(batch);
+                        } finally {
+                            dispatchPermits.release();
+                        }
+                    });
+                    dispatched = true;
+                } catch (RejectedExecutionException e) {
+                    failAll(batch);
+                }
+            } catch (InterruptedException e) {
+                failAll(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("LLM micro-batch collector error: {}", e.getMessage());
+                failAll(batch);
+            } finally {
+                if (!dispatched) {
+                    dispatchPermits.release();
+                }
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            texts.add(pending.text);
+        }
+
+        List<LLMVerificationService.LLMSentimentResult> results = null;
+        try {
+            results = batchVerifier.apply(texts);
+        } catch (RuntimeException e) {
+            logger.error("LLM micro-batch of {} failed: {}", batch.size(), e.getMessage());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            LLMVerificationService.LLMSentimentResult result = results != null && i < results.size()
+                    ? results.get(i)
+                    : new LLMVerificationService.LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false);
+            batch.get(i).future.complete(result);
+        }
+    }
+
+    private static class Pending {
+        final String text;
+        final CompletableFuture<LLMVerificationService.LLMSentimentResult> future = new CompletableFuture<>();
+
+        Pending(String text) {
+            this.text = text;
+        }
+    }
+}
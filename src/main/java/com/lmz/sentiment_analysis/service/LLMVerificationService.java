@@ -1,25 +1,45 @@
 package com.lmz.sentiment_analysis.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.theokanning.openai.client.OpenAiApi;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
 import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import retrofit2.Retrofit;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * LLM-based sentiment verification service using OpenAI API.
  * This service provides a secondary validation layer for sentiment analysis
- * when CoreNLP confidence is low.
+ * when CoreNLP confidence is low. Calls go through a bounded bulkhead and a
+ * circuit breaker so a slow or failing OpenAI endpoint cannot tie up callers.
  */
 @Service
-public class LLMVerificationService {
+public class LLMVerificationService implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(LLMVerificationService.class);
 
@@ -29,46 +49,378 @@ public class LLMVerificationService {
     @Value("${openai.model:gpt-3.5-turbo}")
     private String model;
 
-    private OpenAiService openAiService;
+    @Value("${openai.batch.max-items:20}")
+    private int maxBatchItems = 20;
+
+    @Value("${openai.micro-batch.enabled:false}")
+    private boolean microBatchEnabled;
+
+    @Value("${openai.micro-batch.max-wait-ms:50}")
+    private long microBatchMaxWaitMillis = 50;
+
+    @Value("${openai.micro-batch.queue-capacity:1000}")
+    private int microBatchQueueCapacity = 1000;
+
+    @Value("${openai.micro-batch.concurrency:4}")
+    private int microBatchConcurrency = 4;
+
+    // 0 derives it from the per-call timeout, the batch window and the bulkhead wait (see init)
+    @Value("${openai.micro-batch.result-timeout-ms:0}")
+    private long microBatchResultTimeoutMillis = 0;
+
+    @Value("${openai.base-url:https://api.openai.com/}")
+    private String baseUrl = "https://api.openai.com/";
+
+    @Value("${openai.timeout-seconds:30}")
+    private long timeoutSeconds = 30;
+
+    @Value("${openai.circuit-breaker.window-size:20}")
+    private int breakerWindowSize = 20;
+
+    @Value("${openai.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls = 10;
+
+    @Value("${openai.circuit-breaker.failure-rate-threshold:0.5}")
+    private double breakerFailureRateThreshold = 0.5;
+
+    @Value("${openai.circuit-breaker.slow-call-rate-threshold:0.5}")
+    private double breakerSlowCallRateThreshold = 0.5;
+
+    @Value("${openai.circuit-breaker.slow-call-duration-ms:5000}")
+    private long breakerSlowCallMillis = 5000;
+
+    @Value("${openai.circuit-breaker.open-duration-ms:30000}")
+    private long breakerOpenMillis = 30000;
+
+    @Value("${openai.circuit-breaker.half-open-calls:3}")
+    private int breakerHalfOpenCalls = 3;
+
+    @Value("${openai.bulkhead.max-concurrent-calls:8}")
+    private int bulkheadMaxConcurrentCalls = 8;
+
+    @Value("${openai.bulkhead.max-wait-ms:100}")
+    private long bulkheadMaxWaitMillis = 100;
+
+    private volatile OpenAiService openAiService;
+
+    private volatile LLMMicroBatcher microBatcher;
+
+    private LLMCircuitBreaker circuitBreaker;
+    private Semaphore bulkhead;
+    private final LongAdder bulkheadRejections = new LongAdder();
+
+    private static final String SINGLE_SYSTEM_PROMPT =
+        "You are a sentiment analysis expert. Analyze the sentiment of the given text and respond ONLY with one of these exact labels: 'Very Positive', 'Positive', 'Neutral', 'Negative', or 'Very Negative'. Also provide a confidence score between 0 and 1 on a new line. Format: SENTIMENT\\nCONFIDENCE";
+
+    private static final String BATCH_SYSTEM_PROMPT =
+        "You are a sentiment analysis expert. You will receive numbered texts. For each text respond with exactly one line in the format 'N. SENTIMENT | CONFIDENCE', where SENTIMENT is one of 'Very Positive', 'Positive', 'Neutral', 'Negative', or 'Very Negative' and CONFIDENCE is a number between 0 and 1. Do not add any other text.";
+
+    private static final Pattern BATCH_LINE =
+        Pattern.compile("^(\\d+)[.):]\\s*([A-Za-z ]+?)\\s*[|,\\-]\\s*([01](?:\\.\\d+)?)$");
+
+    @PostConstruct
+    void init() {
+        circuitBreaker = new LLMCircuitBreaker(breakerWindowSize, breakerMinimumCalls,
+                                               breakerFailureRateThreshold, breakerSlowCallRateThreshold,
+                                               Duration.ofMillis(breakerSlowCallMillis),
+                                               Duration.ofMillis(breakerOpenMillis), breakerHalfOpenCalls);
+        bulkhead = new Semaphore(bulkheadMaxConcurrentCalls);
+
+        if (microBatchResultTimeoutMillis <= 0) {
+            microBatchResultTimeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds)
+                    + microBatchMaxWaitMillis + bulkheadMaxWaitMillis;
+        }
+        if (microBatchEnabled) {
+            microBatcher = new LLMMicroBatcher(this::verifySentimentBatch, maxBatchItems,
+                                               microBatchMaxWaitMillis, microBatchQueueCapacity,
+                                               microBatchConcurrency);
+            logger.info("LLM micro-batching enabled: up to {} items or {} ms per request",
+                        maxBatchItems, microBatchMaxWaitMillis);
+        }
+    }
+
+    @PreDestroy
+    void stopMicroBatcher() {
+        if (microBatcher != null) {
+            microBatcher.shutdown();
+        }
+    }
+
+    /**
+     * Whether LLM calls are currently allowed. False while the circuit
+     * breaker is open, so callers can skip straight to their fallback.
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    public LLMCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public long getBulkheadRejectionCount() {
+        return bulkheadRejections.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("llm.circuit.state", this, s -> s.getCircuitState().ordinal())
+                .description("OpenAI circuit breaker state (0 = closed, 1 = open, 2 = half-open)")
+                .register(registry);
+        FunctionCounter.builder("llm.calls.rejected", this, s -> s.circuitBreaker.getNotPermittedCount())
+                .tag("reason", "circuit_open")
+                .register(registry);
+        FunctionCounter.builder("llm.calls.rejected", bulkheadRejections, LongAdder::sum)
+                .tag("reason", "bulkhead_full")
+                .register(registry);
+        Gauge.builder("llm.bulkhead.available", this, s -> s.bulkhead.availablePermits())
+                .description("Free OpenAI call slots in the bulkhead")
+                .register(registry);
+    }
 
     /**
      * Verify sentiment using LLM when CoreNLP confidence is low.
+     * When micro-batching is enabled the text joins the next batched
+     * request and this call waits for its share of the result.
      * 
      * @param text The text to analyze
      * @return Sentiment analysis result
      */
     public LLMSentimentResult verifySentiment(String text) {
-        try {
-            if (openAiService == null && !apiKey.equals("test-key") && !apiKey.equals("your-api-key-here")) {
-                openAiService = new OpenAiService(apiKey, Duration.ofSeconds(30));
+        LLMMicroBatcher batcher = microBatcher;
+        if (batcher != null) {
+            CompletableFuture<LLMSentimentResult> future = batcher.submit(text);
+            if (future != null) {
+                return awaitBatched(future);
             }
+            logger.warn("LLM micro-batch queue full. Verifying individually.");
+        }
+        return verifySingle(text);
+    }
 
-            if (openAiService == null) {
+    /**
+     * Wait a bounded time for a micro-batched result, so a request thread
+     * never hangs on a batch that is lost or stuck.
+     */
+    private LLMSentimentResult awaitBatched(CompletableFuture<LLMSentimentResult> future) {
+        try {
+            return future.get(microBatchResultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("No micro-batched LLM result after {} ms. Using fallback.", microBatchResultTimeoutMillis);
+        } catch (ExecutionException e) {
+            logger.error("Micro-batched LLM verification failed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false);
+    }
+
+    /**
+     * Verify one text with its own chat completion.
+     */
+    private LLMSentimentResult verifySingle(String text) {
+        try {
+            if (!ensureClient()) {
                 logger.warn("OpenAI service not initialized. Using fallback.");
-                return new LLMSentimentResult("Neutral", 0.5, false);
+                return new LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false);
             }
 
-            List<ChatMessage> messages = new ArrayList<>();
-            messages.add(new ChatMessage(ChatMessageRole.SYSTEM.value(), 
-                "You are a sentiment analysis expert. Analyze the sentiment of the given text and respond ONLY with one of these exact labels: 'Very Positive', 'Positive', 'Neutral', 'Negative', or 'Very Negative'. Also provide a confidence score between 0 and 1 on a new line. Format: SENTIMENT\\nCONFIDENCE"));
-            messages.add(new ChatMessage(ChatMessageRole.USER.value(), 
-                "Analyze the sentiment of this text: " + text));
-
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model(model)
-                    .messages(messages)
-                    .temperature(0.3)
-                    .maxTokens(50)
-                    .build();
-
-            String response = openAiService.createChatCompletion(request)
-                    .getChoices().get(0).getMessage().getContent().trim();
+            String response = complete(SINGLE_SYSTEM_PROMPT,
+                "Analyze the sentiment of this text: " + text, 50);
 
             return parseResponse(response);
 
         } catch (Exception e) {
             logger.error("Error calling OpenAI API: {}", e.getMessage());
-            return new LLMSentimentResult("Neutral", 0.5, false);
+            return new LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false);
+        }
+    }
+
+    /**
+     * Verify a group of texts with one numbered multi-item prompt per chunk.
+     * Items missing from, or unparseable in, the batched response are
+     * verified individually; if the batched call fails, its items fail too.
+     * 
+     * @param texts The texts to analyze
+     * @return Sentiment results in input order
+     */
+    public List<LLMSentimentResult> verifySentimentBatch(List<String> texts) {
+        List<LLMSentimentResult> results = new ArrayList<>(texts.size());
+        if (texts.isEmpty()) {
+            return results;
+        }
+
+        if (!ensureClient() || !isAvailable()) {
+            logger.warn("OpenAI service unavailable. Using fallback for {} texts.", texts.size());
+            for (int i = 0; i < texts.size(); i++) {
+                results.add(new LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false));
+            }
+            return results;
+        }
+
+        int chunkSize = Math.max(1, maxBatchItems);
+        for (int from = 0; from < texts.size(); from += chunkSize) {
+            List<String> chunk = texts.subList(from, Math.min(from + chunkSize, texts.size()));
+            results.addAll(verifyChunk(chunk));
+        }
+        return results;
+    }
+
+    /**
+     * Send one chunk as a numbered prompt and fall back to single calls
+     * for any item the response does not cover. If the batched call itself
+     * fails (transport error, timeout, open breaker or full bulkhead), the
+     * whole chunk fails: retrying each item one by one against the same
+     * endpoint would only multiply the wait before the breaker opens.
+     */
+    private List<LLMSentimentResult> verifyChunk(List<String> chunk) {
+        if (chunk.size() == 1) {
+            return List.of(verifySingle(chunk.get(0)));
+        }
+
+        LLMSentimentResult[] parsed = new LLMSentimentResult[chunk.size()];
+        try {
+            StringBuilder prompt = new StringBuilder("Analyze the sentiment of each numbered text:\n");
+            for (int i = 0; i < chunk.size(); i++) {
+                prompt.append(i + 1).append(". ")
+                      .append(chunk.get(i).replace('\n', ' '))
+                      .append('\n');
+            }
+            String response = complete(BATCH_SYSTEM_PROMPT, prompt.toString(), 20 * chunk.size());
+            parseBatchResponse(response, parsed);
+        } catch (Exception e) {
+            logger.error("Error calling OpenAI API for batch of {}: {}", chunk.size(), e.getMessage());
+            List<LLMSentimentResult> failed = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                failed.add(new LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false));
+            }
+            return failed;
+        }
+
+        List<LLMSentimentResult> results = new ArrayList<>(chunk.size());
+        int fallbacks = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (parsed[i] == null) {
+                parsed[i] = verifySingle(chunk.get(i));
+                fallbacks++;
+            }
+            results.add(parsed[i]);
+        }
+        if (fallbacks > 0) {
+            logger.warn("Batched LLM response incomplete; verified {} of {} items individually",
+                        fallbacks, chunk.size());
+        }
+        return results;
+    }
+
+    /**
+     * Lazily create the OpenAI client. Once it exists, callers only read
+     * the volatile field; the lock is taken only until it has been created.
+     * 
+     * @return true if a client is available
+     */
+    private boolean ensureClient() {
+        if (openAiService != null) {
+            return true;
+        }
+        if (apiKey.equals("test-key") || apiKey.equals("your-api-key-here")) {
+            return false;
+        }
+        synchronized (this) {
+            if (openAiService == null) {
+                ObjectMapper mapper = OpenAiService.defaultObjectMapper();
+                OkHttpClient client = OpenAiService.defaultClient(apiKey, Duration.ofSeconds(timeoutSeconds));
+                Retrofit retrofit = OpenAiService.defaultRetrofit(client, mapper).newBuilder()
+                        .baseUrl(baseUrl)
+                        .build();
+                openAiService = new OpenAiService(retrofit.create(OpenAiApi.class),
+                                                  client.dispatcher().executorService());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Run a single chat completion through the circuit breaker and bulkhead.
+     * The breaker is checked first, so callers fail fast while it is open
+     * instead of waiting for a call slot.
+     * 
+     * @throws IllegalStateException if the call is rejected by either
+     */
+    private String complete(String systemPrompt, String userPrompt, int maxTokens) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new IllegalStateException("OpenAI circuit breaker is open");
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadMaxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.releasePermission();
+            throw new IllegalStateException("Interrupted waiting for an OpenAI call slot");
+        }
+        if (!acquired) {
+            // Not the endpoint's fault; hand back a half-open trial permit without recording an outcome
+            circuitBreaker.releasePermission();
+            bulkheadRejections.increment();
+            throw new IllegalStateException("OpenAI bulkhead full");
+        }
+
+        try {
+            long start = System.nanoTime();
+            try {
+                String content = requestCompletion(systemPrompt, userPrompt, maxTokens);
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                return content;
+            } catch (RuntimeException e) {
+                circuitBreaker.onError(System.nanoTime() - start);
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Send the chat completion request and return the trimmed content.
+     */
+    private String requestCompletion(String systemPrompt, String userPrompt, int maxTokens) {
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage(ChatMessageRole.SYSTEM.value(), systemPrompt));
+        messages.add(new ChatMessage(ChatMessageRole.USER.value(), userPrompt));
+
+        ChatCompletionRequest request = ChatCompletionRequest.builder()
+                .model(model)
+                .messages(messages)
+                .temperature(0.3)
+                .maxTokens(maxTokens)
+                .build();
+
+        return openAiService.createChatCompletion(request)
+                .getChoices().get(0).getMessage().getContent().trim();
+    }
+
+    /**
+     * Parse a numbered batch response of the form "N. SENTIMENT | CONFIDENCE".
+     * Lines that cannot be parsed leave their slot empty.
+     */
+    void parseBatchResponse(String response, LLMSentimentResult[] parsed) {
+        for (String line : response.split("\\n")) {
+            Matcher matcher = BATCH_LINE.matcher(line.trim());
+            if (!matcher.matches()) {
+                continue;
+            }
+            int index = Integer.parseInt(matcher.group(1)) - 1;
+            if (index < 0 || index >= parsed.length) {
+                continue;
+            }
+            try {
+                double confidence = Double.parseDouble(matcher.group(3));
+                parsed[index] = new LLMSentimentResult(normalizeSentiment(matcher.group(2)), confidence, true);
+            } catch (NumberFormatException e) {
+                logger.debug("Unparseable confidence in batch line: {}", line);
+            }
         }
     }
 
@@ -78,46 +430,45 @@ public class LLMVerificationService {
     private LLMSentimentResult parseResponse(String response) {
         try {
             String[] parts = response.split("\\n");
-            String sentiment = parts[0].trim();
             double confidence = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 0.7;
             
             // Normalize sentiment labels
-            sentiment = normalizeSentiment(sentiment);
+            SentimentLabel sentiment = normalizeSentiment(parts[0].trim());
             
             return new LLMSentimentResult(sentiment, confidence, true);
         } catch (Exception e) {
             logger.error("Error parsing LLM response: {}", e.getMessage());
-            return new LLMSentimentResult("Neutral", 0.5, false);
+            return new LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false);
         }
     }
 
     /**
-     * Normalize sentiment labels to match expected format.
+     * Map a free-form LLM label to a sentiment; anything unrecognized is neutral.
      */
-    private String normalizeSentiment(String sentiment) {
+    private SentimentLabel normalizeSentiment(String sentiment) {
         String lower = sentiment.toLowerCase();
-        if (lower.contains("very positive")) return "Very positive";
-        if (lower.contains("very negative")) return "Very negative";
-        if (lower.contains("positive")) return "Positive";
-        if (lower.contains("negative")) return "Negative";
-        return "Neutral";
+        if (lower.contains("very positive")) return SentimentLabel.VERY_POSITIVE;
+        if (lower.contains("very negative")) return SentimentLabel.VERY_NEGATIVE;
+        if (lower.contains("positive")) return SentimentLabel.POSITIVE;
+        if (lower.contains("negative")) return SentimentLabel.NEGATIVE;
+        return SentimentLabel.NEUTRAL;
     }
 
     /**
      * Result container for LLM sentiment analysis.
      */
     public static class LLMSentimentResult {
-        private final String sentiment;
+        private final SentimentLabel sentiment;
         private final double confidence;
         private final boolean success;
 
-        public LLMSentimentResult(String sentiment, double confidence, boolean success) {
+        public LLMSentimentResult(SentimentLabel sentiment, double confidence, boolean success) {
             this.sentiment = sentiment;
             this.confidence = confidence;
             this.success = success;
         }
 
-        public String getSentiment() {
+        public SentimentLabel getSentiment() {
             return sentiment;
         }
 
@@ -0,0 +1,265 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory MinHash/LSH index for near-duplicate text lookup.
+ * Texts are reduced to lower-case letter/digit 5-character shingles and
+ * summarized by a 128-value MinHash signature, whose fraction of equal
+ * values estimates the Jaccard similarity of the shingle sets. Signatures
+ * are split into 16 bands of 8 values; texts sharing any band are
+ * candidates, and a candidate matches when its estimated similarity
+ * reaches the threshold. With 16 x 8 bands a pair at similarity 0.8 is a
+ * candidate with probability ~0.95, at 0.5 with ~0.06.
+ * Entries expire {@code ttl} after insertion, and the oldest entries are
+ * evicted beyond {@code maxEntries} (each costs roughly 0.8 KB).
+ *
+ * @param <V> The value stored with each indexed text
+ */
+public class MinHashLshIndex<V> {
+
+    public static final int SHINGLE_LENGTH = 5;
+    public static final int BANDS = 16;
+    public static final int ROWS = 8;
+    public static final int SIGNATURE_LENGTH = BANDS * ROWS;
+
+    // Odd multipliers and offsets for the multiply-shift hash family, fixed so signatures are stable across runs
+    private static final long[] MULTIPLIERS = new long[SIGNATURE_LENGTH];
+    private static final long[] OFFSETS = new long[SIGNATURE_LENGTH];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            MULTIPLIERS[i] = seed | 1L;
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            OFFSETS[i] = seed;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final double threshold;
+    private final LongSupplier clock;
+
+    private final Map<Long, List<Entry<V>>> buckets = new HashMap<>();
+    // Insertion order is expiry order, so eviction only ever looks at the head
+    private final ArrayDeque<Entry<V>> entries = new ArrayDeque<>();
+    private long evictions;
+
+    public MinHashLshIndex(int maxEntries, Duration ttl, double threshold) {
+        this(maxEntries, ttl, threshold, System::nanoTime);
+    }
+
+    MinHashLshIndex(int maxEntries, Duration ttl, double threshold, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttl.toNanos();
+        this.threshold = threshold;
+        this.clock = clock;
+    }
+
+    /**
+     * MinHash signature of a text's shingles.
+     *
+     * @return The signature, or null if the text has fewer letters and digits than one shingle
+     */
+    public static int[] signature(String text) {
+        String folded = fold(text);
+        if (folded.length() < SHINGLE_LENGTH) {
+            return null;
+        }
+        long[] minimums = new long[SIGNATURE_LENGTH];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        for (int start = 0; start + SHINGLE_LENGTH <= folded.length(); start++) {
+            long shingle = 0;
+            for (int i = start; i < start + SHINGLE_LENGTH; i++) {
+                shingle = shingle * 31 + folded.charAt(i);
+            }
+            shingle = mix(shingle);
+            for (int h = 0; h < SIGNATURE_LENGTH; h++) {
+                long value = (shingle * MULTIPLIERS[h] + OFFSETS[h]) >>> 32;
+                if (value < minimums[h]) {
+                    minimums[h] = value;
+                }
+            }
+        }
+        int[] signature = new int[SIGNATURE_LENGTH];
+        for (int h = 0; h < SIGNATURE_LENGTH; h++) {
+            signature[h] = (int) minimums[h];
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity: the fraction of equal signature values.
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    /**
+     * Most similar live entry at or above the threshold.
+     *
+     * @return The match, or null if no indexed text is similar enough
+     */
+    public synchronized Match<V> findSimilar(int[] signature) {
+        evictExpired();
+        Entry<V> best = null;
+        double bestSimilarity = threshold;
+        for (long key : bandKeys(signature)) {
+            List<Entry<V>> bucket = buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            for (Entry<V> candidate : bucket) {
+                if (candidate == best) {
+                    continue;
+                }
+                double similarity = similarity(signature, candidate.signature);
+                if (similarity >= bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        return best != null ? new Match<>(best.value, bestSimilarity) : null;
+    }
+
+    /**
+     * Index a signature, evicting expired and (past the size bound) oldest entries.
+     */
+    public synchronized void add(int[] signature, V value) {
+        evictExpired();
+        Entry<V> entry = new Entry<>(signature, bandKeys(signature), value, clock.getAsLong());
+        entries.addLast(entry);
+        for (long key : entry.bandKeys) {
+            buckets.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+        }
+        while (entries.size() > maxEntries) {
+            remove(entries.pollFirst());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Entries removed because they expired or the index was full.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private void evictExpired() {
+        long now = clock.getAsLong();
+        while (!entries.isEmpty() && now - entries.peekFirst().insertedAt >= ttlNanos) {
+            remove(entries.pollFirst());
+        }
+    }
+
+    private void remove(Entry<V> entry) {
+        for (long key : entry.bandKeys) {
+            List<Entry<V>> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+        evictions++;
+    }
+
+    // One key per band, combining the band number with its rows
+    private static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+                key = mix(key * 31 + signature[row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    // Lower-case letters and digits; every run of other characters becomes one space
+    private static String fold(String text) {
+        String normalized = TextFingerprint.normalize(text);
+        StringBuilder folded = new StringBuilder(normalized.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (pendingSpace && folded.length() > 0) {
+                    folded.append(' ');
+                }
+                pendingSpace = false;
+                folded.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return folded.toString();
+    }
+
+    // 64-bit finalizer from MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * An indexed value and its estimated similarity to the looked-up text.
+     */
+    public static final class Match<V> {
+        private final V value;
+        private final double similarity;
+
+        Match(V value, double similarity) {
+            this.value = value;
+            this.similarity = similarity;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private static final class Entry<V> {
+        final int[] signature;
+        final long[] bandKeys;
+        final V value;
+        final long insertedAt;
+
+        Entry(int[] signature, long[] bandKeys, V value, long insertedAt) {
+            this.signature = signature;
+            this.bandKeys = bandKeys;
+            this.value = value;
+            this.insertedAt = insertedAt;
+        }
+    }
+}
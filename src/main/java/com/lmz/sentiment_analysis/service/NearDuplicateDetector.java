@@ -0,0 +1,288 @@
+package com.lmz.sentiment_analysis.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets near-identical comments (bot floods that change a word or the
+ * punctuation of each copy) inherit the sentiment of the first copy instead
+ * of being parsed and possibly LLM-verified again. Recently analyzed texts
+ * are kept in a bounded, time-expiring {@link MinHashLshIndex}; each indexed
+ * text starts a cluster whose id is its content hash, and comments that
+ * match it are stored with that cluster id and the cluster's result.
+ * Texts shorter than {@code min-length} are never matched, since a small
+ * edit to a short text (adding "not") can flip its sentiment. For the same
+ * reason a match is rejected when the words the two texts do not share
+ * include a negation or a word from the sentiment word list. Off by default.
+ */
+@Service
+public class NearDuplicateDetector implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateDetector.class);
+
+    static final String SENTIMENT_WORDS_RESOURCE = "near-dup/sentiment-words.txt";
+
+    // Negations that are words of their own; contractions ending in n't are recognized by their suffix
+    private static final Set<String> NEGATIONS = Set.of(
+            "not", "no", "never", "none", "nothing", "nobody", "nowhere", "neither", "nor", "without",
+            "cannot", "dont", "doesnt", "didnt", "isnt", "wasnt", "arent", "werent", "wont", "cant",
+            "couldnt", "shouldnt", "wouldnt", "hasnt", "havent", "hadnt", "aint");
+
+    @Value("${comments.near-dup.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${comments.near-dup.threshold:0.95}")
+    private double threshold = 0.95;
+
+    @Value("${comments.near-dup.max-entries:20000}")
+    private int maxEntries = 20000;
+
+    @Value("${comments.near-dup.ttl-ms:3600000}")
+    private long ttlMillis = 3600000;
+
+    @Value("${comments.near-dup.min-length:32}")
+    private int minLength = 32;
+
+    private MinHashLshIndex<Cluster> index;
+    private Set<String> sentimentWords;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder llmCallsSaved = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException {
+        index = new MinHashLshIndex<>(maxEntries, Duration.ofMillis(ttlMillis), threshold);
+        sentimentWords = loadSentimentWords();
+    }
+
+    /**
+     * Find the cluster of a recently analyzed text similar to this one.
+     *
+     * @param content The comment text
+     * @return The cluster to join, or null if the text has to be analyzed
+     */
+    public Cluster findCluster(String content) {
+        int[] signature = signatureOf(content);
+        if (signature == null) {
+            return null;
+        }
+        MinHashLshIndex.Match<Cluster> match = index.findSimilar(signature);
+        if (match == null) {
+            misses.increment();
+            return null;
+        }
+
+        Cluster cluster = match.getValue();
+        String changed = sentimentBearingChange(cluster.words, wordsOf(content));
+        if (changed != null) {
+            rejections.increment();
+            logger.debug("Comment not joined to near-duplicate cluster {}: \"{}\" differs", cluster.getId(), changed);
+            return null;
+        }
+        hits.increment();
+        if (HybridNLPProcessor.HYBRID_SOURCE.equals(cluster.getResult().getSource())) {
+            llmCallsSaved.increment();
+        }
+        logger.debug("Comment joins near-duplicate cluster {} (similarity {})", cluster.getId(), match.getSimilarity());
+        return cluster;
+    }
+
+    /**
+     * Start a cluster for an analyzed text that matched no existing one.
+     * Provisional results and LLM fallbacks are not indexed, as they are not cached either.
+     *
+     * @param content The comment text
+     * @param contentHash The {@link TextFingerprint#hash} of the text, used as the cluster id
+     * @param result The text's sentiment result
+     * @return The new cluster id, or null if the text was not indexed
+     */
+    public String startCluster(String content, String contentHash, HybridNLPProcessor.SentimentResult result) {
+        if (result.isProvisional() || HybridNLPProcessor.LLM_FALLBACK_SOURCE.equals(result.getSource())) {
+            return null;
+        }
+        int[] signature = signatureOf(content);
+        if (signature == null) {
+            return null;
+        }
+        index.add(signature, new Cluster(contentHash, wordsOf(content), result));
+        return contentHash;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Similar comments not joined to a cluster because a negation or sentiment word differs.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public long getLlmCallsSaved() {
+        return llmCallsSaved.sum();
+    }
+
+    public int getIndexSize() {
+        return index.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("comments.near-dup.requests", hits, LongAdder::sum)
+                .description("Comments looked up in the near-duplicate index")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("comments.near-dup.requests", misses, LongAdder::sum)
+                .description("Comments looked up in the near-duplicate index")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("comments.near-dup.requests", rejections, LongAdder::sum)
+                .description("Comments looked up in the near-duplicate index")
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("comments.near-dup.saved", hits, LongAdder::sum)
+                .description("Analysis work skipped by inheriting a near-duplicate's sentiment")
+                .tag("work", "corenlp")
+                .register(registry);
+        FunctionCounter.builder("comments.near-dup.saved", llmCallsSaved, LongAdder::sum)
+                .description("Analysis work skipped by inheriting a near-duplicate's sentiment")
+                .tag("work", "llm")
+                .register(registry);
+        FunctionCounter.builder("comments.near-dup.evictions", this, d -> d.index.getEvictions())
+                .description("Index entries dropped because they expired or the index was full")
+                .register(registry);
+        Gauge.builder("comments.near-dup.index.size", this, d -> d.index.size())
+                .description("Texts held in the near-duplicate index")
+                .register(registry);
+    }
+
+    private int[] signatureOf(String content) {
+        if (!enabled || content == null || content.length() < minLength) {
+            return null;
+        }
+        return MinHashLshIndex.signature(content);
+    }
+
+    /**
+     * The first word in only one of the two sets that is a negation or a
+     * sentiment word, or null if the texts differ only in neutral words.
+     */
+    String sentimentBearingChange(Set<String> first, Set<String> second) {
+        for (String word : first) {
+            if (!second.contains(word) && isSentimentBearing(word)) {
+                return word;
+            }
+        }
+        for (String word : second) {
+            if (!first.contains(word) && isSentimentBearing(word)) {
+                return word;
+            }
+        }
+        return null;
+    }
+
+    private boolean isSentimentBearing(String word) {
+        if (NEGATIONS.contains(word) || word.endsWith("n't") || sentimentWords.contains(word)) {
+            return true;
+        }
+        // Plural, past tense, gerund and adverb forms of a listed word
+        for (String suffix : new String[] {"s", "es", "d", "ed", "ing", "ly"}) {
+            if (word.length() > suffix.length() + 2 && word.endsWith(suffix)
+                    && sentimentWords.contains(word.substring(0, word.length() - suffix.length()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Distinct lower-case words: runs of letters and digits, with apostrophes kept inside them (don't, isn't)
+    static Set<String> wordsOf(String content) {
+        Set<String> words = new HashSet<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= content.length(); i++) {
+            char c = i < content.length() ? content.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if ((c == '\'' || c == '\u2019') && word.length() > 0) {
+                word.append('\'');
+            } else if (word.length() > 0) {
+                // Drop a trailing apostrophe (quotes, possessive plurals)
+                if (word.charAt(word.length() - 1) == '\'') {
+                    word.setLength(word.length() - 1);
+                }
+                if (word.length() > 0) {
+                    words.add(word.toString());
+                }
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> loadSentimentWords() throws IOException {
+        Set<String> words = new HashSet<>();
+        InputStream in = NearDuplicateDetector.class.getClassLoader().getResourceAsStream(SENTIMENT_WORDS_RESOURCE);
+        if (in == null) {
+            throw new IOException("Missing " + SENTIMENT_WORDS_RESOURCE);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim().toLowerCase(Locale.ROOT);
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    words.add(line);
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * A group of near-identical texts sharing the first text's analysis.
+     */
+    public static final class Cluster {
+        private final String id;
+        // Words of the first text, compared with each candidate's words
+        private final Set<String> words;
+        private final HybridNLPProcessor.SentimentResult result;
+
+        Cluster(String id, Set<String> words, HybridNLPProcessor.SentimentResult result) {
+            this.id = id;
+            this.words = words;
+            this.result = result;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public HybridNLPProcessor.SentimentResult getResult() {
+            return result;
+        }
+    }
+}
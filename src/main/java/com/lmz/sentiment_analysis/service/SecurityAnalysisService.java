@@ -1,11 +1,11 @@
 package com.lmz.sentiment_analysis.service;
 
+import com.lmz.sentiment_analysis.model.SentimentLabel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * Security Analysis Service for detecting malicious content and analyzing
@@ -17,19 +17,11 @@ public class SecurityAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(SecurityAnalysisService.class);
 
-    // Malicious patterns - common indicators of threats
-    private static final List<Pattern> MALICIOUS_PATTERNS = Arrays.asList(
-        Pattern.compile("\\b(exploit|vulnerability|malware|ransomware|phishing)\\b", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\b(hack|breach|attack|threat|trojan)\\b", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\b(injection|xss|csrf|backdoor|payload)\\b", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\b(ddos|botnet|keylogger|spyware|rootkit)\\b", Pattern.CASE_INSENSITIVE)
-    );
+    private final ThreatRuleRegistry ruleRegistry;
 
-    // Critical security keywords
-    private static final List<String> CRITICAL_KEYWORDS = Arrays.asList(
-        "critical", "severe", "urgent", "immediate", "emergency",
-        "zero-day", "patch", "update", "mitigation"
-    );
+    public SecurityAnalysisService(ThreatRuleRegistry ruleRegistry) {
+        this.ruleRegistry = ruleRegistry;
+    }
 
     // Risk severity levels
     public enum RiskLevel {
@@ -44,28 +36,31 @@ public class SecurityAnalysisService {
      */
     public SecurityAnalysisResult analyzeSecurityContent(String text) {
         if (text == null || text.trim().isEmpty()) {
-            return new SecurityAnalysisResult(false, RiskLevel.LOW, 0, new ArrayList<>());
+            return new SecurityAnalysisResult(false, RiskLevel.LOW, 0, new ArrayList<>(), new ArrayList<>());
         }
 
-        boolean isThreat = false;
-        int threatScore = 0;
-        List<String> detectedThreats = new ArrayList<>();
-
-        // Check for malicious patterns
-        for (Pattern pattern : MALICIOUS_PATTERNS) {
-            if (pattern.matcher(text).find()) {
-                isThreat = true;
-                threatScore += 20;
-                detectedThreats.add(pattern.pattern());
+        // Read the rules once, so a reload during this analysis cannot mix two rule sets
+        ThreatRuleSet rules = ruleRegistry.getRules();
+
+        // One pass finds every keyword occurrence with its offsets
+        List<ThreatKeywordMatcher.Match> matches = rules.getMatcher().findAll(text);
+
+        // A category scores its heaviest match once, or each distinct term once if scored per term
+        Map<String, Integer> scores = new HashMap<>();
+        Set<String> detectedThreats = new LinkedHashSet<>();
+        for (ThreatKeywordMatcher.Match match : matches) {
+            ThreatRulePack.Category category = rules.getCategory(match.getCategory());
+            String scoreKey = category.isScoredPerTerm()
+                ? category.getName() + "\u0000" + match.getTerm() : category.getName();
+            scores.merge(scoreKey, match.getWeight(), Math::max);
+            if (category.isThreat()) {
+                detectedThreats.add(match.getTerm());
             }
         }
-
-        // Check for critical keywords
-        String lowerText = text.toLowerCase();
-        for (String keyword : CRITICAL_KEYWORDS) {
-            if (lowerText.contains(keyword)) {
-                threatScore += 10;
-            }
+        boolean isThreat = !detectedThreats.isEmpty();
+        int threatScore = 0;
+        for (int score : scores.values()) {
+            threatScore += score;
         }
 
         // Calculate risk level
@@ -74,7 +69,7 @@ public class SecurityAnalysisService {
         logger.info("Security analysis: isThreat={}, riskLevel={}, score={}", 
                     isThreat, riskLevel, threatScore);
 
-        return new SecurityAnalysisResult(isThreat, riskLevel, threatScore, detectedThreats);
+        return new SecurityAnalysisResult(isThreat, riskLevel, threatScore, new ArrayList<>(detectedThreats), matches);
     }
 
     /**
@@ -84,19 +79,24 @@ public class SecurityAnalysisService {
      * @param sentiment The sentiment from NLP analysis
      * @return Threat analysis result
      */
-    public ThreatAnalysisResult analyzeThreatReport(String report, String sentiment) {
+    public ThreatAnalysisResult analyzeThreatReport(String report, SentimentLabel sentiment) {
         SecurityAnalysisResult securityResult = analyzeSecurityContent(report);
         
         // Combine sentiment and security analysis for threat assessment
         int severityScore = calculateSeverityScore(sentiment, securityResult);
         String recommendation = generateRecommendation(securityResult.getRiskLevel());
 
+        // Indicators of compromise for downstream tooling; they do not change the score
+        List<IocScanner.Indicator> indicators = IocScanner.findAll(report == null ? "" : report);
+
         return new ThreatAnalysisResult(
             sentiment,
             securityResult.getRiskLevel(),
             severityScore,
             securityResult.isThreat(),
             securityResult.getDetectedThreats(),
+            securityResult.getMatches(),
+            indicators,
             recommendation
         );
     }
@@ -114,14 +114,12 @@ public class SecurityAnalysisService {
     /**
      * Calculate overall severity score combining sentiment and security analysis.
      */
-    private int calculateSeverityScore(String sentiment, SecurityAnalysisResult securityResult) {
+    private int calculateSeverityScore(SentimentLabel sentiment, SecurityAnalysisResult securityResult) {
         int score = securityResult.getThreatScore();
         
-        // Adjust based on sentiment
-        if (sentiment.toLowerCase().contains("negative")) {
+        // Adjust based on sentiment (negative and very negative reports weigh the same)
+        if (sentiment.isNegative()) {
             score += 15;
-        } else if (sentiment.toLowerCase().contains("very negative")) {
-            score += 25;
         }
         
         return Math.min(score, 100);
@@ -155,13 +153,21 @@ public class SecurityAnalysisService {
         private final RiskLevel riskLevel;
         private final int threatScore;
         private final List<String> detectedThreats;
+        private final List<ThreatKeywordMatcher.Match> matches;
 
         public SecurityAnalysisResult(boolean isThreat, RiskLevel riskLevel, 
                                      int threatScore, List<String> detectedThreats) {
+            this(isThreat, riskLevel, threatScore, detectedThreats, new ArrayList<>());
+        }
+
+        public SecurityAnalysisResult(boolean isThreat, RiskLevel riskLevel,
+                                     int threatScore, List<String> detectedThreats,
+                                     List<ThreatKeywordMatcher.Match> matches) {
             this.isThreat = isThreat;
             this.riskLevel = riskLevel;
             this.threatScore = threatScore;
             this.detectedThreats = detectedThreats;
+            this.matches = matches;
         }
 
         public boolean isThreat() {
@@ -176,34 +182,49 @@ public class SecurityAnalysisService {
             return threatScore;
         }
 
+        /**
+         * Distinct malicious terms found, in order of first occurrence.
+         */
         public List<String> getDetectedThreats() {
             return detectedThreats;
         }
+
+        /**
+         * Every malicious and critical keyword occurrence with its offsets.
+         */
+        public List<ThreatKeywordMatcher.Match> getMatches() {
+            return matches;
+        }
     }
 
     /**
      * Threat analysis result container for comprehensive reports.
      */
     public static class ThreatAnalysisResult {
-        private final String sentiment;
+        private final SentimentLabel sentiment;
         private final RiskLevel riskLevel;
         private final int severityScore;
         private final boolean isThreat;
         private final List<String> detectedThreats;
+        private final List<ThreatKeywordMatcher.Match> matches;
+        private final List<IocScanner.Indicator> indicators;
         private final String recommendation;
 
-        public ThreatAnalysisResult(String sentiment, RiskLevel riskLevel, 
+        public ThreatAnalysisResult(SentimentLabel sentiment, RiskLevel riskLevel, 
                                    int severityScore, boolean isThreat,
-                                   List<String> detectedThreats, String recommendation) {
+                                   List<String> detectedThreats, List<ThreatKeywordMatcher.Match> matches,
+                                   List<IocScanner.Indicator> indicators, String recommendation) {
             this.sentiment = sentiment;
             this.riskLevel = riskLevel;
             this.severityScore = severityScore;
             this.isThreat = isThreat;
             this.detectedThreats = detectedThreats;
+            this.matches = matches;
+            this.indicators = indicators;
             this.recommendation = recommendation;
         }
 
-        public String getSentiment() {
+        public SentimentLabel getSentiment() {
             return sentiment;
         }
 
@@ -223,6 +244,17 @@ public class SecurityAnalysisService {
             return detectedThreats;
         }
 
+        public List<ThreatKeywordMatcher.Match> getMatches() {
+            return matches;
+        }
+
+        /**
+         * IP addresses, domains, URLs, file hashes and CVE ids found in the report, with offsets.
+         */
+        public List<IocScanner.Indicator> getIndicators() {
+            return indicators;
+        }
+
         public String getRecommendation() {
             return recommendation;
         }
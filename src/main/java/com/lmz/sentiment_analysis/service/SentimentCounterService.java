@@ -0,0 +1,303 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.config.SchemaInspector;
+import com.lmz.sentiment_analysis.model.SentimentCounter;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import com.lmz.sentiment_analysis.repository.SentimentCount;
+import com.lmz.sentiment_analysis.repository.SentimentCounterRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incrementally maintained comment counts per sentiment label.
+ * Counters are keyed by the display label, which is also the key of the
+ * distribution returned to clients. Writes update striped in-memory counters (LongAdder) without locking;
+ * a scheduled job flushes the accumulated deltas to the sentiment_counters
+ * table, so counts survive restarts and are shared between nodes. A second
+ * job reconciles the table against the comments table to repair drift; it
+ * runs on one node at a time and corrects the counters with the same
+ * relative updates as a flush, so it never overwrites other nodes' deltas.
+ * Reading the distribution costs O(labels) and never touches the database.
+ */
+@Service
+public class SentimentCounterService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentCounterService.class);
+
+    // MySQL named lock held by the node that is reconciling; the others skip their run
+    static final String RECONCILE_LOCK_NAME = "sentiment_analysis.counter_reconciliation";
+
+    private final SentimentCounterRepository counterRepository;
+    private final CommentRepository commentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Net change per label made by this node since startup
+    private final ConcurrentMap<String, LongAdder> localChanges = new ConcurrentHashMap<>();
+    // Persisted counts plus the part of localChanges they already include, swapped as one unit
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+    private final Object flushLock = new Object();
+
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder reconciliationCorrections = new LongAdder();
+
+    public SentimentCounterService(SentimentCounterRepository counterRepository,
+                                   CommentRepository commentRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate) {
+        this.counterRepository = counterRepository;
+        this.commentRepository = commentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void increment(SentimentLabel sentiment) {
+        add(sentiment, 1);
+    }
+
+    public void decrement(SentimentLabel sentiment) {
+        add(sentiment, -1);
+    }
+
+    /**
+     * Record a comment whose sentiment changed from one label to another.
+     */
+    public void move(SentimentLabel from, SentimentLabel to) {
+        if (from != to) {
+            decrement(from);
+            increment(to);
+        }
+    }
+
+    private void add(SentimentLabel sentiment, long delta) {
+        if (sentiment == null) {
+            return;
+        }
+        localChanges.computeIfAbsent(sentiment.getLabel(), key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Current number of comments per sentiment label.
+     * Labels without comments are omitted.
+     */
+    public Map<String, Long> getDistribution() {
+        Snapshot current = snapshot;
+        Map<String, Long> distribution = new HashMap<>(current.persisted);
+        localChanges.forEach((label, changes) -> {
+            long unflushed = changes.sum() - current.flushed.getOrDefault(label, 0L);
+            if (unflushed != 0) {
+                distribution.merge(label, unflushed, Long::sum);
+            }
+        });
+        distribution.values().removeIf(count -> count <= 0);
+        return distribution;
+    }
+
+    /**
+     * Load the persisted counters. On the first start, when the counter
+     * table is still empty, build it from the comments table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Map<String, Long> persisted = loadPersisted();
+        if (persisted.isEmpty()) {
+            reconcile();
+        } else {
+            synchronized (flushLock) {
+                snapshot = new Snapshot(persisted, snapshot.flushed);
+            }
+        }
+    }
+
+    /**
+     * Write the deltas accumulated since the last flush and refresh the
+     * persisted counts, which also picks up other nodes' flushes.
+     */
+    @Scheduled(fixedDelayString = "${sentiment.counters.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Snapshot current = snapshot;
+            Map<String, Long> flushed = new HashMap<>(current.flushed);
+            Map<String, Long> applied = new HashMap<>();
+            for (Map.Entry<String, LongAdder> entry : localChanges.entrySet()) {
+                String label = entry.getKey();
+                // sum() may miss in-flight updates; they are included in the next flush
+                long total = entry.getValue().sum();
+                long delta = total - flushed.getOrDefault(label, 0L);
+                if (delta == 0) {
+                    continue;
+                }
+                try {
+                    applyDelta(label, delta);
+                    flushed.put(label, total);
+                    applied.put(label, delta);
+                } catch (RuntimeException e) {
+                    flushFailures.increment();
+                    logger.warn("Flushing sentiment counter {} failed; retrying on next flush: {}", label, e.getMessage());
+                }
+            }
+
+            Map<String, Long> persisted;
+            try {
+                persisted = loadPersisted();
+            } catch (RuntimeException e) {
+                // Keep the deltas just written visible until the next successful refresh
+                logger.warn("Refreshing sentiment counters failed: {}", e.getMessage());
+                persisted = new HashMap<>(current.persisted);
+                applied.forEach((label, delta) -> persisted.merge(label, delta, Long::sum));
+            }
+            snapshot = new Snapshot(persisted, flushed);
+        }
+    }
+
+    /**
+     * Recount comments per label from the comments table and correct any
+     * counter that has drifted (e.g. rows changed outside the application).
+     * The counter rows stay locked from reading them until the corrections
+     * are committed, so no flush lands between the recount and the
+     * correction. Changes this node has counted but not yet flushed are
+     * already in the comments table and are left for the next flush; other
+     * nodes' unflushed changes are corrected on the next run.
+     */
+    @Scheduled(cron = "${sentiment.counters.reconcile-cron:0 15 * * * *}")
+    public void reconcile() {
+        flush();
+        try {
+            // flushLock only keeps this node from being half way through a flush while the rows are locked
+            synchronized (flushLock) {
+                transactionTemplate.executeWithoutResult(status -> correctDrift());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Reconciling sentiment counters failed; retrying on next run: {}", e.getMessage());
+        }
+        flush();
+    }
+
+    private void correctDrift() {
+        boolean mySql = SchemaInspector.isMySql(jdbcTemplate);
+        if (mySql) {
+            Integer locked = jdbcTemplate.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, RECONCILE_LOCK_NAME);
+            if (locked == null || locked != 1) {
+                logger.debug("Sentiment counters are being reconciled by another node");
+                return;
+            }
+        }
+        try {
+            Map<String, Long> stored = new HashMap<>();
+            for (SentimentCounter counter : counterRepository.findAllForUpdate()) {
+                stored.put(counter.getLabel(), counter.getCommentCount());
+            }
+            Map<String, Long> actual = new HashMap<>();
+            for (SentimentCount count : commentRepository.countBySentiment()) {
+                actual.put(count.getSentiment().getLabel(), count.getCount());
+            }
+            Map<String, Long> unflushed = unflushedByLabel();
+
+            Set<String> labels = new HashSet<>(actual.keySet());
+            labels.addAll(stored.keySet());
+            for (String label : labels) {
+                long expected = actual.getOrDefault(label, 0L) - unflushed.getOrDefault(label, 0L);
+                long recorded = stored.getOrDefault(label, 0L);
+                if (expected == recorded) {
+                    continue;
+                }
+                reconciliationCorrections.increment();
+                logger.info("Sentiment counter {} drifted: counted {}, stored {}", label, expected, recorded);
+                applyDelta(label, expected - recorded);
+            }
+        } finally {
+            if (mySql) {
+                jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, RECONCILE_LOCK_NAME);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void applyDelta(String label, long delta) {
+        if (counterRepository.addToCount(label, delta) > 0) {
+            return;
+        }
+        try {
+            counterRepository.saveAndFlush(new SentimentCounter(label, delta));
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the row first
+            counterRepository.addToCount(label, delta);
+        }
+    }
+
+    private Map<String, Long> loadPersisted() {
+        Map<String, Long> persisted = new HashMap<>();
+        for (SentimentCounter counter : counterRepository.findAll()) {
+            persisted.put(counter.getLabel(), counter.getCommentCount());
+        }
+        return persisted;
+    }
+
+    private Map<String, Long> unflushedByLabel() {
+        Snapshot current = snapshot;
+        Map<String, Long> unflushed = new HashMap<>();
+        localChanges.forEach((label, changes) ->
+                unflushed.put(label, changes.sum() - current.flushed.getOrDefault(label, 0L)));
+        return unflushed;
+    }
+
+    private long unflushedChanges() {
+        Snapshot current = snapshot;
+        long unflushed = 0;
+        for (Map.Entry<String, LongAdder> entry : localChanges.entrySet()) {
+            unflushed += Math.abs(entry.getValue().sum() - current.flushed.getOrDefault(entry.getKey(), 0L));
+        }
+        return unflushed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sentiment.counters.unflushed", this, SentimentCounterService::unflushedChanges)
+                .description("Counter changes not yet written to the sentiment_counters table")
+                .register(registry);
+        FunctionCounter.builder("sentiment.counters.flush.failures", flushFailures, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("sentiment.counters.reconciliation.corrections", reconciliationCorrections, LongAdder::sum)
+                .description("Counters corrected by reconciliation against the comments table")
+                .register(registry);
+    }
+
+    /**
+     * Persisted counts and, per label, the local total they already include.
+     */
+    private static final class Snapshot {
+        final Map<String, Long> persisted;
+        final Map<String, Long> flushed;
+
+        Snapshot(Map<String, Long> persisted, Map<String, Long> flushed) {
+            this.persisted = persisted;
+            this.flushed = flushed;
+        }
+    }
+}
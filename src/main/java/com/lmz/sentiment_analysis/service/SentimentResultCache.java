@@ -0,0 +1,225 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier cache of sentiment results keyed by a hash of the normalized text.
+ * A bounded in-process LRU sits in front of the shared "sentimentResults"
+ * cache from the CacheManager (Redis in production). Keys include the engine
+ * and model version, so changing either invalidates every earlier entry.
+ */
+@Component
+public class SentimentResultCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentResultCache.class);
+
+    public static final String CACHE_NAME = "sentimentResults";
+
+    private final CacheManager cacheManager;
+    private final String version;
+    private final Map<String, CachedSentiment> localTier;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SentimentResultCache(CacheManager cacheManager,
+                                @Value("${nlp.engine.version:corenlp-4.5.4}") String engineVersion,
+                                @Value("${openai.model:gpt-3.5-turbo}") String llmModel,
+                                @Value("${nlp.result-cache.local-max-entries:10000}") int localMaxEntries) {
+        this.cacheManager = cacheManager;
+        this.version = engineVersion + "+" + llmModel;
+        this.localTier = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSentiment> eldest) {
+                return size() > localMaxEntries;
+            }
+        };
+    }
+
+    /**
+     * Look up a cached result for the text.
+     * 
+     * @param text The text to analyze
+     * @return The cached result, or null on a miss
+     */
+    public HybridNLPProcessor.SentimentResult get(String text) {
+        String key = keyFor(text);
+
+        CachedSentiment cached;
+        synchronized (localTier) {
+            cached = localTier.get(key);
+        }
+        if (cached != null) {
+            localHits.increment();
+            return cached.toResult();
+        }
+
+        Cache shared = sharedCache();
+        if (shared != null) {
+            try {
+                cached = shared.get(key, CachedSentiment.class);
+            } catch (RuntimeException e) {
+                logger.warn("Shared sentiment cache lookup failed: {}", e.getMessage());
+            }
+            if (cached != null) {
+                sharedHits.increment();
+                synchronized (localTier) {
+                    localTier.put(key, cached);
+                }
+                return cached.toResult();
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Store a result for the text in both tiers.
+     */
+    public void put(String text, HybridNLPProcessor.SentimentResult result) {
+        String key = keyFor(text);
+        CachedSentiment cached = CachedSentiment.from(result);
+
+        synchronized (localTier) {
+            localTier.put(key, cached);
+        }
+
+        Cache shared = sharedCache();
+        if (shared != null) {
+            try {
+                shared.put(key, cached);
+            } catch (RuntimeException e) {
+                logger.warn("Shared sentiment cache write failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Engine and model version that every key is scoped to.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getSharedHits() {
+        return sharedHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sentiment.result.cache.requests", localHits, LongAdder::sum)
+                .tag("result", "hit").tag("tier", "local")
+                .register(registry);
+        FunctionCounter.builder("sentiment.result.cache.requests", sharedHits, LongAdder::sum)
+                .tag("result", "hit").tag("tier", "shared")
+                .register(registry);
+        FunctionCounter.builder("sentiment.result.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").tag("tier", "none")
+                .register(registry);
+        Gauge.builder("sentiment.result.cache.local.size", this, c -> c.localSize())
+                .description("Entries held in the in-process sentiment cache tier")
+                .register(registry);
+    }
+
+    private int localSize() {
+        synchronized (localTier) {
+            return localTier.size();
+        }
+    }
+
+    private String keyFor(String text) {
+        return version + ":" + TextFingerprint.hash(text);
+    }
+
+    private Cache sharedCache() {
+        try {
+            return cacheManager != null ? cacheManager.getCache(CACHE_NAME) : null;
+        } catch (RuntimeException e) {
+            logger.warn("Shared sentiment cache unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Serializable cache entry (no-arg constructor and setters for JSON).
+     */
+    public static class CachedSentiment {
+        // Serialized as the display label, so entries written before sentiment codes still read back
+        private SentimentLabel sentiment;
+        private double confidence;
+        private String source;
+        private double[] classDistribution;
+
+        public CachedSentiment() {
+        }
+
+        static CachedSentiment from(HybridNLPProcessor.SentimentResult result) {
+            CachedSentiment cached = new CachedSentiment();
+            cached.setSentiment(result.getSentiment());
+            cached.setConfidence(result.getConfidence());
+            cached.setSource(result.getSource());
+            cached.setClassDistribution(result.getClassDistribution());
+            return cached;
+        }
+
+        HybridNLPProcessor.SentimentResult toResult() {
+            return new HybridNLPProcessor.SentimentResult(sentiment, confidence, source, classDistribution);
+        }
+
+        public SentimentLabel getSentiment() {
+            return sentiment;
+        }
+
+        public void setSentiment(SentimentLabel sentiment) {
+            this.sentiment = sentiment;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public void setConfidence(double confidence) {
+            this.confidence = confidence;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        public double[] getClassDistribution() {
+            return classDistribution;
+        }
+
+        public void setClassDistribution(double[] classDistribution) {
+            this.classDistribution = classDistribution;
+        }
+    }
+}
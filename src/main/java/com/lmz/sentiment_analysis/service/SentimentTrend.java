@@ -0,0 +1,77 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.SentimentRollup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sentiment counts and average score per time bucket over [from, to).
+ * Every bucket in the range is present, including empty ones, so the
+ * series can be plotted directly.
+ */
+public class SentimentTrend {
+
+    private final SentimentRollup.Granularity granularity;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<Bucket> buckets;
+
+    public SentimentTrend(SentimentRollup.Granularity granularity, LocalDateTime from, LocalDateTime to,
+                          List<Bucket> buckets) {
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+    }
+
+    public SentimentRollup.Granularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * One time bucket. The average score is 0 for an empty bucket.
+     */
+    public static class Bucket {
+        private final LocalDateTime start;
+        private final Map<String, Long> counts;
+        private final long total;
+        private final double averageScore;
+
+        public Bucket(LocalDateTime start, Map<String, Long> counts, long total, double averageScore) {
+            this.start = start;
+            this.counts = counts;
+            this.total = total;
+            this.averageScore = averageScore;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public Map<String, Long> getCounts() {
+            return counts;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double getAverageScore() {
+            return averageScore;
+        }
+    }
+}
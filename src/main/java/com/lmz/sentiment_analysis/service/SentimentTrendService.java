@@ -0,0 +1,222 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.model.SentimentRollup;
+import com.lmz.sentiment_analysis.repository.SentimentRollupRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sentiment trends per minute, hour and day, served from the
+ * sentiment_rollups table instead of the comments table. Every comment
+ * write adds its count and score to one bucket per granularity in memory;
+ * a scheduled job flushes the accumulated deltas with atomic in-place
+ * increments, like {@link SentimentCounterService}. A trend query reads
+ * only the rollup rows in range (one per bucket and label) plus the
+ * deltas not flushed yet, so a year of daily or hourly buckets costs a
+ * short primary-key range read. Rollups are keyed by the display label,
+ * which is also the key of the counts returned to clients. Comments stored
+ * before the rollups existed are added once by
+ * {@link com.lmz.sentiment_analysis.config.SentimentRollupBackfillMigration}.
+ */
+@Service
+public class SentimentTrendService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentTrendService.class);
+
+    private final SentimentRollupRepository rollupRepository;
+
+    // Deltas not yet written to the rollup table; values are immutable and merged atomically
+    private final ConcurrentMap<SentimentRollup.Key, Delta> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final LongAdder flushFailures = new LongAdder();
+
+    @Value("${sentiment.trend.max-buckets:10000}")
+    private int maxBuckets = 10000;
+
+    public SentimentTrendService(SentimentRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Record a stored comment.
+     */
+    public void record(Comment comment) {
+        add(comment.getCreatedAt(), comment.getSentiment(), 1, comment.getSentimentScore());
+    }
+
+    /**
+     * Record a deleted comment.
+     */
+    public void remove(Comment comment) {
+        add(comment.getCreatedAt(), comment.getSentiment(), -1, -comment.getSentimentScore());
+    }
+
+    /**
+     * Record a comment whose sentiment changed after it was stored.
+     */
+    public void move(LocalDateTime createdAt, SentimentLabel from, double fromScore, SentimentLabel to, double toScore) {
+        if (from == to && fromScore == toScore) {
+            return;
+        }
+        add(createdAt, from, -1, -fromScore);
+        add(createdAt, to, 1, toScore);
+    }
+
+    private void add(LocalDateTime createdAt, SentimentLabel sentiment, long count, double score) {
+        if (createdAt == null || sentiment == null) {
+            return;
+        }
+        Delta delta = new Delta(count, score);
+        for (SentimentRollup.Granularity granularity : SentimentRollup.Granularity.values()) {
+            pending.merge(new SentimentRollup.Key(granularity, granularity.bucketStart(createdAt), sentiment.getLabel()),
+                          delta, Delta::plus);
+        }
+    }
+
+    /**
+     * Sentiment counts and average score for every bucket starting in
+     * [from, to). The range is widened to whole buckets.
+     *
+     * @throws IllegalArgumentException if the range is empty or spans more than the bucket limit
+     */
+    public SentimentTrend getTrend(SentimentRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.bucketStart(from);
+        if (!start.isBefore(to)) {
+            throw new IllegalArgumentException("Empty time range");
+        }
+        long bucketCount = Duration.between(start, to).dividedBy(granularity.getBucketDuration()) + 1;
+        if (bucketCount > maxBuckets) {
+            throw new IllegalArgumentException("Range spans " + bucketCount + " " + granularity
+                                               + " buckets; the limit is " + maxBuckets);
+        }
+
+        Map<LocalDateTime, Map<String, Delta>> totals = new HashMap<>();
+        for (SentimentRollup row : rollupRepository.findRange(granularity, start, to)) {
+            totals.computeIfAbsent(row.getBucketStart(), key -> new HashMap<>())
+                    .merge(row.getSentiment(), new Delta(row.getCommentCount(), row.getScoreSum()), Delta::plus);
+        }
+        // Include writes since the last flush
+        pending.forEach((key, delta) -> {
+            if (key.getGranularity() == granularity
+                    && !key.getBucketStart().isBefore(start) && key.getBucketStart().isBefore(to)) {
+                totals.computeIfAbsent(key.getBucketStart(), bucket -> new HashMap<>())
+                        .merge(key.getSentiment(), delta, Delta::plus);
+            }
+        });
+
+        List<SentimentTrend.Bucket> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = granularity.next(bucket)) {
+            Map<String, Long> counts = new TreeMap<>();
+            long total = 0;
+            double scoreSum = 0;
+            for (Map.Entry<String, Delta> entry : totals.getOrDefault(bucket, Map.of()).entrySet()) {
+                long count = entry.getValue().count;
+                if (count <= 0) {
+                    continue;
+                }
+                counts.put(entry.getKey(), count);
+                total += count;
+                scoreSum += entry.getValue().scoreSum;
+            }
+            buckets.add(new SentimentTrend.Bucket(bucket, counts, total, total > 0 ? scoreSum / total : 0));
+        }
+        return new SentimentTrend(granularity, start, to, buckets);
+    }
+
+    /**
+     * Write the deltas accumulated since the last flush. A delta that
+     * cannot be written is kept for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${sentiment.trend.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            for (SentimentRollup.Key key : pending.keySet()) {
+                // Writers arriving after the remove start a fresh delta for the next flush
+                Delta delta = pending.remove(key);
+                if (delta == null || delta.isZero()) {
+                    continue;
+                }
+                try {
+                    applyDelta(key, delta);
+                } catch (RuntimeException e) {
+                    pending.merge(key, delta, Delta::plus);
+                    flushFailures.increment();
+                    logger.warn("Flushing sentiment rollups failed; retrying on next flush: {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void applyDelta(SentimentRollup.Key key, Delta delta) {
+        if (rollupRepository.addToBucket(key.getGranularity(), key.getBucketStart(), key.getSentiment(),
+                                         delta.count, delta.scoreSum) > 0) {
+            return;
+        }
+        try {
+            rollupRepository.saveAndFlush(new SentimentRollup(key.getGranularity(), key.getBucketStart(),
+                                                              key.getSentiment(), delta.count, delta.scoreSum));
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the bucket first
+            rollupRepository.addToBucket(key.getGranularity(), key.getBucketStart(), key.getSentiment(),
+                                         delta.count, delta.scoreSum);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sentiment.trend.pending.buckets", pending, Map::size)
+                .description("Rollup buckets with changes not yet written to the sentiment_rollups table")
+                .register(registry);
+        FunctionCounter.builder("sentiment.trend.flush.failures", flushFailures, LongAdder::sum)
+                .register(registry);
+    }
+
+    /**
+     * Change to one bucket: a comment count and a score sum.
+     */
+    private static final class Delta {
+        final long count;
+        final double scoreSum;
+
+        Delta(long count, double scoreSum) {
+            this.count = count;
+            this.scoreSum = scoreSum;
+        }
+
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, scoreSum + other.scoreSum);
+        }
+
+        boolean isZero() {
+            return count == 0 && scoreSum == 0;
+        }
+    }
+}
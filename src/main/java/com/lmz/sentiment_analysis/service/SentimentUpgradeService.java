@@ -0,0 +1,97 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Upgrades provisional comments in the background. The LLM verification
+ * runs on the bounded llmVerificationExecutor, and the stored Comment is
+ * updated with the final sentiment when it finishes.
+ */
+@Service
+public class SentimentUpgradeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentUpgradeService.class);
+
+    private final HybridNLPProcessor hybridNLPProcessor;
+    private final CommentRepository commentRepository;
+    private final SentimentCounterService sentimentCounterService;
+    private final SentimentTrendService sentimentTrendService;
+    private final CommentListCache commentListCache;
+    private final TaskExecutor executor;
+
+    public SentimentUpgradeService(HybridNLPProcessor hybridNLPProcessor,
+                                   CommentRepository commentRepository,
+                                   SentimentCounterService sentimentCounterService,
+                                   SentimentTrendService sentimentTrendService,
+                                   CommentListCache commentListCache,
+                                   @Qualifier("llmVerificationExecutor") TaskExecutor executor) {
+        this.hybridNLPProcessor = hybridNLPProcessor;
+        this.commentRepository = commentRepository;
+        this.sentimentCounterService = sentimentCounterService;
+        this.sentimentTrendService = sentimentTrendService;
+        this.commentListCache = commentListCache;
+        this.executor = executor;
+    }
+
+    /**
+     * Queue LLM verification for a saved provisional comment. If the
+     * executor is saturated the comment keeps its CoreNLP result.
+     * 
+     * @param commentId The saved comment id
+     * @param content The comment text
+     * @param provisional The provisional CoreNLP result
+     */
+    public void scheduleUpgrade(Long commentId, String content, HybridNLPProcessor.SentimentResult provisional) {
+        try {
+            executor.execute(() -> upgrade(commentId, content, provisional));
+        } catch (TaskRejectedException e) {
+            logger.warn("LLM verification queue full; comment {} keeps its provisional result", commentId);
+            finalizeWith(commentId, provisional.getSentiment(), provisional.getConfidence(), "CoreNLP (LLM skipped)");
+        }
+    }
+
+    void upgrade(Long commentId, String content, HybridNLPProcessor.SentimentResult provisional) {
+        try {
+            HybridNLPProcessor.SentimentResult result = hybridNLPProcessor.completeProvisional(content, provisional);
+            logger.info("Provisional comment {} upgraded: sentiment={}, source={}",
+                        commentId, result.getSentiment(), result.getSource());
+            finalizeWith(commentId, result.getSentiment(), result.getConfidence(), result.getSource());
+        } catch (RuntimeException e) {
+            logger.error("Background verification of comment {} failed: {}", commentId, e.getMessage());
+            finalizeWith(commentId, provisional.getSentiment(), provisional.getConfidence(),
+                         HybridNLPProcessor.LLM_FALLBACK_SOURCE);
+        }
+    }
+
+    private void finalizeWith(Long commentId, SentimentLabel sentiment, double confidence, String source) {
+        Optional<Comment> stored = commentRepository.findById(commentId);
+        if (stored.isEmpty()) {
+            logger.debug("Comment {} was deleted before its sentiment upgrade finished", commentId);
+            return;
+        }
+
+        Comment comment = stored.get();
+        SentimentLabel previousSentiment = comment.getSentiment();
+        double previousScore = comment.getSentimentScore();
+        CommentServiceImpl.applySentiment(comment, sentiment);
+        comment.setSentimentConfidence(confidence);
+        comment.setSentimentSource(source);
+        comment.setProvisional(false);
+        commentRepository.save(comment);
+        sentimentCounterService.move(previousSentiment, sentiment);
+        sentimentTrendService.move(comment.getCreatedAt(), previousSentiment, previousScore,
+                                   comment.getSentiment(), comment.getSentimentScore());
+
+        commentListCache.evictForUser(comment.getUserId());
+    }
+}
@@ -0,0 +1,45 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content fingerprints for comment text. Texts that differ only in Unicode
+ * form or whitespace share a fingerprint, so they can share analysis results.
+ */
+public final class TextFingerprint {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextFingerprint() {
+    }
+
+    /**
+     * Normalize text for fingerprinting: NFKC, trimmed, whitespace collapsed.
+     * Case is preserved because it can change the sentiment parse.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ");
+    }
+
+    /**
+     * SHA-256 of the normalized text, as 64 lowercase hex characters.
+     */
+    public static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(normalize(text).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable Aho-Corasick automaton that finds every occurrence of a set of
+ * keywords in one left-to-right pass over the text. Matching is
+ * case-insensitive (characters are folded one at a time, so the text is
+ * never copied), and whole-word keywords only match between non-word
+ * characters, like a regex {@code \b}. Input characters map to columns
+ * through a dense ASCII table; the root state has a dense row, and the
+ * trie edges of all other states are packed into one row-displacement
+ * table (each state's row is overlaid on the others at an offset where its
+ * edges land in free slots), so memory grows with the number of edges
+ * rather than states times alphabet, even for large non-ASCII alphabets.
+ * A character without an edge follows failure links, which costs at most
+ * two lookups per input character on average.
+ * Safe for concurrent use once compiled.
+ */
+public final class ThreatKeywordMatcher {
+
+    private final Keyword[] keywords;
+    // Folded input character -> column; 0 for characters in no keyword
+    private final int[] asciiClasses;
+    private final Map<Character, Integer> otherClasses;
+    // Next state from the root for each column; 0 stays at the root
+    private final int[] rootTransitions;
+    // Edge of state s on column c: targets[base[s] + c] if owners[base[s] + c] == s
+    private final int[] base;
+    private final int[] owners;
+    private final int[] targets;
+    private final int[] failure;
+    // Keywords ending at each state, including those reached through failure links; null if none
+    private final int[][] outputs;
+
+    private ThreatKeywordMatcher(Keyword[] keywords, int[] asciiClasses, Map<Character, Integer> otherClasses,
+                                 int[] rootTransitions, int[] base, int[] owners, int[] targets, int[] failure,
+                                 int[][] outputs) {
+        this.keywords = keywords;
+        this.asciiClasses = asciiClasses;
+        this.otherClasses = otherClasses;
+        this.rootTransitions = rootTransitions;
+        this.base = base;
+        this.owners = owners;
+        this.targets = targets;
+        this.failure = failure;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Build the automaton for a set of keywords. Duplicate terms are kept,
+     * so a term listed twice is reported once per listing.
+     *
+     * @throws IllegalArgumentException if a keyword is empty
+     */
+    public static ThreatKeywordMatcher compile(List<Keyword> keywordList) {
+        Keyword[] keywords = keywordList.toArray(new Keyword[0]);
+
+        // Assign a column to every distinct folded character used by a keyword
+        int[] asciiClasses = new int[128];
+        Map<Character, Integer> otherClasses = new HashMap<>();
+        int alphabetSize = 1;
+        int maxStates = 1;
+        for (Keyword keyword : keywords) {
+            if (keyword.getTerm().isEmpty()) {
+                throw new IllegalArgumentException("Empty keyword in category " + keyword.getCategory());
+            }
+            for (int i = 0; i < keyword.getTerm().length(); i++) {
+                char c = fold(keyword.getTerm().charAt(i));
+                if (c < 128) {
+                    if (asciiClasses[c] == 0) {
+                        asciiClasses[c] = alphabetSize++;
+                    }
+                } else if (!otherClasses.containsKey(c)) {
+                    otherClasses.put(c, alphabetSize++);
+                }
+            }
+            maxStates += keyword.getTerm().length();
+        }
+
+        // Trie of the folded keywords: a dense row for the root, sibling lists for the other states
+        int[] rootTransitions = new int[alphabetSize];
+        int[] firstChild = new int[maxStates];
+        int[] nextSibling = new int[maxStates];
+        int[] edgeClass = new int[maxStates];
+        int[] endStates = new int[keywords.length];
+        int states = 1;
+        for (int k = 0; k < keywords.length; k++) {
+            String term = keywords[k].getTerm();
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                int cls = classOf(fold(term.charAt(i)), asciiClasses, otherClasses);
+                int child = state == 0 ? rootTransitions[cls] : childOf(state, cls, firstChild, nextSibling, edgeClass);
+                if (child == 0) {
+                    child = states++;
+                    edgeClass[child] = cls;
+                    if (state == 0) {
+                        rootTransitions[cls] = child;
+                    } else {
+                        nextSibling[child] = firstChild[state];
+                        firstChild[state] = child;
+                    }
+                }
+                state = child;
+            }
+            endStates[k] = state;
+        }
+
+        // Pack the edges of every state but the root into the row-displacement table
+        int[] base = new int[states];
+        int[] owners = new int[Math.max(64, states * 2)];
+        int[] targets = new int[owners.length];
+        int[] row = new int[alphabetSize];
+        int firstFree = 1;
+        int tableSize = alphabetSize;
+        for (int state = 1; state < states; state++) {
+            int edges = 0;
+            for (int child = firstChild[state]; child != 0; child = nextSibling[child]) {
+                row[edges++] = edgeClass[child];
+            }
+            if (edges == 0) {
+                continue;
+            }
+            Arrays.sort(row, 0, edges);
+            // First offset at which the lowest column lands in a free slot and the others do too
+            int offset;
+            for (int slot = firstFree; ; slot++) {
+                offset = slot - row[0];
+                if (offset < 0) {
+                    continue;
+                }
+                if (offset + row[edges - 1] >= owners.length) {
+                    owners = Arrays.copyOf(owners, Math.max(owners.length * 2, offset + alphabetSize));
+                    targets = Arrays.copyOf(targets, owners.length);
+                }
+                if (fits(owners, offset, row, edges)) {
+                    break;
+                }
+            }
+            base[state] = offset;
+            for (int child = firstChild[state]; child != 0; child = nextSibling[child]) {
+                owners[offset + edgeClass[child]] = state;
+                targets[offset + edgeClass[child]] = child;
+            }
+            tableSize = Math.max(tableSize, offset + alphabetSize);
+            while (firstFree < owners.length && owners[firstFree] != 0) {
+                firstFree++;
+            }
+        }
+        // Every base + column lookup stays inside the table
+        owners = Arrays.copyOf(owners, tableSize);
+        targets = Arrays.copyOf(targets, tableSize);
+
+        // Keywords ending at each state, in listing order
+        int[][] own = new int[states][];
+        int[] ownCount = new int[states];
+        for (int endState : endStates) {
+            ownCount[endState]++;
+        }
+        for (int k = 0; k < keywords.length; k++) {
+            int endState = endStates[k];
+            if (own[endState] == null) {
+                own[endState] = new int[ownCount[endState]];
+                ownCount[endState] = 0;
+            }
+            own[endState][ownCount[endState]++] = k;
+        }
+
+        // Breadth-first: failure links and outputs merged along them
+        int[] failure = new int[states];
+        int[][] outputs = new int[states][];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int cls = 1; cls < alphabetSize; cls++) {
+            if (rootTransitions[cls] != 0) {
+                queue[tail++] = rootTransitions[cls];
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            outputs[state] = merge(own[state], outputs[failure[state]]);
+            for (int child = firstChild[state]; child != 0; child = nextSibling[child]) {
+                failure[child] = next(failure[state], edgeClass[child], rootTransitions, base, owners, targets, failure);
+                queue[tail++] = child;
+            }
+        }
+        return new ThreatKeywordMatcher(keywords, asciiClasses, otherClasses, rootTransitions,
+                                        base, owners, targets, failure, outputs);
+    }
+
+    /**
+     * Report every keyword occurrence to the listener, in order of end offset.
+     * Allocates nothing per character or per match.
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = fold(text.charAt(i));
+            int cls = c < 128 ? asciiClasses[c] : otherClass(c);
+            state = next(state, cls, rootTransitions, base, owners, targets, failure);
+            int[] matched = outputs[state];
+            if (matched == null) {
+                continue;
+            }
+            int end = i + 1;
+            for (int k : matched) {
+                Keyword keyword = keywords[k];
+                int start = end - keyword.getTerm().length();
+                if (!keyword.isWholeWord() || (isBoundary(text, start - 1) && isBoundary(text, end))) {
+                    listener.onMatch(keyword, start, end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Every keyword occurrence with its offsets, in order of end offset.
+     */
+    public List<Match> findAll(CharSequence text) {
+        List<Match> matches = new ArrayList<>();
+        scan(text, (keyword, start, end) -> matches.add(new Match(keyword, start, end)));
+        return matches;
+    }
+
+    public int getKeywordCount() {
+        return keywords.length;
+    }
+
+    /**
+     * Number of automaton states (trie nodes), a measure of its size.
+     */
+    public int getStateCount() {
+        return outputs.length;
+    }
+
+    private int otherClass(char c) {
+        if (otherClasses.isEmpty()) {
+            return 0;
+        }
+        Integer cls = otherClasses.get(c);
+        return cls != null ? cls : 0;
+    }
+
+    // Follow failure links until a state has an edge on the column; the root has one for every column
+    private static int next(int state, int cls, int[] rootTransitions, int[] base, int[] owners, int[] targets,
+                            int[] failure) {
+        if (cls == 0) {
+            return 0;
+        }
+        while (state != 0) {
+            int slot = base[state] + cls;
+            if (owners[slot] == state) {
+                return targets[slot];
+            }
+            state = failure[state];
+        }
+        return rootTransitions[cls];
+    }
+
+    private static int childOf(int state, int cls, int[] firstChild, int[] nextSibling, int[] edgeClass) {
+        for (int child = firstChild[state]; child != 0; child = nextSibling[child]) {
+            if (edgeClass[child] == cls) {
+                return child;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean fits(int[] owners, int offset, int[] row, int edges) {
+        for (int i = 0; i < edges; i++) {
+            if (owners[offset + row[i]] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int classOf(char c, int[] asciiClasses, Map<Character, Integer> otherClasses) {
+        return c < 128 ? asciiClasses[c] : otherClasses.get(c);
+    }
+
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    // Outside the text, or a character that is not part of a word (same word characters as a regex \b)
+    private static boolean isBoundary(CharSequence text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return true;
+        }
+        char c = text.charAt(index);
+        return !(Character.isLetterOrDigit(c) || c == '_');
+    }
+
+    private static int[] merge(int[] own, int[] inherited) {
+        if (own == null || inherited == null) {
+            return own != null ? own : inherited;
+        }
+        int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+        return merged;
+    }
+
+    /**
+     * Callback for {@link #scan}.
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(Keyword keyword, int start, int end);
+    }
+
+    /**
+     * A keyword to match, the category it scores under, its score weight,
+     * and whether it must be a whole word.
+     */
+    public static final class Keyword {
+        private final String term;
+        private final String category;
+        private final int weight;
+        private final boolean wholeWord;
+
+        public Keyword(String term, String category, int weight, boolean wholeWord) {
+            this.term = term;
+            this.category = category;
+            this.weight = weight;
+            this.wholeWord = wholeWord;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public boolean isWholeWord() {
+            return wholeWord;
+        }
+
+        @Override
+        public String toString() {
+            return term + " (" + category + ")";
+        }
+    }
+
+    /**
+     * One keyword occurrence: the matched term and its [start, end) offsets in the text.
+     */
+    public static final class Match {
+        private final Keyword keyword;
+        private final int start;
+        private final int end;
+
+        public Match(Keyword keyword, int start, int end) {
+            this.keyword = keyword;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getTerm() {
+            return keyword.getTerm();
+        }
+
+        public String getCategory() {
+            return keyword.getCategory();
+        }
+
+        public int getWeight() {
+            return keyword.getWeight();
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        Keyword getKeyword() {
+            return keyword;
+        }
+
+        @Override
+        public String toString() {
+            return keyword.getTerm() + "@" + start + "-" + end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Match)) {
+                return false;
+            }
+            Match other = (Match) o;
+            return start == other.start && end == other.end && keyword.getTerm().equals(other.keyword.getTerm())
+                    && keyword.getCategory().equals(other.keyword.getCategory());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(keyword.getTerm(), keyword.getCategory(), start, end);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed threat rule pack: a versioned file of keywords grouped into
+ * scoring categories. The format is line based:
+ * <pre>
+ * # comment
+ * &#64;name default
+ * &#64;version 2026.10.1
+ *
+ * [malware] weight=20 score=category match=word threat=true
+ * ransomware
+ * wiper | 40
+ * </pre>
+ * Headers ({@code @name}, {@code @version}) come before the first
+ * category; {@code @version} is required and {@code @name} defaults to the
+ * file name. Each {@code [category]} line sets the weight of its terms,
+ * whether the category scores once ({@code score=category}) or once per
+ * distinct term ({@code score=term}), whether terms match whole words or
+ * anywhere ({@code match=word|substring}), and whether a match marks the
+ * text as a threat. The lines after it are terms, optionally with their own
+ * weight after a {@code |}.
+ */
+public final class ThreatRulePack {
+
+    private final String name;
+    private final String version;
+    private final String source;
+    private final Map<String, Category> categories;
+    private final List<ThreatKeywordMatcher.Keyword> keywords;
+
+    private ThreatRulePack(String name, String version, String source,
+                           Map<String, Category> categories, List<ThreatKeywordMatcher.Keyword> keywords) {
+        this.name = name;
+        this.version = version;
+        this.source = source;
+        this.categories = Collections.unmodifiableMap(categories);
+        this.keywords = Collections.unmodifiableList(keywords);
+    }
+
+    /**
+     * Parse a rule pack.
+     *
+     * @param source Where the pack was read from, used as the default name and in error messages
+     * @param reader The pack's lines
+     * @throws IllegalArgumentException if a line is malformed, naming the source and line number
+     */
+    public static ThreatRulePack parse(String source, BufferedReader reader) throws IOException {
+        String name = defaultName(source);
+        String version = null;
+        Map<String, Category> categories = new LinkedHashMap<>();
+        List<ThreatKeywordMatcher.Keyword> keywords = new ArrayList<>();
+        Category current = null;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String location = source + ":" + lineNumber + ": ";
+
+            if (line.startsWith("@")) {
+                if (current != null) {
+                    throw new IllegalArgumentException(location + "headers must come before the first category");
+                }
+                String[] header = line.substring(1).split("\\s+", 2);
+                if (header.length < 2) {
+                    throw new IllegalArgumentException(location + "header without a value: " + line);
+                }
+                if (header[0].equals("name")) {
+                    name = header[1];
+                } else if (header[0].equals("version")) {
+                    version = header[1];
+                } else {
+                    throw new IllegalArgumentException(location + "unknown header @" + header[0]);
+                }
+            } else if (line.startsWith("[")) {
+                current = parseCategory(line, location);
+                if (categories.putIfAbsent(current.getName(), current) != null) {
+                    throw new IllegalArgumentException(location + "duplicate category " + current.getName());
+                }
+            } else {
+                if (current == null) {
+                    throw new IllegalArgumentException(location + "term outside a [category]: " + line);
+                }
+                keywords.add(parseTerm(line, current, location));
+            }
+        }
+
+        if (version == null) {
+            throw new IllegalArgumentException(source + ": missing @version header");
+        }
+        return new ThreatRulePack(name, version, source, categories, keywords);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Map<String, Category> getCategories() {
+        return categories;
+    }
+
+    public List<ThreatKeywordMatcher.Keyword> getKeywords() {
+        return keywords;
+    }
+
+    private static Category parseCategory(String line, String location) {
+        int close = line.indexOf(']');
+        if (close < 2) {
+            throw new IllegalArgumentException(location + "malformed category: " + line);
+        }
+        String categoryName = line.substring(1, close).trim();
+        int weight = 10;
+        boolean scoredPerTerm = false;
+        boolean wholeWord = true;
+        boolean threat = true;
+
+        String settings = line.substring(close + 1).trim();
+        for (String setting : settings.isEmpty() ? new String[0] : settings.split("\\s+")) {
+            int equals = setting.indexOf('=');
+            String key = equals > 0 ? setting.substring(0, equals) : setting;
+            String value = equals > 0 ? setting.substring(equals + 1) : "";
+            if (key.equals("weight")) {
+                weight = parseWeight(value, location);
+            } else if (key.equals("score")) {
+                scoredPerTerm = choose(value, "term", "category", setting, location);
+            } else if (key.equals("match")) {
+                wholeWord = choose(value, "word", "substring", setting, location);
+            } else if (key.equals("threat")) {
+                threat = choose(value, "true", "false", setting, location);
+            } else {
+                throw new IllegalArgumentException(location + "unknown category setting " + setting);
+            }
+        }
+        return new Category(categoryName, weight, scoredPerTerm, wholeWord, threat);
+    }
+
+    private static ThreatKeywordMatcher.Keyword parseTerm(String line, Category category, String location) {
+        String term = line;
+        int weight = category.getWeight();
+        int bar = line.lastIndexOf('|');
+        if (bar >= 0) {
+            term = line.substring(0, bar).trim();
+            weight = parseWeight(line.substring(bar + 1).trim(), location);
+        }
+        if (term.isEmpty()) {
+            throw new IllegalArgumentException(location + "empty term");
+        }
+        return new ThreatKeywordMatcher.Keyword(term, category.getName(), weight, category.isWholeWord());
+    }
+
+    private static int parseWeight(String value, String location) {
+        try {
+            int weight = Integer.parseInt(value);
+            if (weight < 0) {
+                throw new IllegalArgumentException(location + "negative weight " + value);
+            }
+            return weight;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(location + "weight is not a number: " + value);
+        }
+    }
+
+    // True for the first option, false for the second
+    private static boolean choose(String value, String whenTrue, String whenFalse, String setting, String location) {
+        if (value.equals(whenTrue)) {
+            return true;
+        }
+        if (value.equals(whenFalse)) {
+            return false;
+        }
+        throw new IllegalArgumentException(location + "expected " + whenTrue + " or " + whenFalse + " in " + setting);
+    }
+
+    private static String defaultName(String source) {
+        String fileName = source.substring(Math.max(source.lastIndexOf('/'), source.lastIndexOf(':')) + 1);
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * How the terms of one category are matched and scored.
+     */
+    public static final class Category {
+        private final String name;
+        private final int weight;
+        private final boolean scoredPerTerm;
+        private final boolean wholeWord;
+        private final boolean threat;
+
+        Category(String name, int weight, boolean scoredPerTerm, boolean wholeWord, boolean threat) {
+            this.name = name;
+            this.weight = weight;
+            this.scoredPerTerm = scoredPerTerm;
+            this.wholeWord = wholeWord;
+            this.threat = threat;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Weight of terms without their own weight.
+         */
+        public int getWeight() {
+            return weight;
+        }
+
+        /**
+         * Whether each distinct term found adds its weight, rather than the
+         * category adding its heaviest found term's weight once.
+         */
+        public boolean isScoredPerTerm() {
+            return scoredPerTerm;
+        }
+
+        public boolean isWholeWord() {
+            return wholeWord;
+        }
+
+        /**
+         * Whether a match marks the text as a threat and is listed in its detected threats.
+         */
+        public boolean isThreat() {
+            return threat;
+        }
+
+        boolean sameSettings(Category other) {
+            return weight == other.weight && scoredPerTerm == other.scoredPerTerm
+                    && wholeWord == other.wholeWord && threat == other.threat;
+        }
+    }
+}
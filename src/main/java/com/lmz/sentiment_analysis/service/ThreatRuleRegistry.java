@@ -0,0 +1,209 @@
+package com.lmz.sentiment_analysis.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the threat rules used by {@link SecurityAnalysisService}, loaded
+ * from the rule pack files in {@code security.rules.locations}. The files
+ * are polled for changes on the scheduler thread; a changed set is parsed
+ * and compiled on the threatRuleCompileExecutor, so a large pack does not
+ * delay the other scheduled flushes, into a new immutable
+ * {@link ThreatRuleSet}, which is then published with a single reference swap. Analyses read the reference
+ * without locking and keep using the rule set they read, so they never
+ * wait for a compile or see a partly built one. If a reload fails, the
+ * previous rules stay active; at startup a broken pack fails the application.
+ */
+@Service
+public class ThreatRuleRegistry implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreatRuleRegistry.class);
+
+    private final ResourceLoader resourceLoader;
+    private final TaskExecutor compileExecutor;
+
+    @Value("${security.rules.locations:classpath:threat-rules/default.rules}")
+    private String[] locations = {"classpath:threat-rules/default.rules"};
+
+    private final AtomicReference<ThreatRuleSet> rules = new AtomicReference<>();
+    // Modification times and sizes of the pack files last loaded (or last failed to load)
+    private String loadedFingerprint;
+    // Set while a reload is submitted or running; polls skip until it has been published
+    private volatile boolean compiling;
+
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+
+    private MeterRegistry meterRegistry;
+    private final List<Meter> versionGauges = new ArrayList<>();
+
+    public ThreatRuleRegistry(ResourceLoader resourceLoader,
+                              @Qualifier("threatRuleCompileExecutor") TaskExecutor compileExecutor) {
+        this.resourceLoader = resourceLoader;
+        this.compileExecutor = compileExecutor;
+    }
+
+    @PostConstruct
+    void init() {
+        loadedFingerprint = fingerprint();
+        try {
+            publish(load());
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not load threat rule packs " + String.join(", ", locations), e);
+        }
+    }
+
+    /**
+     * The current rule set. Read it once per analysis.
+     */
+    public ThreatRuleSet getRules() {
+        return rules.get();
+    }
+
+    /**
+     * Recompile the rule packs on the compile executor if any file changed
+     * since the last load. Returns without waiting for the compile; a change
+     * made while one is running is picked up by the next poll after it.
+     */
+    @Scheduled(fixedDelayString = "${security.rules.reload-interval-ms:30000}",
+               initialDelayString = "${security.rules.reload-interval-ms:30000}")
+    public synchronized void reloadIfChanged() {
+        if (compiling) {
+            return;
+        }
+        String fingerprint = fingerprint();
+        if (fingerprint.equals(loadedFingerprint)) {
+            return;
+        }
+        String previousFingerprint = loadedFingerprint;
+        loadedFingerprint = fingerprint;
+        compiling = true;
+        try {
+            compileExecutor.execute(this::reload);
+        } catch (TaskRejectedException e) {
+            // Shutting down, or the executor is busy: try again on the next poll
+            compiling = false;
+            loadedFingerprint = previousFingerprint;
+            logger.warn("Threat rule reload not started: {}", e.getMessage());
+        }
+    }
+
+    private void reload() {
+        try {
+            publish(load());
+            reloads.increment();
+        } catch (IOException | RuntimeException e) {
+            reloadFailures.increment();
+            logger.error("Threat rule reload failed, keeping rules {}: {}", rules.get(), e.getMessage());
+        } finally {
+            compiling = false;
+        }
+    }
+
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    public long getReloadFailures() {
+        return reloadFailures.sum();
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        FunctionCounter.builder("security.rules.reloads", reloads, LongAdder::sum)
+                .description("Threat rule pack reloads after a file changed")
+                .tag("result", "success")
+                .register(registry);
+        FunctionCounter.builder("security.rules.reloads", reloadFailures, LongAdder::sum)
+                .description("Threat rule pack reloads after a file changed")
+                .tag("result", "failure")
+                .register(registry);
+        TimeGauge.builder("security.rules.compile.time", this, TimeUnit.MILLISECONDS,
+                        r -> r.getRules().getCompileMillis())
+                .description("Time taken to compile the active threat rules")
+                .register(registry);
+        Gauge.builder("security.rules.keywords", this, r -> r.getRules().getMatcher().getKeywordCount())
+                .description("Keywords in the active threat rules")
+                .register(registry);
+        Gauge.builder("security.rules.states", this, r -> r.getRules().getMatcher().getStateCount())
+                .description("States of the active threat rule automaton")
+                .register(registry);
+        registerVersionGauges(rules.get());
+    }
+
+    private ThreatRuleSet load() throws IOException {
+        List<ThreatRulePack> packs = new ArrayList<>();
+        for (String location : locations) {
+            Resource resource = resourceLoader.getResource(location.trim());
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                packs.add(ThreatRulePack.parse(location.trim(), reader));
+            }
+        }
+        return ThreatRuleSet.compile(packs);
+    }
+
+    private synchronized void publish(ThreatRuleSet ruleSet) {
+        rules.set(ruleSet);
+        logger.info("Threat rules {} compiled in {} ms ({} keywords, {} states)", ruleSet,
+                ruleSet.getCompileMillis(), ruleSet.getMatcher().getKeywordCount(), ruleSet.getMatcher().getStateCount());
+        if (meterRegistry != null) {
+            registerVersionGauges(ruleSet);
+        }
+    }
+
+    // One gauge per active pack, tagged with its name and version; replaced when the rules change
+    private void registerVersionGauges(ThreatRuleSet ruleSet) {
+        for (Meter gauge : versionGauges) {
+            meterRegistry.remove(gauge);
+        }
+        versionGauges.clear();
+        for (ThreatRulePack pack : ruleSet.getPacks()) {
+            versionGauges.add(Gauge.builder("security.rules.version", () -> 1)
+                    .description("Active threat rule pack versions")
+                    .tag("pack", pack.getName())
+                    .tag("version", pack.getVersion())
+                    .register(meterRegistry));
+        }
+    }
+
+    private String fingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        for (String location : locations) {
+            Resource resource = resourceLoader.getResource(location.trim());
+            try {
+                fingerprint.append(resource.lastModified()).append(':').append(resource.contentLength());
+            } catch (IOException e) {
+                fingerprint.append("missing");
+            }
+            fingerprint.append(';');
+        }
+        return fingerprint.toString();
+    }
+}
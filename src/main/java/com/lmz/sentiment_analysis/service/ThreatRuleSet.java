@@ -0,0 +1,90 @@
+package com.lmz.sentiment_analysis.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The active threat rules: one or more rule packs compiled together into a
+ * single {@link ThreatKeywordMatcher}, with the scoring settings of every
+ * category. Immutable, so an analysis that reads the current rule set once
+ * sees a consistent matcher and categories even if a reload publishes a
+ * new rule set meanwhile.
+ */
+public final class ThreatRuleSet {
+
+    private final List<ThreatRulePack> packs;
+    private final Map<String, ThreatRulePack.Category> categories;
+    private final ThreatKeywordMatcher matcher;
+    private final long compileMillis;
+
+    private ThreatRuleSet(List<ThreatRulePack> packs, Map<String, ThreatRulePack.Category> categories,
+                          ThreatKeywordMatcher matcher, long compileMillis) {
+        this.packs = Collections.unmodifiableList(packs);
+        this.categories = Collections.unmodifiableMap(categories);
+        this.matcher = matcher;
+        this.compileMillis = compileMillis;
+    }
+
+    /**
+     * Compile rule packs into one matcher. Packs may add terms to the same
+     * category as long as they define it with the same settings.
+     *
+     * @throws IllegalArgumentException if two packs define a category differently
+     */
+    public static ThreatRuleSet compile(List<ThreatRulePack> packs) {
+        long started = System.nanoTime();
+        Map<String, ThreatRulePack.Category> categories = new HashMap<>();
+        List<ThreatKeywordMatcher.Keyword> keywords = new ArrayList<>();
+        for (ThreatRulePack pack : packs) {
+            for (ThreatRulePack.Category category : pack.getCategories().values()) {
+                ThreatRulePack.Category existing = categories.putIfAbsent(category.getName(), category);
+                if (existing != null && !existing.sameSettings(category)) {
+                    throw new IllegalArgumentException(pack.getSource() + ": category " + category.getName()
+                            + " is defined with different settings by another rule pack");
+                }
+            }
+            keywords.addAll(pack.getKeywords());
+        }
+        ThreatKeywordMatcher matcher = ThreatKeywordMatcher.compile(keywords);
+        long compileMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        return new ThreatRuleSet(new ArrayList<>(packs), categories, matcher, compileMillis);
+    }
+
+    public List<ThreatRulePack> getPacks() {
+        return packs;
+    }
+
+    public ThreatKeywordMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Scoring settings of a category, or null if no pack defines it.
+     */
+    public ThreatRulePack.Category getCategory(String name) {
+        return categories.get(name);
+    }
+
+    /**
+     * How long compiling the packs into the matcher took.
+     */
+    public long getCompileMillis() {
+        return compileMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (ThreatRulePack pack : packs) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append(pack.getName()).append('@').append(pack.getVersion());
+        }
+        return description.toString();
+    }
+}
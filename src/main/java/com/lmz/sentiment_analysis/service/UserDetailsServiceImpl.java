@@ -2,6 +2,7 @@ package com.lmz.sentiment_analysis.service;
 
 import com.lmz.sentiment_analysis.model.User;
 import com.lmz.sentiment_analysis.repository.UserRepository;
+import com.lmz.sentiment_analysis.security.CustomUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,7 +17,8 @@ import java.util.stream.Collectors;
 @Service
 //This service implements Spring Security's UserDetailsService to load user-specific data during authentication.
 //It retrieves the User entity from the database by username, converts the user's roles into granted authorities。
-//It returns a UserDetails object that Spring Security uses for authentication and authorization.
+//It returns a CustomUserDetails object that Spring Security uses for authentication and authorization.
+//The principal carries the user id, so request handling never has to look the user up again.
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
@@ -49,8 +51,9 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
         }
 
-        // Create and return a UserDetails object using Spring Security's built-in implementation.
-        return new org.springframework.security.core.userdetails.User(
+        // Create and return a UserDetails object carrying the user id alongside the credentials and roles.
+        return new CustomUserDetails(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
                 authorities
@@ -0,0 +1,111 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import com.lmz.sentiment_analysis.service.CommentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares comment insert throughput before and after the id strategy
+ * change: saveAll into an IDENTITY-mapped copy of the comments table
+ * (IdentityComment, how Comment was mapped before), against
+ * CommentService.saveAll with the pooled sequence, which with
+ * hibernate.jdbc.batch_size sends JDBC insert batches. One row per
+ * transaction (the addComment path) is reported for reference.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@ActiveProfiles("test")
+class CommentInsertThroughputBenchmarkTest {
+
+    private static final int ROWS = 5000;
+    private static final int CHUNK = 500;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private IdentityCommentRepository identityCommentRepository;
+
+    @Test
+    void rowsPerSecond() {
+        // Warm up all paths
+        insertOneByOne(200);
+        insertBatched(200);
+        insertBatchedIdentity(200);
+        commentRepository.deleteAllInBatch();
+        identityCommentRepository.deleteAllInBatch();
+
+        long start = System.nanoTime();
+        insertOneByOne(ROWS);
+        double singleRowsPerSecond = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        insertBatchedIdentity(ROWS);
+        double identityRowsPerSecond = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        insertBatched(ROWS);
+        double pooledRowsPerSecond = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("One row per transaction (pooled ids): %.0f rows/sec%n", singleRowsPerSecond);
+        System.out.printf("saveAll in chunks of %d, IDENTITY ids (before): %.0f rows/sec%n",
+                          CHUNK, identityRowsPerSecond);
+        System.out.printf("saveAll in chunks of %d, pooled ids (after): %.0f rows/sec (%.1fx)%n",
+                          CHUNK, pooledRowsPerSecond, pooledRowsPerSecond / identityRowsPerSecond);
+
+        assertEquals(2L * ROWS, commentRepository.count());
+        assertEquals(ROWS, identityCommentRepository.count());
+    }
+
+    private void insertOneByOne(int rows) {
+        for (int i = 0; i < rows; i++) {
+            commentRepository.save(comment(i));
+        }
+    }
+
+    private void insertBatched(int rows) {
+        for (int offset = 0; offset < rows; offset += CHUNK) {
+            List<Comment> chunk = new ArrayList<>(CHUNK);
+            for (int i = offset; i < Math.min(rows, offset + CHUNK); i++) {
+                chunk.add(comment(i));
+            }
+            commentService.saveAll(chunk);
+        }
+    }
+
+    private void insertBatchedIdentity(int rows) {
+        for (int offset = 0; offset < rows; offset += CHUNK) {
+            List<IdentityComment> chunk = new ArrayList<>(CHUNK);
+            for (int i = offset; i < Math.min(rows, offset + CHUNK); i++) {
+                chunk.add(new IdentityComment("Benchmark comment " + i, SentimentLabel.NEUTRAL, 0.5, "CoreNLP"));
+            }
+            identityCommentRepository.saveAll(chunk);
+        }
+    }
+
+    private Comment comment(int i) {
+        Comment comment = new Comment("Benchmark comment " + i);
+        comment.setSentiment(SentimentLabel.NEUTRAL);
+        comment.setSentimentScore(0.5);
+        comment.setSentimentSource("CoreNLP");
+        return comment;
+    }
+}
@@ -0,0 +1,7 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+//Benchmark-only repository for IdentityComment, so its inserts go through the same saveAll as comments.
+interface IdentityCommentRepository extends JpaRepository<IdentityComment, Long> {
+}
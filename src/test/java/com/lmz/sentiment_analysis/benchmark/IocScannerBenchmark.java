@@ -0,0 +1,93 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import com.lmz.sentiment_analysis.service.IocScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JMH throughput of IocScanner on 1 KB, 100 KB and 10 MB threat reports,
+ * against one regex per indicator type run over the same text. Scores are
+ * reports per second; IocScannerBenchmarkTest converts them to MB/s (the
+ * text is ASCII, so one character is one byte).
+ * Run through IocScannerBenchmarkTest with: mvn test -Pbenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IocScannerBenchmark {
+
+    private static final List<Pattern> REGEXES = List.of(
+        Pattern.compile("https?://[^\\s\"'<>]+|ftp://[^\\s\"'<>]+", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("\\b(?:(?:25[0-5]|2[0-4]\\d|1?\\d?\\d)\\.){3}(?:25[0-5]|2[0-4]\\d|1?\\d?\\d)\\b"),
+        Pattern.compile("\\b(?:[0-9a-f]{1,4}:){2,7}[0-9a-f]{1,4}\\b|::[0-9a-f]{1,4}\\b", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("\\b(?:[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?\\.)+[a-z]{2,63}\\b", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("\\b(?:[0-9a-f]{64}|[0-9a-f]{40}|[0-9a-f]{32})\\b", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("\\bCVE-\\d{4}-\\d{4,7}\\b", Pattern.CASE_INSENSITIVE)
+    );
+
+    // Mostly prose, with an indicator in about every other sentence, like a real report
+    private static final String[] SENTENCES = {
+        "The incident response team reviewed the firewall logs from the weekend. ",
+        "Host 10.20.30.40 contacted update-check.net over port 443 several times. ",
+        "The dropper was fetched from https://cdn.update-check.net/gate.php?id=7 at 02:14. ",
+        "No customer records appear to have left the network at this time. ",
+        "Its SHA-256 is e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855 per the sandbox. ",
+        "The vendor has released a patch for CVE-2024-3094 and recommends deployment. ",
+        "A second beacon used 2001:db8::8a2e:370:7334 before the host was isolated. ",
+        "Analysts will share a full timeline with the affected business units. "
+    };
+
+    @Param({"1024", "102400", "10485760"})
+    public int size;
+
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder report = new StringBuilder(size + 128);
+        for (int i = 0; report.length() < size; i++) {
+            report.append(SENTENCES[i % SENTENCES.length]);
+        }
+        report.setLength(size);
+        text = report.toString();
+    }
+
+    @Benchmark
+    public void scannerScan(Blackhole blackhole) {
+        IocScanner.scan(text, (type, start, end) -> blackhole.consume(start));
+    }
+
+    @Benchmark
+    public void scannerFindAll(Blackhole blackhole) {
+        blackhole.consume(IocScanner.findAll(text));
+    }
+
+    @Benchmark
+    public void regexPerType(Blackhole blackhole) {
+        for (Pattern pattern : REGEXES) {
+            Matcher matcher = pattern.matcher(text);
+            while (matcher.find()) {
+                blackhole.consume(matcher.start());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the IocScannerBenchmark JMH benchmarks and prints their throughput
+ * in MB/s. scannerScan must reach at least 200 MB/s on one core at every size.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class IocScannerBenchmarkTest {
+
+    private static final double MIN_SCAN_MB_PER_SECOND = 200;
+
+    @Test
+    void scannerVersusRegexes() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IocScannerBenchmark.class.getSimpleName())
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertFalse(results.isEmpty());
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            int size = Integer.parseInt(result.getParams().getParam("size"));
+            double megabytesPerSecond = result.getPrimaryResult().getScore() * size / 1_000_000;
+            System.out.printf("%s size=%d: %.1f MB/s%n", benchmark, size, megabytesPerSecond);
+            if (benchmark.endsWith(".scannerScan")) {
+                assertTrue(megabytesPerSecond >= MIN_SCAN_MB_PER_SECOND,
+                        "scannerScan size=" + size + " ran at " + megabytesPerSecond + " MB/s");
+            }
+        }
+    }
+}
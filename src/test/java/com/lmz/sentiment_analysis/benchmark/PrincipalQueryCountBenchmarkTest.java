@@ -0,0 +1,118 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.model.User;
+import com.lmz.sentiment_analysis.repository.UserRepository;
+import com.lmz.sentiment_analysis.security.CustomUserDetails;
+import com.lmz.sentiment_analysis.service.CommentService;
+import com.lmz.sentiment_analysis.service.HybridNLPProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the SQL statements issued per comment request, comparing a
+ * principal that carries the user id (CustomUserDetails) with a plain
+ * Spring Security User. Neither queries the users table: the id comes
+ * from the principal, and a plain User has none, so its comments are
+ * saved without an owner.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.lmz.sentiment_analysis.benchmark.QueryCountingInspector")
+@ActiveProfiles("test")
+class PrincipalQueryCountBenchmarkTest {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private HybridNLPProcessor hybridNLPProcessor;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        when(hybridNLPProcessor.analyzeSentiment(anyString()))
+            .thenReturn(new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP"));
+        user = userRepository.findByUsername("benchmark-user").orElseGet(() -> {
+            User created = new User();
+            created.setUsername("benchmark-user");
+            created.setPassword("n/a");
+            return userRepository.save(created);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userLookupsPerRequest() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+        UserDetails plainPrincipal = new org.springframework.security.core.userdetails.User(
+            user.getUsername(), "n/a", authorities);
+        Counts before = run(plainPrincipal);
+
+        UserDetails idPrincipal = new CustomUserDetails(user.getId(), user.getUsername(), "n/a", authorities);
+        Counts after = run(idPrincipal);
+
+        System.out.printf("Plain principal: %.2f statements/request, %.2f user queries/request%n",
+                          before.statementsPerRequest(), before.userQueriesPerRequest());
+        System.out.printf("Id-carrying principal: %.2f statements/request, %.2f user queries/request%n",
+                          after.statementsPerRequest(), after.userQueriesPerRequest());
+
+        assertEquals(0.0, before.userQueriesPerRequest());
+        assertNull(before.lastUserId());
+        assertEquals(0.0, after.userQueriesPerRequest());
+        assertEquals(user.getId(), after.lastUserId());
+    }
+
+    private Counts run(UserDetails principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        QueryCountingInspector.reset();
+        Comment last = null;
+        for (int i = 0; i < REQUESTS; i++) {
+            last = commentService.addComment("Benchmark comment " + i);
+        }
+        return new Counts(QueryCountingInspector.getStatements(), QueryCountingInspector.getUserQueries(),
+                          last.getUserId());
+    }
+
+    private record Counts(long statements, long userQueries, Long lastUserId) {
+        double statementsPerRequest() {
+            return (double) statements / REQUESTS;
+        }
+
+        double userQueriesPerRequest() {
+            return (double) userQueries / REQUESTS;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate StatementInspector that counts every SQL statement and the
+ * ones that read the users table. Registered through
+ * hibernate.session_factory.statement_inspector in benchmark tests.
+ */
+public class QueryCountingInspector implements StatementInspector {
+
+    private static final Pattern USERS_TABLE = Pattern.compile("\\bfrom users\\b");
+
+    private static final AtomicLong statements = new AtomicLong();
+    private static final AtomicLong userQueries = new AtomicLong();
+
+    @Override
+    public String inspect(String sql) {
+        statements.incrementAndGet();
+        if (USERS_TABLE.matcher(sql.toLowerCase(Locale.ROOT)).find()) {
+            userQueries.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        statements.set(0);
+        userQueries.set(0);
+    }
+
+    public static long getStatements() {
+        return statements.get();
+    }
+
+    public static long getUserQueries() {
+        return userQueries.get();
+    }
+}
@@ -0,0 +1,120 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import com.lmz.sentiment_analysis.service.ThreatKeywordMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * JMH comparison of the threat keyword scan in SecurityAnalysisService:
+ * the earlier four word-boundary regexes plus nine contains() calls on a
+ * lower-cased copy, against one pass of the compiled ThreatKeywordMatcher.
+ * Inputs are report-like text of 1 KB, 100 KB and 10 MB.
+ * Run through ThreatMatcherBenchmarkTest with: mvn test -Pbenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreatMatcherBenchmark {
+
+    private static final List<Pattern> MALICIOUS_PATTERNS = Arrays.asList(
+        Pattern.compile("\\b(exploit|vulnerability|malware|ransomware|phishing)\\b", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("\\b(hack|breach|attack|threat|trojan)\\b", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("\\b(injection|xss|csrf|backdoor|payload)\\b", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("\\b(ddos|botnet|keylogger|spyware|rootkit)\\b", Pattern.CASE_INSENSITIVE)
+    );
+
+    private static final List<String> CRITICAL_KEYWORDS = Arrays.asList(
+        "critical", "severe", "urgent", "immediate", "emergency",
+        "zero-day", "patch", "update", "mitigation"
+    );
+
+    // Mostly benign prose with an indicator every few sentences, like a real report
+    private static final String[] SENTENCES = {
+        "The incident response team reviewed the firewall logs from the weekend. ",
+        "Several hosts in the finance segment contacted an unfamiliar address. ",
+        "Analysts confirmed a phishing email delivered the initial payload. ",
+        "No customer records appear to have left the network at this time. ",
+        "The vendor has released a patch and recommends immediate deployment. ",
+        "Traffic volumes returned to normal after the upstream provider intervened. ",
+        "A scheduled maintenance window is planned for Thursday evening. ",
+        "Evidence of a rootkit was found on one build server and it was reimaged. "
+    };
+
+    @Param({"1024", "102400", "10485760"})
+    public int size;
+
+    private String text;
+    private ThreatKeywordMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder report = new StringBuilder(size + 128);
+        for (int i = 0; report.length() < size; i++) {
+            report.append(SENTENCES[i % SENTENCES.length]);
+        }
+        report.setLength(size);
+        text = report.toString();
+
+        List<ThreatKeywordMatcher.Keyword> keywords = new ArrayList<>();
+        String[] categories = {"malware", "intrusion", "web-attack", "botnet"};
+        for (int group = 0; group < MALICIOUS_PATTERNS.size(); group++) {
+            String alternatives = MALICIOUS_PATTERNS.get(group).pattern();
+            alternatives = alternatives.substring(alternatives.indexOf('(') + 1, alternatives.indexOf(')'));
+            for (String term : alternatives.split("\\|")) {
+                keywords.add(new ThreatKeywordMatcher.Keyword(term, categories[group], 20, true));
+            }
+        }
+        for (String term : CRITICAL_KEYWORDS) {
+            keywords.add(new ThreatKeywordMatcher.Keyword(term, "critical", 10, false));
+        }
+        matcher = ThreatKeywordMatcher.compile(keywords);
+    }
+
+    @Benchmark
+    public void regexAndContains(Blackhole blackhole) {
+        int score = 0;
+        for (Pattern pattern : MALICIOUS_PATTERNS) {
+            if (pattern.matcher(text).find()) {
+                score += 20;
+                blackhole.consume(pattern.pattern());
+            }
+        }
+        String lowerText = text.toLowerCase();
+        for (String keyword : CRITICAL_KEYWORDS) {
+            if (lowerText.contains(keyword)) {
+                score += 10;
+            }
+        }
+        blackhole.consume(score);
+    }
+
+    @Benchmark
+    public void automatonAllMatches(Blackhole blackhole) {
+        blackhole.consume(matcher.findAll(text));
+    }
+
+    @Benchmark
+    public void automatonScan(Blackhole blackhole) {
+        matcher.scan(text, (keyword, start, end) -> blackhole.consume(start));
+    }
+}
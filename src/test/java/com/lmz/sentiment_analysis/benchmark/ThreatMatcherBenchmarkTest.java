@@ -0,0 +1,32 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the ThreatMatcherBenchmark JMH benchmarks and prints their scores.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ThreatMatcherBenchmarkTest {
+
+    @Test
+    void regexVersusAutomaton() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ThreatMatcherBenchmark.class.getSimpleName())
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertFalse(results.isEmpty());
+    }
+}
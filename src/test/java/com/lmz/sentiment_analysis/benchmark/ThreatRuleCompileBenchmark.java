@@ -0,0 +1,63 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import com.lmz.sentiment_analysis.service.ThreatKeywordMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH compile time of a ThreatKeywordMatcher for a 50,000-term rule pack,
+ * all Latin or half Cyrillic (a wider alphabet). Scores are milliseconds
+ * per compile, the time a rule reload spends before it can publish.
+ * Run through ThreatRuleCompileBenchmarkTest with: mvn test -Pbenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class ThreatRuleCompileBenchmark {
+
+    private static final String LATIN = "abcdefghijklmnopqrstuvwxyz0123456789-.";
+    private static final String CYRILLIC = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+
+    @Param({"latin", "cyrillic"})
+    public String alphabet;
+
+    private List<ThreatKeywordMatcher.Keyword> keywords;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Indicator-like terms of 6 to 19 characters
+        Random random = new Random(7);
+        keywords = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            String letters = alphabet.equals("cyrillic") && i % 2 == 1 ? CYRILLIC : LATIN;
+            StringBuilder term = new StringBuilder();
+            for (int length = 6 + random.nextInt(14); term.length() < length; ) {
+                term.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            keywords.add(new ThreatKeywordMatcher.Keyword(term.toString(), "intel", 20, true));
+        }
+    }
+
+    @Benchmark
+    public ThreatKeywordMatcher compile() {
+        return ThreatKeywordMatcher.compile(keywords);
+    }
+}
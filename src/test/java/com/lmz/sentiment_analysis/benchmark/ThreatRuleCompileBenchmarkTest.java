@@ -0,0 +1,39 @@
+package com.lmz.sentiment_analysis.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the ThreatRuleCompileBenchmark JMH benchmarks and prints their scores.
+ * A 50,000-term pack must compile in under a second in a 512 MB heap.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ThreatRuleCompileBenchmarkTest {
+
+    @Test
+    void fiftyThousandTermPack() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ThreatRuleCompileBenchmark.class.getSimpleName())
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertFalse(results.isEmpty());
+        for (RunResult result : results) {
+            double millis = result.getPrimaryResult().getScore();
+            System.out.printf("compile alphabet=%s: %.1f ms%n", result.getParams().getParam("alphabet"), millis);
+            assertTrue(millis < 1000, "50,000-term compile took " + millis + " ms");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.lmz.sentiment_analysis.config;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SentimentRollupBackfillMigration.
+ * Runs the migration against an in-memory H2 database holding only the two tables it reads and writes.
+ */
+class SentimentRollupBackfillMigrationTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 1, 31, 12, 0);
+    private static final LocalDateTime CUTOFF = NOON.plusDays(1).plusMinutes(30);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:rollupbackfill;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE comments (id BIGINT PRIMARY KEY, created_at TIMESTAMP, " +
+                             "sentiment_code TINYINT, sentiment_score DOUBLE)");
+        jdbcTemplate.execute("CREATE TABLE sentiment_rollups (granularity VARCHAR(8), bucket_start TIMESTAMP, " +
+                             "sentiment VARCHAR(64), comment_count BIGINT NOT NULL, score_sum DOUBLE NOT NULL, " +
+                             "PRIMARY KEY (granularity, bucket_start, sentiment))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    void testMigrate_RebuildsPastDaysAndAddsToTheCutoffDay() {
+        // Given
+        comment(1, NOON, SentimentLabel.POSITIVE, 0.85);
+        comment(2, NOON.plusMinutes(1), SentimentLabel.POSITIVE, 0.85);
+        comment(3, NOON.plusDays(1), SentimentLabel.NEGATIVE, 0.30);
+        // Saved after the cutoff, so recorded by the trend service, not the migration
+        comment(4, CUTOFF.plusMinutes(1), SentimentLabel.NEGATIVE, 0.30);
+        // A stale row in a past day and a live write to the cutoff's hour
+        rollup("DAY", NOON.toLocalDate().atStartOfDay(), "Positive", 9, 9.0);
+        rollup("HOUR", NOON.plusDays(1), "Negative", 1, 0.30);
+
+        // When
+        new SentimentRollupBackfillMigration(() -> CUTOFF).migrate(jdbcTemplate);
+
+        // Then
+        assertEquals(Map.of("comment_count", 2L, "score_sum", 1.7),
+                     bucket("DAY", NOON.toLocalDate().atStartOfDay(), "Positive"));
+        assertEquals(Map.of("comment_count", 1L, "score_sum", 0.85), bucket("MINUTE", NOON.plusMinutes(1), "Positive"));
+        assertEquals(Map.of("comment_count", 2L, "score_sum", 0.6), bucket("HOUR", NOON.plusDays(1), "Negative"));
+        assertEquals(Map.of("comment_count", 1L, "score_sum", 0.30),
+                     bucket("DAY", NOON.plusDays(1).toLocalDate().atStartOfDay(), "Negative"));
+    }
+
+    @Test
+    void testMigrate_RerunDoesNotDoublePastDays() {
+        // Given
+        comment(1, NOON, SentimentLabel.POSITIVE, 0.85);
+        SentimentRollupBackfillMigration migration = new SentimentRollupBackfillMigration(() -> CUTOFF);
+        migration.migrate(jdbcTemplate);
+
+        // When
+        migration.migrate(jdbcTemplate);
+
+        // Then
+        assertEquals(Map.of("comment_count", 1L, "score_sum", 0.85), bucket("HOUR", NOON, "Positive"));
+    }
+
+    private void comment(long id, LocalDateTime createdAt, SentimentLabel sentiment, double score) {
+        jdbcTemplate.update("INSERT INTO comments (id, created_at, sentiment_code, sentiment_score) VALUES (?, ?, ?, ?)",
+                            id, createdAt, sentiment.getCode(), score);
+    }
+
+    private void rollup(String granularity, LocalDateTime bucketStart, String sentiment, long count, double scoreSum) {
+        jdbcTemplate.update("INSERT INTO sentiment_rollups VALUES (?, ?, ?, ?, ?)",
+                            granularity, bucketStart, sentiment, count, scoreSum);
+    }
+
+    private Map<String, Object> bucket(String granularity, LocalDateTime bucketStart, String sentiment) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT comment_count, score_sum FROM sentiment_rollups " +
+                "WHERE granularity = ? AND bucket_start = ? AND sentiment = ?", granularity, bucketStart, sentiment);
+        double scoreSum = Math.round(((Number) row.get("SCORE_SUM")).doubleValue() * 1e6) / 1e6;
+        return Map.of("comment_count", ((Number) row.get("COMMENT_COUNT")).longValue(), "score_sum", scoreSum);
+    }
+}
@@ -0,0 +1,195 @@
+package com.lmz.sentiment_analysis.repository;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.model.SentimentRollup;
+import com.lmz.sentiment_analysis.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Seeds comments, rollups and users, runs each lookup and paging query
+ * through its repository, and asks H2 to EXPLAIN the SQL Hibernate issued.
+ * A plan containing a table scan fails the test, so a query rewrite or a
+ * dropped index that loses the index access path is caught here.
+ * Whole-table reads (findPage's first page, countBySentiment and the
+ * export stream) are left out on purpose.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.lmz.sentiment_analysis.repository.SqlCapturingInspector")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CommentRepositoryQueryPlanTest {
+
+    private static final int USERS = 50;
+    private static final int COMMENTS = 2000;
+    private static final Pageable PAGE = PageRequest.of(0, 21);
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private SentimentRollupRepository sentimentRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Comment cursor;
+
+    @BeforeAll
+    void seed() {
+        List<Comment> comments = new ArrayList<>(COMMENTS);
+        for (int i = 0; i < COMMENTS; i++) {
+            Comment comment = new Comment("Plan comment " + i);
+            comment.setUserId((long) (i % USERS) + 1);
+            comment.setCreatedAt(START.plusMinutes(i));
+            comment.setSentiment(SentimentLabel.fromCode(i % 5));
+            comment.setSentimentScore(comment.getSentiment().getScore());
+            comments.add(comment);
+        }
+        comments = commentRepository.saveAll(comments);
+        cursor = comments.get(COMMENTS * 3 / 4);
+
+        List<SentimentRollup> rollups = new ArrayList<>();
+        for (int hour = 0; hour < COMMENTS / 60; hour++) {
+            for (SentimentRollup.Granularity granularity : SentimentRollup.Granularity.values()) {
+                rollups.add(new SentimentRollup(granularity, START.plusHours(hour), SentimentLabel.POSITIVE.getLabel(), 12, 10.2));
+            }
+        }
+        sentimentRollupRepository.saveAll(rollups);
+
+        if (userRepository.findByUsername("plan-user-1").isEmpty()) {
+            for (int i = 1; i <= USERS; i++) {
+                User user = new User();
+                user.setUsername("plan-user-" + i);
+                user.setPassword("n/a");
+                userRepository.save(user);
+            }
+        }
+
+        // Refresh the optimizer's row counts and selectivity
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        commentRepository.deleteAllInBatch();
+        sentimentRollupRepository.deleteAllInBatch();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SqlCapturingInspector.reset();
+    }
+
+    @Test
+    void testFindPageByUserId_UsesUserIndex() {
+        // When
+        commentRepository.findPageByUserId(7L, PAGE);
+
+        // Then
+        assertIndexed(7L);
+    }
+
+    @Test
+    void testFindPageByUserIdAfter_UsesUserIndex() {
+        // When
+        commentRepository.findPageByUserIdAfter(cursor.getUserId(), cursor.getCreatedAt(), cursor.getId(), PAGE);
+
+        // Then
+        Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+        assertIndexed(cursor.getUserId(), createdAt, createdAt, cursor.getId());
+    }
+
+    @Test
+    void testFindPageAfter_UsesCreatedAtIndex() {
+        // When
+        commentRepository.findPageAfter(cursor.getCreatedAt(), cursor.getId(), PAGE);
+
+        // Then
+        Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+        assertIndexed(createdAt, createdAt, cursor.getId());
+    }
+
+    @Test
+    void testFindByContentHash_UsesContentHashIndex() {
+        // When
+        commentRepository.findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc("0".repeat(64), "v1");
+
+        // Then
+        assertIndexed("0".repeat(64), "v1");
+    }
+
+    @Test
+    void testRollupFindRange_UsesGranularityBucketIndex() {
+        // Given
+        LocalDateTime from = START.plusHours(5);
+        LocalDateTime to = from.plus(3, ChronoUnit.HOURS);
+
+        // When
+        sentimentRollupRepository.findRange(SentimentRollup.Granularity.HOUR, from, to);
+
+        // Then
+        assertIndexed(SentimentRollup.Granularity.HOUR.name(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    @Test
+    void testUserFindByUsername_UsesUniqueIndex() {
+        // When
+        userRepository.findByUsername("plan-user-7");
+
+        // Then
+        assertIndexed("plan-user-7");
+    }
+
+    @Test
+    void testSchemaMigrations_AreRecordedInOrder() {
+        // When
+        List<Integer> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM schema_migrations ORDER BY version", Integer.class);
+
+        // Then
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), versions);
+    }
+
+    // EXPLAINs the last SELECT with the given values bound in SQL order; parameters
+    // left over after them (the page size and offset) are bound to the page size.
+    private void assertIndexed(Object... args) {
+        String sql = SqlCapturingInspector.getLastSelect();
+        assertNotNull(sql, "No SELECT was captured");
+
+        String plan = jdbcTemplate.query("EXPLAIN " + sql, statement -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, i <= args.length ? args[i - 1] : PAGE.getPageSize());
+            }
+        }, resultSet -> resultSet.next() ? resultSet.getString(1) : null);
+
+        assertNotNull(plan);
+        assertFalse(plan.contains("tableScan"), () -> "Full table scan for:\n" + sql + "\nPlan:\n" + plan);
+    }
+}
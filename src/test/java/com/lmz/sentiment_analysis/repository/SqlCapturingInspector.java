@@ -0,0 +1,31 @@
+package com.lmz.sentiment_analysis.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+
+/**
+ * Hibernate StatementInspector that remembers the last SELECT it saw, so
+ * a test can run a repository method and then EXPLAIN the SQL it issued.
+ * Registered through hibernate.session_factory.statement_inspector.
+ */
+public class SqlCapturingInspector implements StatementInspector {
+
+    private static volatile String lastSelect;
+
+    @Override
+    public String inspect(String sql) {
+        if (sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+            lastSelect = sql;
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        lastSelect = null;
+    }
+
+    public static String getLastSelect() {
+        return lastSelect;
+    }
+}
@@ -0,0 +1,150 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BulkIngestionService.
+ * Tests chunked analysis, batched saves and the per-record error file.
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkIngestionServiceTest {
+
+    @Mock
+    private HybridNLPProcessor hybridNLPProcessor;
+
+    @Mock
+    private CommentService commentService;
+
+    @Mock
+    private SentimentCounterService sentimentCounterService;
+
+    @Mock
+    private SentimentTrendService sentimentTrendService;
+
+    @Mock
+    private CommentListCache commentListCache;
+
+    @TempDir
+    Path errorDir;
+
+    private BulkIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkIngestionService(hybridNLPProcessor, commentService, sentimentCounterService,
+                                           sentimentTrendService, commentListCache, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "errorDir", errorDir.toString());
+        lenient().when(hybridNLPProcessor.analyzeSentimentBatch(anyList())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            List<HybridNLPProcessor.SentimentResult> results = new ArrayList<>();
+            for (int i = 0; i < texts.size(); i++) {
+                results.add(new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP"));
+            }
+            return results;
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngest_AnalyzesAndInsertsInChunks() throws Exception {
+        // Given
+        String ndjson = "{\"content\":\"one\"}\n{\"content\":\"two\"}\n{\"content\":\"three\"}\n";
+
+        // When
+        BulkIngestionJob job = service.ingest(stream(ndjson), BulkRecordReader.Format.NDJSON, 7L);
+
+        // Then
+        assertEquals(BulkIngestionJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRecordsRead());
+        assertEquals(3, job.getRecordsStored());
+        assertFalse(job.isHasErrors());
+        ArgumentCaptor<List<Comment>> saved = ArgumentCaptor.forClass(List.class);
+        verify(commentService, times(2)).saveAll(saved.capture());
+        assertEquals(2, saved.getAllValues().get(0).size());
+        assertEquals(1, saved.getAllValues().get(1).size());
+        Comment first = saved.getAllValues().get(0).get(0);
+        assertEquals("one", first.getContent());
+        assertEquals(SentimentLabel.POSITIVE, first.getSentiment());
+        assertEquals("😊", first.getEmoji());
+        assertEquals("CoreNLP", first.getSentimentSource());
+        assertEquals(7L, first.getUserId());
+        verify(hybridNLPProcessor, times(2)).analyzeSentimentBatch(anyList());
+        verify(sentimentCounterService, times(3)).increment(SentimentLabel.POSITIVE);
+        verify(sentimentTrendService, times(3)).record(any(Comment.class));
+        verify(commentListCache).evictForUser(7L);
+    }
+
+    @Test
+    void testIngest_InvalidRecordsGoToErrorFile() throws Exception {
+        // Given
+        String csv = "content,createdAt\nfine,\n\"   \",\nalso fine,yesterday\n" + "y".repeat(300) + ",\n";
+
+        // When
+        BulkIngestionJob job = service.ingest(stream(csv), BulkRecordReader.Format.CSV, null);
+
+        // Then
+        assertEquals(4, job.getRecordsRead());
+        assertEquals(1, job.getRecordsStored());
+        assertEquals(3, job.getRecordsFailed());
+        assertTrue(job.isHasErrors());
+        List<String> lines = Files.readAllLines(job.getErrorFile());
+        assertEquals("record,error", lines.get(0));
+        assertEquals("2,\"Comment cannot be blank\"", lines.get(1));
+        assertEquals("3,\"Invalid createdAt: yesterday\"", lines.get(2));
+        assertTrue(lines.get(3).startsWith("4,\"Comment exceeds"));
+    }
+
+    @Test
+    void testIngest_FailedBatchIsRetriedRowByRow() throws Exception {
+        // Given
+        when(commentService.saveAll(anyList()))
+            .thenThrow(new DataIntegrityViolationException("batch"))
+            .thenAnswer(invocation -> invocation.getArgument(0))
+            .thenThrow(new DataIntegrityViolationException("bad row"));
+
+        // When
+        BulkIngestionJob job = service.ingest(stream("content\ngood\nbad\n"), BulkRecordReader.Format.CSV, null);
+
+        // Then
+        assertEquals(1, job.getRecordsStored());
+        assertEquals(1, job.getRecordsFailed());
+        List<String> lines = Files.readAllLines(job.getErrorFile());
+        assertEquals("2,\"Insert failed: bad row\"", lines.get(1));
+        verify(sentimentCounterService, times(1)).increment(SentimentLabel.POSITIVE);
+    }
+
+    @Test
+    void testGetJob_ReturnsFinishedJob() throws Exception {
+        BulkIngestionJob job = service.ingest(stream("content\nhello\n"), BulkRecordReader.Format.CSV, null);
+
+        assertSame(job, service.getJob(job.getId()));
+        assertEquals(1, service.getJobs().size());
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package com.lmz.sentiment_analysis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BulkRecordReader.
+ * Tests CSV quoting and header detection, and NDJSON per-line errors.
+ */
+class BulkRecordReaderTest {
+
+    @Test
+    void testCsv_HeaderWithQuotedFieldsAndLineBreaks() throws IOException {
+        // Given
+        String csv = "id,content,created_at\r\n"
+            + "1,\"Great, really great\",2024-01-02T10:00:00\r\n"
+            + "2,\"She said \"\"meh\"\"\nand left\",\n";
+
+        // When
+        List<BulkRecordReader.BulkRecord> records = readAll(BulkRecordReader.Format.CSV, csv);
+
+        // Then
+        assertEquals(2, records.size());
+        assertEquals("Great, really great", records.get(0).getContent());
+        assertEquals("2024-01-02T10:00:00", records.get(0).getCreatedAt());
+        assertEquals("She said \"meh\"\nand left", records.get(1).getContent());
+        assertEquals("", records.get(1).getCreatedAt());
+        assertEquals(2, records.get(1).getNumber());
+    }
+
+    @Test
+    void testCsv_WithoutHeaderUsesFirstColumn() throws IOException {
+        // When
+        List<BulkRecordReader.BulkRecord> records =
+            readAll(BulkRecordReader.Format.CSV, "I love it\n\nNot for me,extra\n");
+
+        // Then - the blank line is skipped
+        assertEquals(2, records.size());
+        assertEquals("I love it", records.get(0).getContent());
+        assertEquals("Not for me", records.get(1).getContent());
+    }
+
+    @Test
+    void testCsv_OversizedRecordIsRejectedWithoutBuffering() throws IOException {
+        // Given
+        String huge = "x".repeat(BulkRecordReader.MAX_RECORD_CHARS + 10);
+
+        // When
+        List<BulkRecordReader.BulkRecord> records =
+            readAll(BulkRecordReader.Format.CSV, "content\n" + huge + "\nok\n");
+
+        // Then
+        assertEquals(2, records.size());
+        assertNotNull(records.get(0).getError());
+        assertNull(records.get(0).getContent());
+        assertEquals("ok", records.get(1).getContent());
+    }
+
+    @Test
+    void testNdjson_OversizedLineIsRejectedWithoutBuffering() throws IOException {
+        // Given - a line far longer than the limit, then a normal record after a CRLF break
+        String huge = "{\"content\":\"" + "x".repeat(BulkRecordReader.MAX_RECORD_CHARS * 4) + "\"}";
+
+        // When
+        List<BulkRecordReader.BulkRecord> records =
+            readAll(BulkRecordReader.Format.NDJSON, huge + "\r\n{\"content\":\"ok\"}\n");
+
+        // Then
+        assertEquals(2, records.size());
+        assertNotNull(records.get(0).getError());
+        assertNull(records.get(0).getContent());
+        assertEquals("ok", records.get(1).getContent());
+        assertEquals(2, records.get(1).getNumber());
+    }
+
+    @Test
+    void testNdjson_InvalidLinesBecomeRecordErrors() throws IOException {
+        // Given
+        String ndjson = "{\"content\":\"Lovely\",\"createdAt\":\"2024-03-01T08:00:00Z\"}\n"
+            + "not json\n"
+            + "\n"
+            + "{\"text\":\"wrong field\"}\n"
+            + "{\"content\":\"Awful\"}\n";
+
+        // When
+        List<BulkRecordReader.BulkRecord> records = readAll(BulkRecordReader.Format.NDJSON, ndjson);
+
+        // Then
+        assertEquals(4, records.size());
+        assertEquals("Lovely", records.get(0).getContent());
+        assertEquals("2024-03-01T08:00:00Z", records.get(0).getCreatedAt());
+        assertTrue(records.get(1).getError().startsWith("Invalid JSON"));
+        assertEquals("Missing content field", records.get(2).getError());
+        assertEquals("Awful", records.get(3).getContent());
+        assertEquals(4, records.get(3).getNumber());
+    }
+
+    private List<BulkRecordReader.BulkRecord> readAll(BulkRecordReader.Format format, String body) throws IOException {
+        List<BulkRecordReader.BulkRecord> records = new ArrayList<>();
+        try (BulkRecordReader reader = BulkRecordReader.forFormat(format, new StringReader(body))) {
+            BulkRecordReader.BulkRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
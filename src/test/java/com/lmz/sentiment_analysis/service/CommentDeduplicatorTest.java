@@ -0,0 +1,152 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CommentDeduplicator.
+ * Tests reuse of stored analyses by content hash and engine version, and the saved-work counters.
+ */
+@ExtendWith(MockitoExtension.class)
+class CommentDeduplicatorTest {
+
+    private static final String HASH = TextFingerprint.hash("Buy cheap followers now!");
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private SentimentResultCache resultCache;
+
+    private CommentDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(resultCache.getVersion()).thenReturn("engine-1+model-1");
+        deduplicator = new CommentDeduplicator(commentRepository, resultCache);
+    }
+
+    @Test
+    void testFindReusable_ReturnsStoredAnalysis() {
+        // Given
+        Comment previous = stored(SentimentLabel.NEGATIVE, 0.91, "CoreNLP");
+        when(commentRepository.findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc(HASH, "engine-1+model-1"))
+            .thenReturn(Optional.of(previous));
+
+        // When
+        HybridNLPProcessor.SentimentResult result = deduplicator.findReusable(HASH);
+
+        // Then
+        assertNotNull(result);
+        assertEquals(SentimentLabel.NEGATIVE, result.getSentiment());
+        assertEquals(0.91, result.getConfidence());
+        assertEquals("CoreNLP", result.getSource());
+        assertEquals(1, deduplicator.getHits());
+        assertEquals(0, deduplicator.getLlmCallsSaved());
+    }
+
+    @Test
+    void testFindReusable_LlmVerifiedAnalysisCountsSavedLlmCall() {
+        // Given
+        when(commentRepository.findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc(anyString(), anyString()))
+            .thenReturn(Optional.of(stored(SentimentLabel.NEUTRAL, 0.8, HybridNLPProcessor.HYBRID_SOURCE)));
+
+        // When
+        deduplicator.findReusable(HASH);
+        deduplicator.findReusable(HASH);
+
+        // Then
+        assertEquals(2, deduplicator.getHits());
+        assertEquals(2, deduplicator.getLlmCallsSaved());
+    }
+
+    @Test
+    void testFindReusable_NoPreviousComment_Miss() {
+        // Given
+        when(commentRepository.findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc(anyString(), anyString()))
+            .thenReturn(Optional.empty());
+
+        // Then
+        assertNull(deduplicator.findReusable(HASH));
+        assertEquals(0, deduplicator.getHits());
+        assertEquals(1, deduplicator.getMisses());
+    }
+
+    @Test
+    void testFindReusable_LlmFallbackIsNotReused() {
+        // Given
+        when(commentRepository.findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc(anyString(), anyString()))
+            .thenReturn(Optional.of(stored(SentimentLabel.NEUTRAL, 0.5, HybridNLPProcessor.LLM_FALLBACK_SOURCE)));
+
+        // Then
+        assertNull(deduplicator.findReusable(HASH));
+        assertEquals(1, deduplicator.getMisses());
+    }
+
+    @Test
+    void testFindReusable_Disabled_SkipsLookup() {
+        // Given
+        ReflectionTestUtils.setField(deduplicator, "enabled", false);
+
+        // Then
+        assertNull(deduplicator.findReusable(HASH));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void testStamp_RecordsHashVersionAndConfidence() {
+        // Given
+        Comment comment = new Comment("Buy cheap followers now!");
+
+        // When
+        deduplicator.stamp(comment, HASH,
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.NEGATIVE, 0.77, "CoreNLP"));
+
+        // Then
+        assertEquals(HASH, comment.getContentHash());
+        assertEquals("engine-1+model-1", comment.getEngineVersion());
+        assertEquals(0.77, comment.getSentimentConfidence());
+    }
+
+    @Test
+    void testBindTo_ReportsSavedWork() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        deduplicator.bindTo(registry);
+        when(commentRepository.findFirstByContentHashAndEngineVersionAndProvisionalFalseOrderByIdDesc(anyString(), anyString()))
+            .thenReturn(Optional.of(stored(SentimentLabel.POSITIVE, 0.9, HybridNLPProcessor.HYBRID_SOURCE)));
+
+        // When
+        deduplicator.findReusable(HASH);
+
+        // Then
+        assertEquals(1.0, registry.get("comments.dedup.saved").tag("work", "corenlp").functionCounter().count());
+        assertEquals(1.0, registry.get("comments.dedup.saved").tag("work", "llm").functionCounter().count());
+        assertEquals(1.0, registry.get("comments.dedup.requests").tag("result", "hit").functionCounter().count());
+    }
+
+    private Comment stored(SentimentLabel sentiment, double confidence, String source) {
+        Comment comment = new Comment("Buy cheap followers now!");
+        comment.setId(11L);
+        comment.setSentiment(sentiment);
+        comment.setSentimentConfidence(confidence);
+        comment.setSentimentSource(source);
+        comment.setContentHash(HASH);
+        comment.setEngineVersion("engine-1+model-1");
+        return comment;
+    }
+}
@@ -0,0 +1,133 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CommentExportService.
+ * Tests CSV and NDJSON output, filter pass-through and detaching of streamed rows.
+ */
+@ExtendWith(MockitoExtension.class)
+class CommentExportServiceTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private CommentExportService exportService;
+
+    private Comment comment(long id, String content, SentimentLabel sentiment) {
+        Comment comment = new Comment(content);
+        comment.setId(id);
+        comment.setUserId(3L);
+        comment.setSentiment(sentiment);
+        comment.setSentimentScore(0.85);
+        comment.setSentimentSource("CoreNLP");
+        comment.setCreatedAt(LocalDateTime.of(2025, 1, 31, 12, 0));
+        return comment;
+    }
+
+    @Test
+    void testExport_CsvQuotesFieldsAndDetachesRows() throws Exception {
+        // Given
+        Comment first = comment(1L, "plain", SentimentLabel.POSITIVE);
+        Comment second = comment(2L, "says \"hi\", twice", SentimentLabel.NEGATIVE);
+        when(commentRepository.streamForExport(null, null, null, null)).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exportService.export(null, null, null, null, BulkRecordReader.Format.CSV, out);
+
+        // Then
+        assertEquals(2, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,userId,content,sentiment,sentimentScore,sentimentSource,provisional,createdAt", lines[0]);
+        assertEquals("1,3,plain,Positive,0.85,CoreNLP,false,2025-01-31T12:00", lines[1]);
+        assertEquals("2,3,\"says \"\"hi\"\", twice\",Negative,0.85,CoreNLP,false,2025-01-31T12:00", lines[2]);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void testExport_CsvCanBeReadBackByBulkReader() throws Exception {
+        // Given
+        when(commentRepository.streamForExport(null, null, null, null))
+                .thenReturn(Stream.of(comment(1L, "line one\nline two, with comma", SentimentLabel.NEUTRAL)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.export(null, null, null, null, BulkRecordReader.Format.CSV, out);
+
+        // Then
+        try (BulkRecordReader reader = BulkRecordReader.forFormat(BulkRecordReader.Format.CSV,
+                new StringReader(out.toString(StandardCharsets.UTF_8)))) {
+            BulkRecordReader.BulkRecord record = reader.next();
+            assertEquals("line one\nline two, with comma", record.getContent());
+            assertEquals("2025-01-31T12:00", record.getCreatedAt());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testExport_NdjsonWritesOneObjectPerLineAndPassesFilters() throws Exception {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(commentRepository.streamForExport(3L, SentimentLabel.POSITIVE, from, to))
+                .thenReturn(Stream.of(comment(1L, "a", SentimentLabel.POSITIVE), comment(2L, "b", SentimentLabel.POSITIVE))
+                        .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exportService.export(3L, SentimentLabel.POSITIVE, from, to, BulkRecordReader.Format.NDJSON, out);
+
+        // Then
+        assertEquals(2, rows);
+        assertTrue(closed.get());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode node = new ObjectMapper().readTree(lines[1]);
+        assertEquals(2L, node.get("id").asLong());
+        assertEquals("b", node.get("content").asText());
+        assertEquals("Positive", node.get("sentiment").asText());
+        assertEquals("2025-01-31T12:00", node.get("createdAt").asText());
+    }
+
+    @Test
+    void testExport_NoMatchesWritesHeaderOnly() throws Exception {
+        // Given
+        when(commentRepository.streamForExport(null, SentimentLabel.NEGATIVE, null, null)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exportService.export(null, SentimentLabel.NEGATIVE, null, null, BulkRecordReader.Format.CSV, out);
+
+        // Then
+        assertEquals(0, rows);
+        assertEquals(String.join(",", CommentExportService.COLUMNS) + "\r\n", out.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(entityManager);
+    }
+}
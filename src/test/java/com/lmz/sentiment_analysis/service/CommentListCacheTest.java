@@ -0,0 +1,108 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.config.RedisCacheConfig;
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CommentListCache.
+ * Tests cache keys, that eviction is limited to the author's page and the shared page,
+ * and that a cached page reads back from its Redis form.
+ */
+class CommentListCacheTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private CommentListCache commentListCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CommentListCache.CACHE_NAME);
+        commentListCache = new CommentListCache(cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testKeyFor_AnonymousCallersShareTheAllKey() {
+        assertEquals("user:1", CommentListCache.keyFor(1L));
+        assertEquals(CommentListCache.ALL_KEY, CommentListCache.keyFor(null));
+    }
+
+    @Test
+    void testCurrentKey_ReadsUserIdFromSecurityContext() {
+        // Given
+        CustomUserDetails alice = new CustomUserDetails(1L, "alice", "n/a", Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(alice, null, alice.getAuthorities()));
+
+        // When / Then
+        assertEquals("user:1", CommentListCache.currentKey());
+    }
+
+    @Test
+    void testCurrentKey_AnonymousCallerUsesTheAllKey() {
+        assertEquals(CommentListCache.ALL_KEY, CommentListCache.currentKey());
+    }
+
+    @Test
+    void testEvictForUser_LeavesOtherUsersListsCached() {
+        // Given
+        Cache cache = cacheManager.getCache(CommentListCache.CACHE_NAME);
+        cache.put("user:1", "alice's comments");
+        cache.put("user:2", "bob's comments");
+        cache.put(CommentListCache.ALL_KEY, "all comments");
+
+        // When
+        commentListCache.evictForUser(1L);
+
+        // Then
+        assertNull(cache.get("user:1"));
+        assertNull(cache.get(CommentListCache.ALL_KEY));
+        assertNotNull(cache.get("user:2"));
+    }
+
+    @Test
+    void testCachedPage_ReadsBackFromRedisJson() {
+        // Given - a first page cut from a longer result, as CommentServiceImpl builds it
+        Comment comment = new Comment("Great product");
+        comment.setId(42L);
+        comment.setUserId(1L);
+        comment.setSentiment(SentimentLabel.POSITIVE);
+        comment.setCreatedAt(LocalDateTime.of(2025, 1, 31, 12, 0));
+        CommentPage page = new CommentPage(List.of(comment, new Comment("next page")).subList(0, 1), "cursor-1");
+        RedisSerializer<Object> serializer = RedisCacheConfig.cacheValueSerializer();
+
+        // When
+        byte[] json = serializer.serialize(page);
+        CommentPage read = (CommentPage) serializer.deserialize(json);
+
+        // Then - the derived emoji and background color are not stored
+        assertFalse(new String(json, StandardCharsets.UTF_8).contains("emoji"));
+        assertFalse(new String(json, StandardCharsets.UTF_8).contains("backgroundColor"));
+        assertEquals("cursor-1", read.getNextCursor());
+        assertTrue(read.isHasMore());
+        assertEquals(1, read.getComments().size());
+        assertEquals(42L, read.getComments().get(0).getId());
+        assertEquals(SentimentLabel.POSITIVE, read.getComments().get(0).getSentiment());
+        assertEquals(LocalDateTime.of(2025, 1, 31, 12, 0), read.getComments().get(0).getCreatedAt());
+    }
+}
@@ -1,27 +1,33 @@
 package com.lmz.sentiment_analysis.service;
 
 import com.lmz.sentiment_analysis.model.Comment;
-import com.lmz.sentiment_analysis.model.User;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
 import com.lmz.sentiment_analysis.repository.CommentRepository;
-import com.lmz.sentiment_analysis.repository.UserRepository;
+import com.lmz.sentiment_analysis.security.CustomUserDetails;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,7 +44,25 @@ class CommentServiceImplTest {
     private HybridNLPProcessor hybridNLPProcessor;
 
     @Mock
-    private UserRepository userRepository;
+    private SentimentUpgradeService sentimentUpgradeService;
+
+    @Mock
+    private SentimentCounterService sentimentCounterService;
+
+    @Mock
+    private SentimentTrendService sentimentTrendService;
+
+    @Mock
+    private CommentListCache commentListCache;
+
+    @Mock
+    private CommentWriteBehindQueue writeBehindQueue;
+
+    @Mock
+    private CommentDeduplicator commentDeduplicator;
+
+    @Mock
+    private NearDuplicateDetector nearDuplicateDetector;
 
     @Mock
     private SecurityContext securityContext;
@@ -59,21 +83,16 @@ class CommentServiceImplTest {
         // Given
         String content = "This is a great product!";
         HybridNLPProcessor.SentimentResult sentimentResult = 
-            new HybridNLPProcessor.SentimentResult("Positive", 0.85, "CoreNLP");
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.85, "CoreNLP");
         
         when(hybridNLPProcessor.analyzeSentiment(anyString())).thenReturn(sentimentResult);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getPrincipal()).thenReturn("testuser");
-        when(authentication.getName()).thenReturn("testuser");
-        
-        User user = new User();
-        user.setId(1L);
-        user.setUsername("testuser");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(authentication.getPrincipal()).thenReturn(
+            new CustomUserDetails(1L, "testuser", "secret", Collections.emptyList()));
         
         Comment savedComment = new Comment(content);
-        savedComment.setSentiment("Positive");
+        savedComment.setSentiment(SentimentLabel.POSITIVE);
         savedComment.setUserId(1L);
         when(commentRepository.save(any(Comment.class))).thenReturn(savedComment);
 
@@ -82,9 +101,11 @@ class CommentServiceImplTest {
 
         // Then
         assertNotNull(result);
-        assertEquals("Positive", result.getSentiment());
+        assertEquals(SentimentLabel.POSITIVE, result.getSentiment());
         verify(hybridNLPProcessor, times(1)).analyzeSentiment(content);
         verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(sentimentCounterService).increment(SentimentLabel.POSITIVE);
+        verify(sentimentTrendService).record(savedComment);
     }
 
     @Test
@@ -92,13 +113,13 @@ class CommentServiceImplTest {
         // Given
         String content = "This is terrible!";
         HybridNLPProcessor.SentimentResult sentimentResult = 
-            new HybridNLPProcessor.SentimentResult("Negative", 0.80, "CoreNLP");
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.NEGATIVE, 0.80, "CoreNLP");
         
         when(hybridNLPProcessor.analyzeSentiment(anyString())).thenReturn(sentimentResult);
         when(securityContext.getAuthentication()).thenReturn(null);
         
         Comment savedComment = new Comment(content);
-        savedComment.setSentiment("Negative");
+        savedComment.setSentiment(SentimentLabel.NEGATIVE);
         when(commentRepository.save(any(Comment.class))).thenReturn(savedComment);
 
         // When
@@ -106,7 +127,7 @@ class CommentServiceImplTest {
 
         // Then
         assertNotNull(result);
-        assertEquals("Negative", result.getSentiment());
+        assertEquals(SentimentLabel.NEGATIVE, result.getSentiment());
         assertEquals("😞", result.getEmoji());
         assertEquals("#808080", result.getBackgroundColor());
     }
@@ -116,13 +137,13 @@ class CommentServiceImplTest {
         // Given
         String content = "Absolutely amazing and wonderful!";
         HybridNLPProcessor.SentimentResult sentimentResult = 
-            new HybridNLPProcessor.SentimentResult("Very positive", 0.95, "CoreNLP");
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.VERY_POSITIVE, 0.95, "CoreNLP");
         
         when(hybridNLPProcessor.analyzeSentiment(anyString())).thenReturn(sentimentResult);
         when(securityContext.getAuthentication()).thenReturn(null);
         
         Comment savedComment = new Comment(content);
-        savedComment.setSentiment("Very positive");
+        savedComment.setSentiment(SentimentLabel.VERY_POSITIVE);
         when(commentRepository.save(any(Comment.class))).thenReturn(savedComment);
 
         // When
@@ -130,70 +151,274 @@ class CommentServiceImplTest {
 
         // Then
         assertNotNull(result);
-        assertEquals("Very positive", result.getSentiment());
+        assertEquals(SentimentLabel.VERY_POSITIVE, result.getSentiment());
         assertEquals("😄", result.getEmoji());
         assertEquals("#ffff00", result.getBackgroundColor());
         assertEquals(0.95, result.getSentimentScore());
     }
 
     @Test
-    void testGetAllComments_WithAuthenticatedUser() {
+    void testAddComment_AsyncVerification_SavesProvisionalAndSchedulesUpgrade() {
+        // Given
+        String content = "The service is okay.";
+        ReflectionTestUtils.setField(commentService, "asyncVerificationEnabled", true);
+        HybridNLPProcessor.SentimentResult provisional = new HybridNLPProcessor.SentimentResult(
+            SentimentLabel.NEUTRAL, 0.55, HybridNLPProcessor.PROVISIONAL_SOURCE);
+
+        when(hybridNLPProcessor.analyzeSentimentProvisional(content)).thenReturn(provisional);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> {
+            Comment saved = invocation.getArgument(0);
+            saved.setId(42L);
+            return saved;
+        });
+
+        // When
+        Comment result = commentService.addComment(content);
+
+        // Then
+        assertTrue(result.isProvisional());
+        assertEquals(HybridNLPProcessor.PROVISIONAL_SOURCE, result.getSentimentSource());
+        assertEquals("😐", result.getEmoji());
+        verify(hybridNLPProcessor, never()).analyzeSentiment(anyString());
+        verify(sentimentUpgradeService).scheduleUpgrade(42L, content, provisional);
+    }
+
+    @Test
+    void testAddComment_ConfidentResult_NoUpgradeScheduled() {
+        // Given
+        HybridNLPProcessor.SentimentResult sentimentResult =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP");
+        when(hybridNLPProcessor.analyzeSentiment(anyString())).thenReturn(sentimentResult);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Comment result = commentService.addComment("Great!");
+
+        // Then
+        assertFalse(result.isProvisional());
+        assertEquals("CoreNLP", result.getSentimentSource());
+        verifyNoInteractions(sentimentUpgradeService);
+    }
+
+    @Test
+    void testAddComment_DuplicateContent_ReusesStoredAnalysis() {
+        // Given
+        String content = "Buy cheap followers now!";
+        HybridNLPProcessor.SentimentResult stored =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.NEGATIVE, 0.92, HybridNLPProcessor.HYBRID_SOURCE);
+        when(commentDeduplicator.findReusable(TextFingerprint.hash(content))).thenReturn(stored);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Comment result = commentService.addComment(content);
+
+        // Then
+        assertEquals(SentimentLabel.NEGATIVE, result.getSentiment());
+        assertEquals(0.30, result.getSentimentScore());
+        assertEquals(HybridNLPProcessor.HYBRID_SOURCE, result.getSentimentSource());
+        verifyNoInteractions(hybridNLPProcessor);
+        verify(commentDeduplicator).stamp(result, TextFingerprint.hash(content), stored);
+        verify(sentimentCounterService).increment(SentimentLabel.NEGATIVE);
+    }
+
+    @Test
+    void testAddComment_NearDuplicate_InheritsClusterSentiment() {
+        // Given
+        String content = "Buy cheap followers now!! Visit our shop today";
+        HybridNLPProcessor.SentimentResult clusterResult =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.NEGATIVE, 0.9, HybridNLPProcessor.HYBRID_SOURCE);
+        NearDuplicateDetector.Cluster cluster = new NearDuplicateDetector.Cluster("cluster-hash", Set.of("buy", "cheap"), clusterResult);
+        when(nearDuplicateDetector.findCluster(content)).thenReturn(cluster);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Comment result = commentService.addComment(content);
+
+        // Then
+        assertEquals("cluster-hash", result.getClusterId());
+        assertEquals(SentimentLabel.NEGATIVE, result.getSentiment());
+        verifyNoInteractions(hybridNLPProcessor);
+        verify(commentDeduplicator, never()).findReusable(anyString());
+        verify(nearDuplicateDetector, never()).startCluster(anyString(), anyString(), any());
+        // Not offered for reuse: the inherited result was computed for a different text
+        verify(commentDeduplicator, never()).stamp(any(), anyString(), any());
+        assertNull(result.getContentHash());
+        assertNull(result.getEngineVersion());
+        assertEquals(0.9, result.getSentimentConfidence());
+    }
+
+    @Test
+    void testAddComment_NewContent_AnalyzesAndStampsHash() {
+        // Given
+        String content = "  A   genuinely new comment ";
+        HybridNLPProcessor.SentimentResult analyzed =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.88, "CoreNLP");
+        when(hybridNLPProcessor.analyzeSentiment(content)).thenReturn(analyzed);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Comment result = commentService.addComment(content);
+
+        // Then
+        verify(commentDeduplicator).findReusable(TextFingerprint.hash("A genuinely new comment"));
+        verify(commentDeduplicator).stamp(result, TextFingerprint.hash(content), analyzed);
+        verify(hybridNLPProcessor).analyzeSentiment(content);
+        verify(nearDuplicateDetector).startCluster(content, TextFingerprint.hash(content), analyzed);
+    }
+
+    @Test
+    void testAddComment_WriteBehind_EnqueuesWithoutSaving() {
         // Given
+        HybridNLPProcessor.SentimentResult sentimentResult =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP");
+        when(hybridNLPProcessor.analyzeSentiment(anyString())).thenReturn(sentimentResult);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.enqueue(any(Comment.class))).thenReturn(true);
+
+        // When
+        Comment result = commentService.addComment("Great!");
+
+        // Then - the flusher persists it and updates the counters
+        assertEquals(SentimentLabel.POSITIVE, result.getSentiment());
+        assertNull(result.getId());
+        verify(commentRepository, never()).save(any(Comment.class));
+        verifyNoInteractions(sentimentCounterService);
+    }
+
+    @Test
+    void testAddComment_WriteBehindProvisional_SavesSynchronouslyWithId() {
+        // Given
+        String content = "The service is okay.";
+        ReflectionTestUtils.setField(commentService, "asyncVerificationEnabled", true);
+        HybridNLPProcessor.SentimentResult provisional = new HybridNLPProcessor.SentimentResult(
+            SentimentLabel.NEUTRAL, 0.55, HybridNLPProcessor.PROVISIONAL_SOURCE);
+        when(hybridNLPProcessor.analyzeSentimentProvisional(content)).thenReturn(provisional);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> {
+            Comment saved = invocation.getArgument(0);
+            saved.setId(42L);
+            return saved;
+        });
+
+        // When
+        Comment result = commentService.addComment(content);
+
+        // Then - the client can poll the provisional comment by id for its upgrade
+        assertEquals(42L, result.getId());
+        verify(writeBehindQueue, never()).enqueue(any(Comment.class));
+        verify(sentimentUpgradeService).scheduleUpgrade(42L, content, provisional);
+    }
+
+    @Test
+    void testAddComment_WriteBehindQueueFull_SavesSynchronously() {
+        // Given
+        HybridNLPProcessor.SentimentResult sentimentResult =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP");
+        when(hybridNLPProcessor.analyzeSentiment(anyString())).thenReturn(sentimentResult);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.enqueue(any(Comment.class))).thenReturn(false);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        commentService.addComment("Great!");
+
+        // Then
+        verify(commentRepository).save(any(Comment.class));
+        verify(sentimentCounterService).increment(SentimentLabel.POSITIVE);
+    }
+
+    @Test
+    void testAddComment_PrincipalCarriesUserId_NoUserLookup() {
+        // Given
+        HybridNLPProcessor.SentimentResult sentimentResult =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP");
+        when(hybridNLPProcessor.analyzeSentiment(anyString())).thenReturn(sentimentResult);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
-        when(authentication.getPrincipal()).thenReturn("testuser");
-        when(authentication.getName()).thenReturn("testuser");
-        
-        User user = new User();
-        user.setId(1L);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        
-        List<Comment> userComments = Arrays.asList(
-            new Comment("Comment 1"),
-            new Comment("Comment 2")
-        );
-        when(commentRepository.findByUserId(1L)).thenReturn(userComments);
+        when(authentication.getPrincipal()).thenReturn(
+            new CustomUserDetails(9L, "testuser", "secret", Collections.emptyList()));
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        List<Comment> result = commentService.getAllComments();
+        Comment result = commentService.addComment("Great!");
 
         // Then
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(commentRepository, times(1)).findByUserId(1L);
+        assertEquals(9L, result.getUserId());
     }
 
     @Test
-    void testGetAllComments_WithoutAuthentication() {
+    void testGetCommentPage_FirstPageReturnsCursorWhenMoreRowsExist() {
+        // Given
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(authentication.getPrincipal()).thenReturn(
+            new CustomUserDetails(1L, "testuser", "secret", Collections.emptyList()));
+
+        // Page size 2 fetches 3 rows; the third only signals that another page exists
+        List<Comment> rows = createPagedComments(3);
+        when(commentRepository.findPageByUserId(1L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        // When
+        CommentPage page = commentService.getCommentPage(null, 2);
+
+        // Then
+        assertEquals(2, page.getComments().size());
+        assertTrue(page.isHasMore());
+        CommentCursor cursor = CommentCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).getId(), cursor.getId());
+        assertEquals(rows.get(1).getCreatedAt(), cursor.getCreatedAt());
+    }
+
+    @Test
+    void testGetCommentPage_FollowsCursorAndEndsOnLastPage() {
         // Given
         when(securityContext.getAuthentication()).thenReturn(null);
-        
-        List<Comment> allComments = Arrays.asList(
-            new Comment("Comment 1"),
-            new Comment("Comment 2"),
-            new Comment("Comment 3")
-        );
-        when(commentRepository.findAll()).thenReturn(allComments);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456000);
+        String token = new CommentCursor(createdAt, 42L).encode();
+        List<Comment> rows = createPagedComments(1);
+        when(commentRepository.findPageAfter(createdAt, 42L, PageRequest.of(0, 11))).thenReturn(rows);
 
         // When
-        List<Comment> result = commentService.getAllComments();
+        CommentPage page = commentService.getCommentPage(token, 10);
 
         // Then
-        assertNotNull(result);
-        assertEquals(3, result.size());
-        verify(commentRepository, times(1)).findAll();
+        assertEquals(1, page.getComments().size());
+        assertNull(page.getNextCursor());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void testGetAllCommentsPage_CapsPageSize() {
+        // Given
+        when(commentRepository.findPage(any())).thenReturn(new ArrayList<>());
+
+        // When
+        commentService.getAllCommentsPage(null, 100000);
+
+        // Then - max page size 100, plus one look-ahead row
+        verify(commentRepository).findPage(PageRequest.of(0, 101));
+    }
+
+    @Test
+    void testGetAllCommentsPage_RejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+            () -> commentService.getAllCommentsPage("not-a-cursor", 10));
+        verify(commentRepository, never()).findPageAfter(any(), any(), any());
     }
 
     @Test
     void testGetGlobalSentimentDistribution() {
         // Given
-        List<Comment> comments = Arrays.asList(
-            createComment("Positive"),
-            createComment("Positive"),
-            createComment("Negative"),
-            createComment("Neutral")
-        );
-        when(commentRepository.findAll()).thenReturn(comments);
+        Map<String, Long> counts = Map.of("Positive", 2L, "Negative", 1L, "Neutral", 1L);
+        when(sentimentCounterService.getDistribution()).thenReturn(counts);
 
         // When
         Map<String, Long> distribution = commentService.getGlobalSentimentDistribution();
@@ -203,11 +428,37 @@ class CommentServiceImplTest {
         assertEquals(2L, distribution.get("Positive"));
         assertEquals(1L, distribution.get("Negative"));
         assertEquals(1L, distribution.get("Neutral"));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void testDeleteComment_DecrementsCounterAndEvictsAuthorsList() {
+        // Given
+        Comment comment = new Comment("Not great");
+        comment.setId(5L);
+        comment.setSentiment(SentimentLabel.NEGATIVE);
+        comment.setUserId(3L);
+        when(commentRepository.findById(5L)).thenReturn(Optional.of(comment));
+
+        // When
+        commentService.deleteComment(5L);
+
+        // Then
+        verify(commentRepository).delete(comment);
+        verify(sentimentCounterService).decrement(SentimentLabel.NEGATIVE);
+        verify(sentimentTrendService).remove(comment);
+        verify(commentListCache).evictForUser(3L);
     }
 
-    private Comment createComment(String sentiment) {
-        Comment comment = new Comment("Test content");
-        comment.setSentiment(sentiment);
-        return comment;
+    private List<Comment> createPagedComments(int count) {
+        List<Comment> comments = new ArrayList<>();
+        LocalDateTime newest = LocalDateTime.of(2024, 5, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            Comment comment = new Comment("Comment " + i);
+            comment.setId(100L - i);
+            comment.setCreatedAt(newest.minusMinutes(i));
+            comments.add(comment);
+        }
+        return comments;
     }
 }
@@ -0,0 +1,159 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CommentWriteBehindQueue.
+ * Tests batched flushing, the lag bound, row-by-row retry and the shutdown drain.
+ */
+@ExtendWith(MockitoExtension.class)
+class CommentWriteBehindQueueTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private SentimentCounterService sentimentCounterService;
+
+    @Mock
+    private SentimentTrendService sentimentTrendService;
+
+    @Mock
+    private CommentListCache commentListCache;
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private CommentWriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new CommentWriteBehindQueue(commentRepository, sentimentCounterService, sentimentTrendService,
+                                            commentListCache);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        lenient().when(commentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Comment> comments = invocation.getArgument(0);
+            batchSizes.add(comments.size());
+            comments.forEach(comment -> comment.setId(ids.incrementAndGet()));
+            return comments;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    private Comment comment(String content, Long userId) {
+        Comment comment = new Comment(content);
+        comment.setSentiment(SentimentLabel.POSITIVE);
+        comment.setUserId(userId);
+        return comment;
+    }
+
+    @Test
+    void testEnqueue_DisabledRejects() {
+        // Given
+        ReflectionTestUtils.setField(queue, "enabled", false);
+        queue.start();
+
+        // When / Then
+        assertFalse(queue.isEnabled());
+        assertFalse(queue.enqueue(comment("a", 1L)));
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void testFlush_PersistsWithinMaxLagAndUpdatesCountersAndCache() {
+        // Given
+        ReflectionTestUtils.setField(queue, "maxLagMillis", 20L);
+        queue.start();
+        Comment comment = comment("a", 1L);
+
+        // When
+        assertTrue(queue.enqueue(comment));
+
+        // Then - a copy is persisted; the caller's instance is never touched by the flusher
+        verify(sentimentCounterService, timeout(5000)).increment(SentimentLabel.POSITIVE);
+        verify(commentListCache, timeout(5000)).evictForUser(1L);
+        verify(sentimentTrendService).record(argThat(saved -> saved != comment && saved.getId() != null
+                                                             && "a".equals(saved.getContent())));
+        assertNull(comment.getId());
+    }
+
+    @Test
+    void testFlush_BatchesUpToMaxBatchSize() {
+        // Given
+        ReflectionTestUtils.setField(queue, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(queue, "maxLagMillis", 500L);
+        queue.start();
+
+        // When
+        for (int i = 0; i < 7; i++) {
+            assertTrue(queue.enqueue(comment("c" + i, 1L)));
+        }
+
+        // Then
+        verify(sentimentCounterService, timeout(5000).times(7)).increment(SentimentLabel.POSITIVE);
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 3));
+        assertTrue(batchSizes.size() < 7);
+    }
+
+    @Test
+    void testFlush_BatchFailureRetriesRowByRow() {
+        // Given
+        when(commentRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("batch"));
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> {
+            Comment comment = invocation.getArgument(0);
+            if ("bad".equals(comment.getContent())) {
+                throw new DataIntegrityViolationException("bad row");
+            }
+            return comment;
+        });
+        ReflectionTestUtils.setField(queue, "maxLagMillis", 200L);
+        queue.start();
+
+        // When
+        queue.enqueue(comment("good", 1L));
+        queue.enqueue(comment("bad", 1L));
+
+        // Then - only the good row is counted
+        verify(commentRepository, timeout(5000).times(2)).save(any(Comment.class));
+        verify(sentimentCounterService, timeout(5000).times(1)).increment(SentimentLabel.POSITIVE);
+    }
+
+    @Test
+    void testShutdown_DrainsQueuedComments() {
+        // Given - a long lag so nothing is flushed before shutdown
+        ReflectionTestUtils.setField(queue, "maxLagMillis", 60_000L);
+        queue.start();
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(comment("c" + i, 1L));
+        }
+
+        // When
+        queue.shutdown();
+
+        // Then
+        assertEquals(5, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        verify(sentimentCounterService, times(5)).increment(SentimentLabel.POSITIVE);
+        assertFalse(queue.enqueue(comment("late", 1L)));
+    }
+}
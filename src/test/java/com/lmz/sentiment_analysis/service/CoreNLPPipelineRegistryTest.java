@@ -0,0 +1,76 @@
+package com.lmz.sentiment_analysis.service;
+
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CoreNLPPipelineRegistry.
+ * Uses the lightweight TOKENIZE profile so no parser models are loaded.
+ */
+class CoreNLPPipelineRegistryTest {
+
+    private CoreNLPPipelineRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CoreNLPPipelineRegistry();
+    }
+
+    @Test
+    void testNoProfilesLoadedUntilRequested() {
+        assertTrue(registry.getLoadedProfileStats().isEmpty());
+    }
+
+    @Test
+    void testGetPipeline_ReturnsSameInstance() {
+        StanfordCoreNLP first = registry.getPipeline(CoreNLPPipelineRegistry.Profile.TOKENIZE);
+        StanfordCoreNLP second = registry.getPipeline(CoreNLPPipelineRegistry.Profile.TOKENIZE);
+
+        assertNotNull(first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void testGetPipeline_ConcurrentCallersShareOneLoad() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<StanfordCoreNLP>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> registry.getPipeline(CoreNLPPipelineRegistry.Profile.TOKENIZE));
+            }
+
+            List<Future<StanfordCoreNLP>> futures = executor.invokeAll(tasks);
+            StanfordCoreNLP expected = futures.get(0).get();
+            for (Future<StanfordCoreNLP> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLoadedProfileStats_ReportedAfterLoad() {
+        registry.getPipeline(CoreNLPPipelineRegistry.Profile.TOKENIZE);
+
+        Map<CoreNLPPipelineRegistry.Profile, CoreNLPPipelineRegistry.PipelineStats> stats =
+            registry.getLoadedProfileStats();
+
+        assertEquals(1, stats.size());
+        CoreNLPPipelineRegistry.PipelineStats tokenizeStats = stats.get(CoreNLPPipelineRegistry.Profile.TOKENIZE);
+        assertEquals("tokenize,ssplit", tokenizeStats.getAnnotators());
+        assertTrue(tokenizeStats.getApproximateMemoryBytes() >= 0);
+        assertTrue(tokenizeStats.getLoadTimeMillis() >= 0);
+    }
+}
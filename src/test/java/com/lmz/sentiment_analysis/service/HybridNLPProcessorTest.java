@@ -1,14 +1,27 @@
 package com.lmz.sentiment_analysis.service;
 
+import com.lmz.sentiment_analysis.model.SentimentLabel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -19,16 +32,26 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class HybridNLPProcessorTest {
 
+    // Shared across tests so the CoreNLP models are loaded once
+    private static final CoreNLPPipelineRegistry pipelineRegistry = new CoreNLPPipelineRegistry();
+
     @Mock
     private LLMVerificationService llmVerificationService;
 
-    @InjectMocks
+    private SentimentResultCache resultCache;
+
     private HybridNLPProcessor hybridNLPProcessor;
 
     @BeforeEach
     void setUp() {
+        resultCache = new SentimentResultCache(new ConcurrentMapCacheManager(), "test-engine", "test-model", 100);
+        hybridNLPProcessor = new HybridNLPProcessor(pipelineRegistry, llmVerificationService, resultCache);
         // Set confidence threshold for testing
         ReflectionTestUtils.setField(hybridNLPProcessor, "confidenceThreshold", 0.7);
+        lenient().when(llmVerificationService.isAvailable()).thenReturn(true);
+        // Whether a text escalates depends on the model's probabilities, so default to an LLM failure
+        lenient().when(llmVerificationService.verifySentiment(anyString()))
+            .thenReturn(new LLMVerificationService.LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false));
     }
 
     @Test
@@ -41,7 +64,7 @@ class HybridNLPProcessorTest {
 
         // Then
         assertNotNull(result);
-        assertTrue(result.getSentiment().toLowerCase().contains("positive"));
+        assertTrue(result.getSentiment() == SentimentLabel.POSITIVE || result.getSentiment() == SentimentLabel.VERY_POSITIVE);
         assertTrue(result.getConfidence() > 0);
         assertNotNull(result.getSource());
     }
@@ -56,7 +79,7 @@ class HybridNLPProcessorTest {
 
         // Then
         assertNotNull(result);
-        assertTrue(result.getSentiment().toLowerCase().contains("negative"));
+        assertTrue(result.getSentiment().isNegative());
         assertTrue(result.getConfidence() > 0);
     }
 
@@ -74,6 +97,24 @@ class HybridNLPProcessorTest {
         assertTrue(result.getConfidence() >= 0 && result.getConfidence() <= 1);
     }
 
+    @Test
+    void testAnalyzeSentiment_ConfidenceFromClassDistribution() {
+        // Given
+        String text = "I absolutely love this amazing product! It's fantastic!";
+
+        // When
+        HybridNLPProcessor.SentimentResult result = hybridNLPProcessor.analyzeSentiment(text);
+
+        // Then
+        double[] distribution = result.getClassDistribution();
+        assertNotNull(distribution);
+        assertEquals(5, distribution.length);
+        assertEquals(1.0, Arrays.stream(distribution).sum(), 1e-3);
+        if ("CoreNLP".equals(result.getSource())) {
+            assertEquals(Arrays.stream(distribution).max().getAsDouble(), result.getConfidence(), 1e-9);
+        }
+    }
+
     @Test
     void testAnalyzeSentiment_EmptyText() {
         // Given
@@ -84,7 +125,7 @@ class HybridNLPProcessorTest {
 
         // Then
         assertNotNull(result);
-        assertEquals("Neutral", result.getSentiment());
+        assertEquals(SentimentLabel.NEUTRAL, result.getSentiment());
     }
 
     @Test
@@ -92,9 +133,9 @@ class HybridNLPProcessorTest {
         // Given
         String ambiguousText = "The service is okay.";
         LLMVerificationService.LLMSentimentResult mockLLMResult = 
-            new LLMVerificationService.LLMSentimentResult("Neutral", 0.8, true);
+            new LLMVerificationService.LLMSentimentResult(SentimentLabel.NEUTRAL, 0.8, true);
         
-        when(llmVerificationService.verifySentiment(anyString())).thenReturn(mockLLMResult);
+        lenient().when(llmVerificationService.verifySentiment(anyString())).thenReturn(mockLLMResult);
 
         // When
         HybridNLPProcessor.SentimentResult result = hybridNLPProcessor.analyzeSentiment(ambiguousText);
@@ -105,14 +146,151 @@ class HybridNLPProcessorTest {
         // verify(llmVerificationService, atLeastOnce()).verifySentiment(anyString());
     }
 
+    @Test
+    void testAnalyzeSentiment_RepeatedTextServedFromCache() {
+        // Given
+        String text = "I absolutely love this amazing product! It's fantastic!";
+        lenient().when(llmVerificationService.verifySentiment(anyString()))
+            .thenReturn(new LLMVerificationService.LLMSentimentResult(SentimentLabel.VERY_POSITIVE, 0.9, true));
+
+        // When
+        HybridNLPProcessor.SentimentResult first = hybridNLPProcessor.analyzeSentiment(text);
+        HybridNLPProcessor.SentimentResult second = hybridNLPProcessor.analyzeSentiment("  " + text + " ");
+
+        // Then
+        assertEquals(first.getSentiment(), second.getSentiment());
+        assertEquals(first.getConfidence(), second.getConfidence());
+        assertEquals(first.getSource(), second.getSource());
+        assertEquals(1, resultCache.getLocalHits());
+        verify(llmVerificationService, atMost(1)).verifySentiment(anyString());
+    }
+
+    @Test
+    void testAnalyzeSentiment_ConcurrentIdenticalRequestsShareOneAnalysis() throws Exception {
+        // Given - the LLM call blocks until every caller has arrived
+        CountDownLatch release = new CountDownLatch(1);
+        when(llmVerificationService.verifySentiment(anyString())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new LLMVerificationService.LLMSentimentResult(SentimentLabel.POSITIVE, 0.9, true);
+        });
+        int callers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+
+        try {
+            // When - empty text always yields a low-confidence CoreNLP result
+            List<Future<HybridNLPProcessor.SentimentResult>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(pool.submit(() -> hybridNLPProcessor.analyzeSentiment("")));
+            }
+            long deadline = System.currentTimeMillis() + 10000;
+            while (hybridNLPProcessor.getCoalescedRequestCount() < callers - 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            // Then
+            HybridNLPProcessor.SentimentResult first = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<HybridNLPProcessor.SentimentResult> future : futures) {
+                assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals("Hybrid (CoreNLP + LLM)", first.getSource());
+            assertEquals(callers - 1, hybridNLPProcessor.getCoalescedRequestCount());
+            verify(llmVerificationService, times(1)).verifySentiment(anyString());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAnalyzeSentiment_CircuitOpenSkipsLLM() {
+        // Given
+        when(llmVerificationService.isAvailable()).thenReturn(false);
+
+        // When - empty text always yields a low-confidence CoreNLP result
+        HybridNLPProcessor.SentimentResult result = hybridNLPProcessor.analyzeSentiment("");
+
+        // Then
+        assertEquals("CoreNLP (LLM fallback)", result.getSource());
+        verify(llmVerificationService, never()).verifySentiment(anyString());
+    }
+
+    @Test
+    void testAnalyzeSentimentProvisional_LowConfidenceDefersLLM() {
+        // When - empty text always yields a low-confidence CoreNLP result
+        HybridNLPProcessor.SentimentResult provisional = hybridNLPProcessor.analyzeSentimentProvisional("");
+
+        // Then
+        assertTrue(provisional.isProvisional());
+        assertEquals(SentimentLabel.NEUTRAL, provisional.getSentiment());
+        verify(llmVerificationService, never()).verifySentiment(anyString());
+    }
+
+    @Test
+    void testCompleteProvisional_UsesLLMResult() {
+        // Given
+        HybridNLPProcessor.SentimentResult provisional = new HybridNLPProcessor.SentimentResult(
+            SentimentLabel.NEUTRAL, 0.5, HybridNLPProcessor.PROVISIONAL_SOURCE);
+        when(llmVerificationService.verifySentiment("The service is okay."))
+            .thenReturn(new LLMVerificationService.LLMSentimentResult(SentimentLabel.POSITIVE, 0.8, true));
+
+        // When
+        HybridNLPProcessor.SentimentResult result =
+            hybridNLPProcessor.completeProvisional("The service is okay.", provisional);
+
+        // Then
+        assertFalse(result.isProvisional());
+        assertEquals(SentimentLabel.POSITIVE, result.getSentiment());
+        assertEquals("Hybrid (CoreNLP + LLM)", result.getSource());
+    }
+
+    @Test
+    void testAnalyzeSentimentBatch_PreservesInputOrder() {
+        // Given
+        List<String> texts = Arrays.asList(
+            "I absolutely love this amazing product! It's fantastic!",
+            "This is terrible and absolutely awful. I hate it!",
+            ""
+        );
+        when(llmVerificationService.verifySentimentBatch(anyList())).thenAnswer(invocation -> {
+            List<String> lowConfidence = invocation.getArgument(0);
+            return lowConfidence.stream()
+                .map(t -> new LLMVerificationService.LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false))
+                .collect(Collectors.toList());
+        });
+
+        // When
+        List<HybridNLPProcessor.SentimentResult> results = hybridNLPProcessor.analyzeSentimentBatch(texts);
+
+        // Then
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getSentiment() == SentimentLabel.POSITIVE
+                   || results.get(0).getSentiment() == SentimentLabel.VERY_POSITIVE);
+        assertTrue(results.get(1).getSentiment().isNegative());
+        assertEquals(SentimentLabel.NEUTRAL, results.get(2).getSentiment());
+        verify(llmVerificationService, never()).verifySentiment(anyString());
+    }
+
+    @Test
+    void testAnalyzeSentimentBatch_EmptyInput() {
+        // When
+        List<HybridNLPProcessor.SentimentResult> results =
+            hybridNLPProcessor.analyzeSentimentBatch(Collections.emptyList());
+
+        // Then
+        assertTrue(results.isEmpty());
+        verifyNoInteractions(llmVerificationService);
+    }
+
     @Test
     void testSentimentResult_GettersWork() {
         // Given
         HybridNLPProcessor.SentimentResult result = 
-            new HybridNLPProcessor.SentimentResult("Positive", 0.85, "CoreNLP");
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.85, "CoreNLP");
 
         // Then
-        assertEquals("Positive", result.getSentiment());
+        assertEquals(SentimentLabel.POSITIVE, result.getSentiment());
         assertEquals(0.85, result.getConfidence());
         assertEquals("CoreNLP", result.getSource());
     }
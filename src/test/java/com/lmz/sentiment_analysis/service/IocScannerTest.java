@@ -0,0 +1,120 @@
+package com.lmz.sentiment_analysis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IocScanner.
+ * Tests each indicator type, offsets, and text that must not be reported.
+ */
+class IocScannerTest {
+
+    @Test
+    void testFindAll_AddressesWithPortsAndLabels() {
+        // Given
+        String text = "C2 at 185.220.101.4:443, ip:10.0.0.5 and fe80::1%eth0.";
+
+        // Then
+        assertEquals(List.of("IPV4:185.220.101.4@6-19", "IPV4:10.0.0.5@28-36", "IPV6:fe80::1@41-48"),
+            describe(text));
+    }
+
+    @Test
+    void testFindAll_Ipv6Forms() {
+        // Given
+        String text = "2001:db8:85a3:0:0:8a2e:370:7334 ::1 ::ffff:192.168.1.1 2001:db8::8a2e:370:7334";
+
+        // When
+        List<IocScanner.Indicator> indicators = IocScanner.findAll(text);
+
+        // Then
+        assertEquals(4, indicators.size());
+        assertTrue(indicators.stream().allMatch(indicator -> indicator.getType() == IocScanner.Type.IPV6));
+        assertEquals("::ffff:192.168.1.1", indicators.get(2).getValue());
+    }
+
+    @Test
+    void testFindAll_UrlsExcludeTrailingPunctuation() {
+        // Given
+        String text = "Payload at http://evil-cdn.com/payload.bin?id=1, mirror (HTTPS://x.org/a).";
+
+        // Then
+        assertEquals(List.of("URL:http://evil-cdn.com/payload.bin?id=1@11-47", "URL:HTTPS://x.org/a@57-72"),
+            describe(text));
+    }
+
+    @Test
+    void testFindAll_HashesByLength() {
+        // Given
+        String text = "md5 44d88612fea8a8f36de82e1278abb02f sha1:3395856ce81f2b7382dee72602f798b642f14140, "
+            + "sha256=e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855.";
+
+        // When
+        List<IocScanner.Indicator> indicators = IocScanner.findAll(text);
+
+        // Then
+        assertEquals(3, indicators.size());
+        assertEquals(IocScanner.Type.MD5, indicators.get(0).getType());
+        assertEquals(IocScanner.Type.SHA1, indicators.get(1).getType());
+        assertEquals(IocScanner.Type.SHA256, indicators.get(2).getType());
+        assertEquals(64, indicators.get(2).getValue().length());
+    }
+
+    @Test
+    void testFindAll_CveIdsAndDomains() {
+        // Given
+        String text = "Patch CVE-2021-44228 and cve-2023-1234567; report to admin@bad-domain.net or Example.COM.";
+
+        // Then
+        assertEquals(List.of("CVE:CVE-2021-44228@6-20", "CVE:cve-2023-1234567@25-41",
+            "DOMAIN:bad-domain.net@59-73", "DOMAIN:Example.COM@77-88"), describe(text));
+    }
+
+    @Test
+    void testFindAll_IgnoresLookalikes() {
+        // Given - versions, times, MAC addresses, out-of-range octets, file names, abbreviations
+        String text = "Version 1.2.3 at 10:30:00, MAC 00:1a:2b:3c:4d:5e, 256.1.1.1, 1.2.3.4.5, "
+            + "report.pdf and setup.exe, e.g. i.e. CVE-21-1, évil.com, a 31-char 44d88612fea8a8f36de82e1278abb02";
+
+        // Then
+        assertTrue(IocScanner.findAll(text).isEmpty());
+    }
+
+    @Test
+    void testFindAll_CodeAndRunOnSentencesAreNotDomains() {
+        // Given - identifiers and sentences missing a space after the period
+        String text = "(New-Object System.Net.WebClient).DownloadString, os.path.join(base), "
+            + "Mr.Smith replied hi.Then left, user.Name";
+
+        // Then
+        assertTrue(IocScanner.findAll(text).isEmpty());
+    }
+
+    @Test
+    void testFindAll_DomainsNeedAKnownTopLevelDomain() {
+        // Given - .sh and .py are country codes as well as file extensions
+        String text = "Staged on evil.sh and tools.py, then payload.top and CDN.XYZ, not loader.bin or x.corp";
+
+        // Then
+        assertEquals(List.of("DOMAIN:evil.sh@10-17", "DOMAIN:tools.py@22-30", "DOMAIN:payload.top@37-48",
+            "DOMAIN:CDN.XYZ@53-60"), describe(text));
+    }
+
+    @Test
+    void testFindAll_OffsetsPointIntoText() {
+        // Given
+        String text = "Beacon to update-check.net from 10.1.2.3";
+
+        // Then
+        for (IocScanner.Indicator indicator : IocScanner.findAll(text)) {
+            assertEquals(indicator.getValue(), text.substring(indicator.getStart(), indicator.getEnd()));
+        }
+    }
+
+    private static List<String> describe(String text) {
+        return IocScanner.findAll(text).stream().map(IocScanner.Indicator::toString).toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.lmz.sentiment_analysis.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LLMCircuitBreaker.
+ * Uses a manual clock to drive the open/half-open/closed transitions.
+ */
+class LLMCircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+    private LLMCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new LLMCircuitBreaker(4, 4, 0.5, 0.5, Duration.ofSeconds(1),
+                                        Duration.ofSeconds(30), 2, clock::get);
+    }
+
+    @Test
+    void testOpensAtFailureRateThreshold() {
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        breaker.onError(FAST);
+        assertEquals(LLMCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onError(FAST);
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1, breaker.getNotPermittedCount());
+    }
+
+    @Test
+    void testOpensAtSlowCallRateThreshold() {
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testStaysClosedBelowMinimumCalls() {
+        breaker.onError(FAST);
+        breaker.onError(FAST);
+        breaker.onError(FAST);
+
+        assertEquals(LLMCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterHealthyTrialCalls() {
+        openBreaker();
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertEquals(LLMCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        assertEquals(LLMCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenReopensAfterFailedTrialCalls() {
+        openBreaker();
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onError(FAST);
+        breaker.onSuccess(FAST);
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(FAST);
+        }
+        assertEquals(LLMCircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,141 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LLMMicroBatcher.
+ * Tests size- and time-based flushing and fan-out of batched results.
+ */
+class LLMMicroBatcherTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    // The result the verifier produced for each text
+    private final Map<String, LLMVerificationService.LLMSentimentResult> resultsByText = new ConcurrentHashMap<>();
+    private LLMMicroBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    private List<LLMVerificationService.LLMSentimentResult> echoVerifier(List<String> texts) {
+        batches.add(new ArrayList<>(texts));
+        List<LLMVerificationService.LLMSentimentResult> results = new ArrayList<>();
+        for (String text : texts) {
+            LLMVerificationService.LLMSentimentResult result =
+                new LLMVerificationService.LLMSentimentResult(SentimentLabel.POSITIVE, 0.9, true);
+            resultsByText.put(text, result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Test
+    void testSubmit_BatchesUpToMaxItems() throws Exception {
+        // Given
+        batcher = new LLMMicroBatcher(this::echoVerifier, 5, 500, 100, 2);
+
+        // When
+        List<CompletableFuture<LLMVerificationService.LLMSentimentResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.submit("text-" + i));
+        }
+
+        // Then - every caller receives the result for its own text
+        for (int i = 0; i < 10; i++) {
+            assertSame(resultsByText.get("text-" + i), futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 5));
+        assertTrue(batches.size() < 10);
+    }
+
+    @Test
+    void testSubmit_FlushesSingleItemAfterMaxWait() throws Exception {
+        // Given
+        batcher = new LLMMicroBatcher(this::echoVerifier, 50, 20, 100, 1);
+
+        // When
+        LLMVerificationService.LLMSentimentResult result =
+            batcher.submit("alone").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertSame(resultsByText.get("alone"), result);
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void testSubmit_VerifierFailureCompletesWithFallback() throws Exception {
+        // Given
+        batcher = new LLMMicroBatcher(texts -> {
+            throw new IllegalStateException("boom");
+        }, 5, 10, 100, 1);
+
+        // When
+        LLMVerificationService.LLMSentimentResult result =
+            batcher.submit("text").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    void testSubmit_QueueFullReturnsNull() {
+        // Given - collector blocks in the verifier so the queue fills up
+        batcher = new LLMMicroBatcher(texts -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return echoVerifier(texts);
+        }, 1, 1, 1, 1);
+
+        // When
+        boolean rejected = false;
+        for (int i = 0; i < 10 && !rejected; i++) {
+            rejected = batcher.submit("text-" + i) == null;
+        }
+
+        // Then
+        assertTrue(rejected);
+    }
+
+    @Test
+    void testShutdown_FailsQueuedTexts() throws Exception {
+        // Given - the only dispatch slot is busy, so the second text stays queued
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = new LLMMicroBatcher(texts -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return echoVerifier(texts);
+        }, 1, 1, 10, 1);
+        batcher.submit("first");
+        CompletableFuture<LLMVerificationService.LLMSentimentResult> queued = batcher.submit("second");
+
+        // When
+        batcher.shutdown();
+        release.countDown();
+
+        // Then - the waiting caller gets a fallback instead of hanging, and new texts are refused
+        assertFalse(queued.get(1, TimeUnit.SECONDS).isSuccess());
+        assertNull(batcher.submit("third"));
+    }
+}
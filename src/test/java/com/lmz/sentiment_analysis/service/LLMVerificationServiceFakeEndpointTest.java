@@ -0,0 +1,209 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the circuit breaker and bulkhead in LLMVerificationService
+ * against a local fake OpenAI chat completions endpoint.
+ */
+class LLMVerificationServiceFakeEndpointTest {
+
+    private static final String OK_BODY = "{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\","
+        + "\"created\":1700000000,\"model\":\"gpt-3.5-turbo\",\"choices\":[{\"index\":0,"
+        + "\"message\":{\"role\":\"assistant\",\"content\":\"Positive\\n0.9\"},\"finish_reason\":\"stop\"}],"
+        + "\"usage\":{\"prompt_tokens\":1,\"completion_tokens\":1,\"total_tokens\":2}}";
+
+    private static final String ERROR_BODY = "{\"error\":{\"message\":\"overloaded\",\"type\":\"server_error\"}}";
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis = 0;
+    private volatile CountDownLatch gate;
+
+    private LLMVerificationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+
+        service = new LLMVerificationService();
+        ReflectionTestUtils.setField(service, "apiKey", "fake-key");
+        ReflectionTestUtils.setField(service, "model", "gpt-3.5-turbo");
+        ReflectionTestUtils.setField(service, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        ReflectionTestUtils.setField(service, "timeoutSeconds", 5L);
+        ReflectionTestUtils.setField(service, "breakerWindowSize", 4);
+        ReflectionTestUtils.setField(service, "breakerMinimumCalls", 4);
+        ReflectionTestUtils.setField(service, "breakerSlowCallMillis", 200L);
+        ReflectionTestUtils.setField(service, "breakerOpenMillis", 60000L);
+        ReflectionTestUtils.setField(service, "bulkheadMaxConcurrentCalls", 2);
+        ReflectionTestUtils.setField(service, "bulkheadMaxWaitMillis", 10L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (gate != null) {
+                gate.await(5, TimeUnit.SECONDS);
+            }
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = (status == 200 ? OK_BODY : ERROR_BODY).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Test
+    void testHealthyEndpoint_ReturnsParsedResult() {
+        LLMVerificationService.LLMSentimentResult result = service.verifySentiment("Nice work");
+
+        assertTrue(result.isSuccess());
+        assertEquals(SentimentLabel.POSITIVE, result.getSentiment());
+        assertEquals(0.9, result.getConfidence());
+        assertEquals(LLMCircuitBreaker.State.CLOSED, service.getCircuitState());
+    }
+
+    @Test
+    void testFailingEndpoint_OpensBreakerAndStopsCalling() {
+        status = 500;
+
+        for (int i = 0; i < 4; i++) {
+            assertFalse(service.verifySentiment("text " + i).isSuccess());
+        }
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, service.getCircuitState());
+        assertFalse(service.isAvailable());
+
+        // While open, calls fail fast without reaching the endpoint
+        assertFalse(service.verifySentiment("another").isSuccess());
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    void testSlowEndpoint_OpensBreaker() {
+        delayMillis = 300;
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(service.verifySentiment("text " + i).isSuccess());
+        }
+
+        assertEquals(LLMCircuitBreaker.State.OPEN, service.getCircuitState());
+    }
+
+    @Test
+    void testOpenBreaker_FailsFastWithoutWaitingForBulkhead() {
+        status = 500;
+        for (int i = 0; i < 4; i++) {
+            service.verifySentiment("text " + i);
+        }
+        assertEquals(LLMCircuitBreaker.State.OPEN, service.getCircuitState());
+
+        // Every call slot is taken and a caller that reached the bulkhead would wait 5 s for one
+        Semaphore bulkhead = (Semaphore) ReflectionTestUtils.getField(service, "bulkhead");
+        bulkhead.drainPermits();
+        ReflectionTestUtils.setField(service, "bulkheadMaxWaitMillis", 5000L);
+
+        long start = System.nanoTime();
+        assertFalse(service.verifySentiment("another").isSuccess());
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, service.getBulkheadRejectionCount());
+    }
+
+    @Test
+    void testMicroBatchResultTimeout_DefaultsToCallTimeoutPlusWaits() {
+        // 5 s per-call timeout + 50 ms batch window + 10 ms bulkhead wait
+        assertEquals(5060L, ReflectionTestUtils.getField(service, "microBatchResultTimeoutMillis"));
+    }
+
+    @Test
+    void testBulkhead_RejectsCallsBeyondConcurrencyLimit() throws Exception {
+        gate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<LLMVerificationService.LLMSentimentResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(callers.submit(() -> service.verifySentiment("text")));
+            }
+
+            // The third caller cannot get a slot while two calls are blocked in the endpoint
+            long deadline = System.currentTimeMillis() + 5000;
+            while (service.getBulkheadRejectionCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            gate.countDown();
+
+            int successes = 0;
+            for (Future<LLMVerificationService.LLMSentimentResult> future : futures) {
+                if (future.get(10, TimeUnit.SECONDS).isSuccess()) {
+                    successes++;
+                }
+            }
+            assertEquals(1, service.getBulkheadRejectionCount());
+            assertEquals(2, successes);
+            assertEquals(2, requests.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBatch_FailedCall_FailsChunkWithoutSingleRetries() {
+        status = 500;
+
+        List<LLMVerificationService.LLMSentimentResult> results =
+            service.verifySentimentBatch(List.of("first", "second", "third"));
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().noneMatch(LLMVerificationService.LLMSentimentResult::isSuccess));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testBatch_UnparseableResponse_VerifiesItemsIndividually() {
+        // The fake endpoint answers in the single-item format, which covers no numbered line
+        List<LLMVerificationService.LLMSentimentResult> results =
+            service.verifySentimentBatch(List.of("first", "second", "third"));
+
+        assertTrue(results.stream().allMatch(LLMVerificationService.LLMSentimentResult::isSuccess));
+        assertEquals(1 + 3, requests.get());
+    }
+}
@@ -1,9 +1,13 @@
 package com.lmz.sentiment_analysis.service;
 
+import com.lmz.sentiment_analysis.model.SentimentLabel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -37,14 +41,42 @@ class LLMVerificationServiceTest {
         assertTrue(result.getConfidence() >= 0 && result.getConfidence() <= 1);
     }
 
+    @Test
+    void testVerifySentimentBatch_WithTestKey_ReturnsFallbackPerItem() {
+        // When
+        List<LLMVerificationService.LLMSentimentResult> results =
+            llmVerificationService.verifySentimentBatch(Arrays.asList("first", "second", "third"));
+
+        // Then
+        assertEquals(3, results.size());
+        results.forEach(result -> assertFalse(result.isSuccess()));
+    }
+
+    @Test
+    void testParseBatchResponse_NumberedLines() {
+        // Given
+        String response = "1. Very Positive | 0.92\n2) Negative | 0.8\nnot a result line\n3. Neutral | 0.6";
+        LLMVerificationService.LLMSentimentResult[] parsed = new LLMVerificationService.LLMSentimentResult[4];
+
+        // When
+        llmVerificationService.parseBatchResponse(response, parsed);
+
+        // Then
+        assertEquals(SentimentLabel.VERY_POSITIVE, parsed[0].getSentiment());
+        assertEquals(0.92, parsed[0].getConfidence());
+        assertEquals(SentimentLabel.NEGATIVE, parsed[1].getSentiment());
+        assertEquals(SentimentLabel.NEUTRAL, parsed[2].getSentiment());
+        assertNull(parsed[3]);
+    }
+
     @Test
     void testLLMSentimentResult_Getters() {
         // Given
         LLMVerificationService.LLMSentimentResult result = 
-            new LLMVerificationService.LLMSentimentResult("Positive", 0.85, true);
+            new LLMVerificationService.LLMSentimentResult(SentimentLabel.POSITIVE, 0.85, true);
 
         // Then
-        assertEquals("Positive", result.getSentiment());
+        assertEquals(SentimentLabel.POSITIVE, result.getSentiment());
         assertEquals(0.85, result.getConfidence());
         assertTrue(result.isSuccess());
     }
@@ -53,10 +85,10 @@ class LLMVerificationServiceTest {
     void testLLMSentimentResult_FailureCase() {
         // Given
         LLMVerificationService.LLMSentimentResult result = 
-            new LLMVerificationService.LLMSentimentResult("Neutral", 0.5, false);
+            new LLMVerificationService.LLMSentimentResult(SentimentLabel.NEUTRAL, 0.5, false);
 
         // Then
-        assertEquals("Neutral", result.getSentiment());
+        assertEquals(SentimentLabel.NEUTRAL, result.getSentiment());
         assertEquals(0.5, result.getConfidence());
         assertFalse(result.isSuccess());
     }
@@ -0,0 +1,98 @@
+package com.lmz.sentiment_analysis.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MinHashLshIndex.
+ * Tests similarity estimation, near-duplicate lookup, and size and time bounds.
+ */
+class MinHashLshIndexTest {
+
+    private static final String SPAM =
+        "Amazing deal!!! Get 1000 followers for just $5, visit cheap-followers dot com right now and grow fast";
+
+    private final AtomicLong now = new AtomicLong();
+    private MinHashLshIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MinHashLshIndex<>(3, Duration.ofMinutes(10), 0.8, now::get);
+    }
+
+    @Test
+    void testSignature_IgnoresCasePunctuationAndWhitespace() {
+        // Given
+        int[] original = MinHashLshIndex.signature(SPAM);
+        int[] variant = MinHashLshIndex.signature(
+            "amazing deal  Get 1000 followers for just 5 -- visit cheap followers dot com right now and grow fast!!");
+
+        // Then
+        assertEquals(1.0, MinHashLshIndex.similarity(original, variant));
+    }
+
+    @Test
+    void testSignature_TooShortText_ReturnsNull() {
+        assertNull(MinHashLshIndex.signature("ok!!"));
+    }
+
+    @Test
+    void testFindSimilar_OneWordChanged_Matches() {
+        // Given
+        index.add(MinHashLshIndex.signature(SPAM), "cluster-1");
+
+        // When
+        MinHashLshIndex.Match<String> match = index.findSimilar(MinHashLshIndex.signature(
+            "Amazing deal!!! Get 1000 followers for just $5, visit cheap-followers dot com right now and grow quickly"));
+
+        // Then
+        assertNotNull(match);
+        assertEquals("cluster-1", match.getValue());
+        assertTrue(match.getSimilarity() >= 0.8);
+    }
+
+    @Test
+    void testFindSimilar_UnrelatedText_NoMatch() {
+        // Given
+        index.add(MinHashLshIndex.signature(SPAM), "cluster-1");
+
+        // Then
+        assertNull(index.findSimilar(MinHashLshIndex.signature(
+            "The delivery was late but the support team was friendly and refunded the shipping cost")));
+    }
+
+    @Test
+    void testAdd_EvictsOldestBeyondMaxEntries() {
+        // Given
+        index.add(MinHashLshIndex.signature(SPAM), "cluster-1");
+        index.add(MinHashLshIndex.signature("The delivery was late but the support team was friendly"), "cluster-2");
+        index.add(MinHashLshIndex.signature("I have been using this blender every morning for a year"), "cluster-3");
+
+        // When
+        index.add(MinHashLshIndex.signature("Battery life is shorter than advertised on the product page"), "cluster-4");
+
+        // Then
+        assertEquals(3, index.size());
+        assertEquals(1, index.getEvictions());
+        assertNull(index.findSimilar(MinHashLshIndex.signature(SPAM)));
+    }
+
+    @Test
+    void testFindSimilar_ExpiredEntry_NoMatch() {
+        // Given
+        index.add(MinHashLshIndex.signature(SPAM), "cluster-1");
+
+        // When
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        // Then
+        assertNull(index.findSimilar(MinHashLshIndex.signature(SPAM)));
+        assertEquals(0, index.size());
+        assertEquals(1, index.getEvictions());
+    }
+}
@@ -0,0 +1,97 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NearDuplicateDetector.
+ * Tests which similar texts may share a cluster's sentiment.
+ */
+class NearDuplicateDetectorTest {
+
+    private static final String REVIEW =
+        "The delivery arrived on Tuesday and the package was good, the courier left it at the front door of the house";
+
+    private static final HybridNLPProcessor.SentimentResult POSITIVE =
+        new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP");
+
+    private NearDuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        detector = new NearDuplicateDetector();
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        // Low enough that every variant below is found in the index, so only the word check decides
+        ReflectionTestUtils.setField(detector, "threshold", 0.5);
+        detector.init();
+        detector.startCluster(REVIEW, "review-hash", POSITIVE);
+    }
+
+    @Test
+    void testFindCluster_NeutralWordAndPunctuationChanged_JoinsCluster() {
+        // When
+        NearDuplicateDetector.Cluster cluster = detector.findCluster(
+            "the delivery arrived on Wednesday -- and the package was GOOD; the courier left it at the front door of the house!!");
+
+        // Then
+        assertNotNull(cluster);
+        assertEquals("review-hash", cluster.getId());
+        assertEquals(1, detector.getHits());
+    }
+
+    @Test
+    void testFindCluster_NegationAdded_IsRejected() {
+        // When
+        NearDuplicateDetector.Cluster cluster = detector.findCluster(
+            "The delivery arrived on Tuesday and the package wasn't good, the courier left it at the front door of the house");
+
+        // Then
+        assertNull(cluster);
+        assertEquals(1, detector.getRejections());
+        assertEquals(0, detector.getHits());
+    }
+
+    @Test
+    void testFindCluster_SentimentWordChanged_IsRejected() {
+        // When
+        NearDuplicateDetector.Cluster cluster = detector.findCluster(
+            "The delivery arrived on Tuesday and the package was damaged, the courier left it at the front door of the house");
+
+        // Then
+        assertNull(cluster);
+        assertEquals(1, detector.getRejections());
+    }
+
+    @Test
+    void testSentimentBearingChange_InflectedListedWord_IsDetected() {
+        assertEquals("loved", detector.sentimentBearingChange(Set.of("i", "loved", "it"), Set.of("i", "it")));
+        assertEquals("never", detector.sentimentBearingChange(Set.of("i", "it"), Set.of("i", "never", "it")));
+        assertNull(detector.sentimentBearingChange(Set.of("see", "you", "monday"), Set.of("see", "you", "friday")));
+    }
+
+    @Test
+    void testWordsOf_KeepsContractionsAndFoldsCase() {
+        assertEquals(Set.of("it", "isn't", "bad"), NearDuplicateDetector.wordsOf("It ISN’T bad!"));
+    }
+
+    @Test
+    void testDisabledByDefault_NeverMatches() throws Exception {
+        // Given
+        NearDuplicateDetector defaults = new NearDuplicateDetector();
+        defaults.init();
+
+        // When
+        String clusterId = defaults.startCluster(REVIEW, "review-hash", POSITIVE);
+
+        // Then
+        assertNull(clusterId);
+        assertNull(defaults.findCluster(REVIEW));
+        assertEquals(0, defaults.getIndexSize());
+    }
+}
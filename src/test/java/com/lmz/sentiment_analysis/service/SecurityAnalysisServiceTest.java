@@ -1,7 +1,10 @@
 package com.lmz.sentiment_analysis.service;
 
+import com.lmz.sentiment_analysis.model.SentimentLabel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.task.SyncTaskExecutor;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,7 +18,9 @@ class SecurityAnalysisServiceTest {
 
     @BeforeEach
     void setUp() {
-        securityAnalysisService = new SecurityAnalysisService();
+        ThreatRuleRegistry ruleRegistry = new ThreatRuleRegistry(new DefaultResourceLoader(), new SyncTaskExecutor());
+        ruleRegistry.init();
+        securityAnalysisService = new SecurityAnalysisService(ruleRegistry);
     }
 
     @Test
@@ -85,7 +90,7 @@ class SecurityAnalysisServiceTest {
         // Given
         String report = "Severe breach detected. Critical vulnerability exploited. " +
                        "Malware infection spreading rapidly.";
-        String sentiment = "Very negative";
+        SentimentLabel sentiment = SentimentLabel.VERY_NEGATIVE;
 
         // When
         SecurityAnalysisService.ThreatAnalysisResult result = 
@@ -104,7 +109,7 @@ class SecurityAnalysisServiceTest {
     void testAnalyzeThreatReport_WithPositiveSentiment() {
         // Given
         String report = "Security patch successfully deployed. All systems secure.";
-        String sentiment = "Positive";
+        SentimentLabel sentiment = SentimentLabel.POSITIVE;
 
         // When
         SecurityAnalysisService.ThreatAnalysisResult result = 
@@ -151,4 +156,80 @@ class SecurityAnalysisServiceTest {
         assertEquals(75, result.getThreatScore());
         assertEquals(2, result.getDetectedThreats().size());
     }
+
+    @Test
+    void testAnalyzeSecurityContent_ScoresEachCategoryAndKeywordOnce() {
+        // Given - two malware terms, one intrusion term, "critical" twice and "immediate"
+        String text = "Critical vulnerability detected. Immediate exploit available for ransomware attack. Critical!";
+
+        // When
+        SecurityAnalysisService.SecurityAnalysisResult result =
+            securityAnalysisService.analyzeSecurityContent(text);
+
+        // Then
+        assertEquals(20 + 20 + 10 + 10, result.getThreatScore());
+        assertEquals(SecurityAnalysisService.RiskLevel.CRITICAL, result.getRiskLevel());
+        assertEquals(java.util.List.of("vulnerability", "exploit", "ransomware", "attack"), result.getDetectedThreats());
+    }
+
+    @Test
+    void testAnalyzeSecurityContent_MaliciousTermsMatchWholeWordsOnly() {
+        // Given - "hackathon" and "attacked" are not the whole words "hack" and "attack"
+        String text = "Our hackathon team attacked the backlog";
+
+        // When
+        SecurityAnalysisService.SecurityAnalysisResult result =
+            securityAnalysisService.analyzeSecurityContent(text);
+
+        // Then
+        assertFalse(result.isThreat());
+        assertEquals(0, result.getThreatScore());
+    }
+
+    @Test
+    void testAnalyzeSecurityContent_CriticalKeywordsMatchInsideWords() {
+        // Given - as with the earlier contains() check, "updated" counts as "update"
+        String text = "The firmware was updated last week";
+
+        // When
+        SecurityAnalysisService.SecurityAnalysisResult result =
+            securityAnalysisService.analyzeSecurityContent(text);
+
+        // Then
+        assertEquals(10, result.getThreatScore());
+        assertFalse(result.isThreat());
+    }
+
+    @Test
+    void testAnalyzeSecurityContent_ReturnsMatchOffsets() {
+        // Given
+        String text = "New RANSOMWARE strain";
+
+        // When
+        SecurityAnalysisService.SecurityAnalysisResult result =
+            securityAnalysisService.analyzeSecurityContent(text);
+
+        // Then
+        assertEquals(1, result.getMatches().size());
+        ThreatKeywordMatcher.Match match = result.getMatches().get(0);
+        assertEquals("ransomware", match.getTerm());
+        assertEquals("malware", match.getCategory());
+        assertEquals("RANSOMWARE", text.substring(match.getStart(), match.getEnd()));
+    }
+
+    @Test
+    void testAnalyzeThreatReport_ExtractsIndicators() {
+        // Given
+        String report = "Ransomware beacons to 185.220.101.4 and hxxp-free.example.net, exploiting CVE-2024-3094.";
+
+        // When
+        SecurityAnalysisService.ThreatAnalysisResult result =
+            securityAnalysisService.analyzeThreatReport(report, SentimentLabel.NEGATIVE);
+
+        // Then
+        assertEquals(3, result.getIndicators().size());
+        assertEquals(IocScanner.Type.IPV4, result.getIndicators().get(0).getType());
+        assertEquals("hxxp-free.example.net", result.getIndicators().get(1).getValue());
+        assertEquals(IocScanner.Type.CVE, result.getIndicators().get(2).getType());
+    }
 }
@@ -0,0 +1,250 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.SentimentCounter;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import com.lmz.sentiment_analysis.repository.SentimentCount;
+import com.lmz.sentiment_analysis.repository.SentimentCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SentimentCounterService.
+ * The counter repository is backed by an in-memory map standing in for the sentiment_counters table.
+ */
+@ExtendWith(MockitoExtension.class)
+class SentimentCounterServiceTest {
+
+    @Mock
+    private SentimentCounterRepository counterRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, Long> table = new ConcurrentHashMap<>();
+
+    private SentimentCounterService counterService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(counterRepository.findAll()).thenAnswer(invocation -> rows());
+        lenient().when(counterRepository.findAllForUpdate()).thenAnswer(invocation -> rows());
+        lenient().when(counterRepository.addToCount(anyString(), anyLong())).thenAnswer(invocation -> {
+            String label = invocation.getArgument(0);
+            long delta = invocation.getArgument(1);
+            return table.computeIfPresent(label, (key, count) -> count + delta) != null ? 1 : 0;
+        });
+        lenient().when(counterRepository.save(any(SentimentCounter.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        lenient().when(counterRepository.saveAndFlush(any(SentimentCounter.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+
+        counterService = new SentimentCounterService(counterRepository, commentRepository,
+                                                     jdbcTemplate, new TransactionTemplate(transactionManager));
+    }
+
+    private List<SentimentCounter> rows() {
+        List<SentimentCounter> rows = new ArrayList<>();
+        table.forEach((label, count) -> rows.add(new SentimentCounter(label, count)));
+        return rows;
+    }
+
+    private SentimentCounter store(SentimentCounter counter) {
+        table.put(counter.getLabel(), counter.getCommentCount());
+        return counter;
+    }
+
+    @Test
+    void testGetDistribution_IncludesUnflushedChangesWithoutDatabaseReads() {
+        // Given
+        table.put("Positive", 3L);
+        table.put("Negative", 1L);
+        counterService.initialize();
+        clearInvocations(counterRepository);
+
+        // When
+        counterService.increment(SentimentLabel.POSITIVE);
+        counterService.increment(SentimentLabel.NEUTRAL);
+        counterService.decrement(SentimentLabel.NEGATIVE);
+        Map<String, Long> distribution = counterService.getDistribution();
+
+        // Then
+        assertEquals(4L, distribution.get("Positive"));
+        assertEquals(1L, distribution.get("Neutral"));
+        assertFalse(distribution.containsKey("Negative"));
+        verifyNoInteractions(counterRepository);
+    }
+
+    @Test
+    void testFlush_WritesDeltasOnceAndInsertsNewLabels() {
+        // Given
+        table.put("Positive", 3L);
+        counterService.initialize();
+        counterService.increment(SentimentLabel.POSITIVE);
+        counterService.increment(SentimentLabel.POSITIVE);
+        counterService.increment(SentimentLabel.VERY_NEGATIVE);
+
+        // When
+        counterService.flush();
+        counterService.flush();
+
+        // Then
+        assertEquals(5L, table.get("Positive"));
+        assertEquals(1L, table.get("Very negative"));
+        verify(counterRepository, times(1)).addToCount("Positive", 2L);
+        assertEquals(5L, counterService.getDistribution().get("Positive"));
+    }
+
+    @Test
+    void testFlush_PicksUpOtherNodesChanges() {
+        // Given
+        table.put("Positive", 3L);
+        counterService.initialize();
+        counterService.increment(SentimentLabel.POSITIVE);
+
+        // When - another node flushed two comments in the meantime
+        table.put("Positive", 5L);
+        counterService.flush();
+
+        // Then
+        assertEquals(6L, table.get("Positive"));
+        assertEquals(6L, counterService.getDistribution().get("Positive"));
+    }
+
+    @Test
+    void testMove_ShiftsOneCommentBetweenLabels() {
+        // Given
+        table.put("Neutral", 2L);
+        counterService.initialize();
+
+        // When
+        counterService.move(SentimentLabel.NEUTRAL, SentimentLabel.POSITIVE);
+        counterService.move(SentimentLabel.POSITIVE, SentimentLabel.POSITIVE);
+        counterService.flush();
+
+        // Then
+        assertEquals(1L, table.get("Neutral"));
+        assertEquals(1L, table.get("Positive"));
+    }
+
+    @Test
+    void testInitialize_EmptyTableIsBuiltFromComments() {
+        // Given
+        when(commentRepository.countBySentiment()).thenReturn(Arrays.asList(
+            count(SentimentLabel.POSITIVE, 7), count(SentimentLabel.NEGATIVE, 2)));
+
+        // When
+        counterService.initialize();
+
+        // Then
+        assertEquals(7L, table.get("Positive"));
+        assertEquals(2L, table.get("Negative"));
+        assertEquals(Map.of("Positive", 7L, "Negative", 2L), counterService.getDistribution());
+    }
+
+    @Test
+    void testReconcile_CorrectsDriftedCounters() {
+        // Given
+        table.put("Positive", 10L);
+        table.put("Neutral", 4L);
+        counterService.initialize();
+        when(commentRepository.countBySentiment()).thenReturn(Arrays.asList(
+            count(SentimentLabel.POSITIVE, 8), count(SentimentLabel.NEUTRAL, 4)));
+
+        // When
+        counterService.reconcile();
+
+        // Then
+        assertEquals(8L, table.get("Positive"));
+        assertEquals(4L, table.get("Neutral"));
+        assertEquals(8L, counterService.getDistribution().get("Positive"));
+        verify(counterRepository).addToCount("Positive", -2L);
+        verify(counterRepository, never()).addToCount(eq("Neutral"), anyLong());
+        verify(counterRepository, never()).save(any(SentimentCounter.class));
+    }
+
+    @Test
+    void testReconcile_DoesNotCountUnflushedChangesTwice() {
+        // Given - a comment is saved and counted while the comments are being recounted
+        table.put("Positive", 5L);
+        counterService.initialize();
+        when(commentRepository.countBySentiment()).thenAnswer(invocation -> {
+            counterService.increment(SentimentLabel.POSITIVE);
+            return Arrays.asList(count(SentimentLabel.POSITIVE, 6));
+        });
+
+        // When
+        counterService.reconcile();
+
+        // Then
+        assertEquals(6L, table.get("Positive"));
+        assertEquals(6L, counterService.getDistribution().get("Positive"));
+        // Only the flush of the new comment wrote to the counter, no correction
+        verify(counterRepository, times(1)).addToCount(eq("Positive"), anyLong());
+    }
+
+    @Test
+    void testConcurrentIncrements_AreAllCounted() throws Exception {
+        // Given
+        table.put("Positive", 1L);
+        counterService.initialize();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When - flush repeatedly while writers are running
+        for (int i = 0; i < 8; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    counterService.increment(SentimentLabel.POSITIVE);
+                }
+            });
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(10, TimeUnit.MILLISECONDS)) {
+            counterService.flush();
+        }
+        counterService.flush();
+
+        // Then
+        assertEquals(80001L, table.get("Positive"));
+        assertEquals(80001L, counterService.getDistribution().get("Positive"));
+    }
+
+    private SentimentCount count(SentimentLabel sentiment, long count) {
+        return new SentimentCount() {
+            @Override
+            public SentimentLabel getSentiment() {
+                return sentiment;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SentimentResultCache.
+ * Tests content-addressed keys, the local and shared tiers, and versioning.
+ */
+class SentimentResultCacheTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private SentimentResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager();
+        cache = new SentimentResultCache(cacheManager, "engine-1", "model-1", 2);
+    }
+
+    @Test
+    void testGet_MissThenLocalHit() {
+        // Given
+        HybridNLPProcessor.SentimentResult result =
+            new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP", new double[]{0, 0, 0.1, 0.9, 0});
+
+        // When
+        assertNull(cache.get("Great product"));
+        cache.put("Great product", result);
+        HybridNLPProcessor.SentimentResult cached = cache.get("Great product");
+
+        // Then
+        assertNotNull(cached);
+        assertEquals(SentimentLabel.POSITIVE, cached.getSentiment());
+        assertEquals(0.9, cached.getConfidence());
+        assertEquals("CoreNLP", cached.getSource());
+        assertArrayEquals(result.getClassDistribution(), cached.getClassDistribution());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getLocalHits());
+    }
+
+    @Test
+    void testGet_NormalizedWhitespaceSharesEntry() {
+        // Given
+        cache.put("Great   product\n", new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP"));
+
+        // Then
+        assertNotNull(cache.get("  Great product"));
+        assertEquals(TextFingerprint.hash("Great   product\n"), TextFingerprint.hash("Great product"));
+    }
+
+    @Test
+    void testGet_SharedTierHitAfterLocalEviction() {
+        // Given - local tier holds two entries
+        cache.put("one", new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP"));
+        cache.put("two", new HybridNLPProcessor.SentimentResult(SentimentLabel.NEGATIVE, 0.9, "CoreNLP"));
+        cache.put("three", new HybridNLPProcessor.SentimentResult(SentimentLabel.NEUTRAL, 0.9, "CoreNLP"));
+
+        // When
+        HybridNLPProcessor.SentimentResult cached = cache.get("one");
+
+        // Then
+        assertNotNull(cached);
+        assertEquals(SentimentLabel.POSITIVE, cached.getSentiment());
+        assertEquals(1, cache.getSharedHits());
+    }
+
+    @Test
+    void testGet_VersionChangeInvalidatesEntries() {
+        // Given
+        cache.put("Great product", new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.9, "CoreNLP"));
+        SentimentResultCache upgraded = new SentimentResultCache(cacheManager, "engine-2", "model-1", 2);
+
+        // Then
+        assertNull(upgraded.get("Great product"));
+        assertNotEquals(cache.getVersion(), upgraded.getVersion());
+    }
+
+    @Test
+    void testCachedSentiment_JsonKeepsTheDisplayLabel() throws Exception {
+        // Given - an entry as written to the shared tier before sentiments were codes
+        ObjectMapper mapper = new ObjectMapper();
+        String legacy = "{\"sentiment\":\"Very positive\",\"confidence\":0.9,\"source\":\"CoreNLP\"}";
+
+        // When
+        SentimentResultCache.CachedSentiment cached = mapper.readValue(legacy, SentimentResultCache.CachedSentiment.class);
+
+        // Then
+        assertEquals(SentimentLabel.VERY_POSITIVE, cached.getSentiment());
+        assertTrue(mapper.writeValueAsString(cached).contains("\"sentiment\":\"Very positive\""));
+    }
+}
@@ -0,0 +1,145 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.model.SentimentRollup;
+import com.lmz.sentiment_analysis.repository.SentimentRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SentimentTrendService.
+ * Tests bucketing on write, flushing deltas and gap filling.
+ */
+@ExtendWith(MockitoExtension.class)
+class SentimentTrendServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 1, 31, 12, 0);
+
+    @Mock
+    private SentimentRollupRepository rollupRepository;
+
+    private SentimentTrendService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SentimentTrendService(rollupRepository);
+    }
+
+    private Comment comment(SentimentLabel sentiment, double score, LocalDateTime createdAt) {
+        Comment comment = new Comment("text");
+        comment.setSentiment(sentiment);
+        comment.setSentimentScore(score);
+        comment.setCreatedAt(createdAt);
+        return comment;
+    }
+
+    @Test
+    void testGetTrend_MergesRollupsWithUnflushedWritesAndFillsGaps() {
+        // Given
+        when(rollupRepository.findRange(SentimentRollup.Granularity.HOUR, NOON, NOON.plusHours(3)))
+                .thenReturn(List.of(new SentimentRollup(SentimentRollup.Granularity.HOUR, NOON, "Positive", 3, 2.55)));
+        service.record(comment(SentimentLabel.NEGATIVE, 0.30, NOON.plusMinutes(59)));
+        service.record(comment(SentimentLabel.POSITIVE, 0.85, NOON.plusHours(2).plusMinutes(5)));
+
+        // When
+        SentimentTrend trend = service.getTrend(SentimentRollup.Granularity.HOUR, NOON.plusMinutes(10), NOON.plusHours(3));
+
+        // Then - the start is widened to the bucket boundary
+        assertEquals(NOON, trend.getFrom());
+        assertEquals(3, trend.getBuckets().size());
+        SentimentTrend.Bucket first = trend.getBuckets().get(0);
+        assertEquals(3L, first.getCounts().get("Positive"));
+        assertEquals(1L, first.getCounts().get("Negative"));
+        assertEquals(4, first.getTotal());
+        assertEquals((2.55 + 0.30) / 4, first.getAverageScore(), 1e-9);
+        SentimentTrend.Bucket empty = trend.getBuckets().get(1);
+        assertEquals(NOON.plusHours(1), empty.getStart());
+        assertEquals(0, empty.getTotal());
+        assertTrue(empty.getCounts().isEmpty());
+        assertEquals(1L, trend.getBuckets().get(2).getCounts().get("Positive"));
+    }
+
+    @Test
+    void testGetTrend_RejectsTooManyBuckets() {
+        // Given
+        ReflectionTestUtils.setField(service, "maxBuckets", 100);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getTrend(SentimentRollup.Granularity.MINUTE, NOON, NOON.plusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getTrend(SentimentRollup.Granularity.DAY, NOON, NOON));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void testFlush_WritesOneDeltaPerGranularityAndInsertsMissingBuckets() {
+        // Given
+        when(rollupRepository.addToBucket(any(), any(), anyString(), anyLong(), anyDouble())).thenReturn(1);
+        when(rollupRepository.addToBucket(eq(SentimentRollup.Granularity.MINUTE), any(), anyString(), anyLong(), anyDouble()))
+                .thenReturn(0);
+        service.record(comment(SentimentLabel.POSITIVE, 0.85, NOON.plusSeconds(30)));
+        service.record(comment(SentimentLabel.POSITIVE, 0.85, NOON.plusSeconds(40)));
+
+        // When
+        service.flush();
+
+        // Then
+        verify(rollupRepository).addToBucket(SentimentRollup.Granularity.HOUR, NOON, "Positive", 2, 1.7);
+        verify(rollupRepository).addToBucket(SentimentRollup.Granularity.DAY, NOON.toLocalDate().atStartOfDay(),
+                                             "Positive", 2, 1.7);
+        verify(rollupRepository).saveAndFlush(argThat(rollup ->
+                rollup.getGranularity() == SentimentRollup.Granularity.MINUTE && rollup.getCommentCount() == 2));
+    }
+
+    @Test
+    void testFlush_FailedDeltaIsKeptForNextFlush() {
+        // Given
+        when(rollupRepository.addToBucket(any(), any(), anyString(), anyLong(), anyDouble()))
+                .thenThrow(new DataIntegrityViolationException("down"))
+                .thenReturn(1);
+        service.record(comment(SentimentLabel.NEUTRAL, 0.5, NOON));
+
+        // When
+        service.flush();
+        service.flush();
+
+        // Then - one failed attempt, then all three granularities written
+        verify(rollupRepository, times(4)).addToBucket(any(), any(), eq("Neutral"), eq(1L), eq(0.5));
+        when(rollupRepository.findRange(any(), any(), any())).thenReturn(Collections.emptyList());
+        SentimentTrend trend = service.getTrend(SentimentRollup.Granularity.DAY, NOON, NOON.plusHours(1));
+        assertEquals(0, trend.getBuckets().get(0).getTotal());
+    }
+
+    @Test
+    void testMove_ShiftsCountBetweenLabelsInTheCommentsBucket() {
+        // Given
+        when(rollupRepository.findRange(any(), any(), any())).thenReturn(Collections.emptyList());
+        Comment stored = comment(SentimentLabel.NEUTRAL, 0.5, NOON);
+        service.record(stored);
+
+        // When
+        service.move(NOON, SentimentLabel.NEUTRAL, 0.5, SentimentLabel.POSITIVE, 0.85);
+
+        // Then
+        SentimentTrend.Bucket bucket = service.getTrend(SentimentRollup.Granularity.DAY, NOON, NOON.plusHours(1))
+                .getBuckets().get(0);
+        assertNull(bucket.getCounts().get("Neutral"));
+        assertEquals(1L, bucket.getCounts().get("Positive"));
+        assertEquals(0.85, bucket.getAverageScore(), 1e-9);
+    }
+}
@@ -0,0 +1,99 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Comment;
+import com.lmz.sentiment_analysis.model.SentimentLabel;
+import com.lmz.sentiment_analysis.repository.CommentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SentimentUpgradeService.
+ * Tests that provisional comments are updated once background verification finishes.
+ */
+@ExtendWith(MockitoExtension.class)
+class SentimentUpgradeServiceTest {
+
+    @Mock
+    private HybridNLPProcessor hybridNLPProcessor;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private SentimentCounterService sentimentCounterService;
+
+    @Mock
+    private SentimentTrendService sentimentTrendService;
+
+    @Mock
+    private CommentListCache commentListCache;
+
+    private HybridNLPProcessor.SentimentResult provisional;
+    private Comment stored;
+
+    @BeforeEach
+    void setUp() {
+        provisional = new HybridNLPProcessor.SentimentResult(SentimentLabel.NEUTRAL, 0.55, HybridNLPProcessor.PROVISIONAL_SOURCE);
+        stored = new Comment("The service is okay.");
+        stored.setId(7L);
+        stored.setProvisional(true);
+        stored.setSentiment(SentimentLabel.NEUTRAL);
+        stored.setUserId(3L);
+    }
+
+    @Test
+    void testScheduleUpgrade_UpdatesStoredComment() {
+        // Given
+        SentimentUpgradeService service = new SentimentUpgradeService(
+            hybridNLPProcessor, commentRepository, sentimentCounterService, sentimentTrendService, commentListCache, new SyncTaskExecutor());
+        when(hybridNLPProcessor.completeProvisional("The service is okay.", provisional))
+            .thenReturn(new HybridNLPProcessor.SentimentResult(SentimentLabel.POSITIVE, 0.8, "Hybrid (CoreNLP + LLM)"));
+        when(commentRepository.findById(7L)).thenReturn(Optional.of(stored));
+
+        // When
+        service.scheduleUpgrade(7L, "The service is okay.", provisional);
+
+        // Then
+        assertFalse(stored.isProvisional());
+        assertEquals(SentimentLabel.POSITIVE, stored.getSentiment());
+        assertEquals("😊", stored.getEmoji());
+        assertEquals("Hybrid (CoreNLP + LLM)", stored.getSentimentSource());
+        assertEquals(0.8, stored.getSentimentConfidence());
+        verify(commentRepository).save(stored);
+        verify(sentimentCounterService).move(SentimentLabel.NEUTRAL, SentimentLabel.POSITIVE);
+        verify(sentimentTrendService).move(stored.getCreatedAt(), SentimentLabel.NEUTRAL, 0.0, SentimentLabel.POSITIVE, 0.85);
+        verify(commentListCache).evictForUser(3L);
+    }
+
+    @Test
+    void testScheduleUpgrade_QueueFull_FinalizesWithCoreNLPResult() {
+        // Given
+        TaskExecutor rejecting = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+        SentimentUpgradeService service = new SentimentUpgradeService(
+            hybridNLPProcessor, commentRepository, sentimentCounterService, sentimentTrendService, commentListCache, rejecting);
+        when(commentRepository.findById(7L)).thenReturn(Optional.of(stored));
+
+        // When
+        service.scheduleUpgrade(7L, "The service is okay.", provisional);
+
+        // Then
+        assertFalse(stored.isProvisional());
+        assertEquals(SentimentLabel.NEUTRAL, stored.getSentiment());
+        verifyNoInteractions(hybridNLPProcessor);
+        verify(commentRepository).save(any(Comment.class));
+    }
+}
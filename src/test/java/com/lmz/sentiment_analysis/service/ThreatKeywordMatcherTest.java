@@ -0,0 +1,112 @@
+package com.lmz.sentiment_analysis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ThreatKeywordMatcher.
+ * Tests overlapping matches, case folding, word boundaries, offsets and a large keyword set.
+ */
+class ThreatKeywordMatcherTest {
+
+    private static ThreatKeywordMatcher.Keyword word(String term) {
+        return new ThreatKeywordMatcher.Keyword(term, "test", 1, true);
+    }
+
+    private static ThreatKeywordMatcher.Keyword anywhere(String term) {
+        return new ThreatKeywordMatcher.Keyword(term, "test", 1, false);
+    }
+
+    @Test
+    void testFindAll_OverlappingKeywords() {
+        // Given - the classic he/she/his/hers set
+        ThreatKeywordMatcher matcher = ThreatKeywordMatcher.compile(
+            List.of(anywhere("he"), anywhere("she"), anywhere("his"), anywhere("hers")));
+
+        // When
+        List<ThreatKeywordMatcher.Match> matches = matcher.findAll("ushers");
+
+        // Then
+        assertEquals(List.of("she@1-4", "he@2-4", "hers@2-6"), matches.stream().map(Object::toString).toList());
+    }
+
+    @Test
+    void testFindAll_FoldsCaseWithoutChangingOffsets() {
+        // Given
+        ThreatKeywordMatcher matcher = ThreatKeywordMatcher.compile(List.of(word("botnet"), word("größe")));
+
+        // When
+        String text = "A BotNet of GRÖSSE and Größe";
+        List<ThreatKeywordMatcher.Match> matches = matcher.findAll(text);
+
+        // Then
+        assertEquals(2, matches.size());
+        assertEquals("BotNet", text.substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+        assertEquals("Größe", text.substring(matches.get(1).getStart(), matches.get(1).getEnd()));
+    }
+
+    @Test
+    void testFindAll_WholeWordKeywordsNeedBoundaries() {
+        // Given
+        ThreatKeywordMatcher matcher = ThreatKeywordMatcher.compile(List.of(word("xss"), anywhere("patch")));
+
+        // When
+        List<ThreatKeywordMatcher.Match> matches = matcher.findAll("xss_filter, (xss), dispatcher; stored-XSS");
+
+        // Then - "xss_filter" fails the boundary check because '_' is a word character
+        assertEquals(List.of("xss@13-16", "patch@22-27", "xss@38-41"), matches.stream().map(Object::toString).toList());
+    }
+
+    @Test
+    void testScan_NoKeywords_NoMatches() {
+        // Given
+        ThreatKeywordMatcher matcher = ThreatKeywordMatcher.compile(List.of());
+
+        // Then
+        assertTrue(matcher.findAll("anything at all").isEmpty());
+        assertEquals(1, matcher.getStateCount());
+    }
+
+    @Test
+    void testCompile_EmptyKeyword_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> ThreatKeywordMatcher.compile(List.of(word(""))));
+    }
+
+    @Test
+    void testCompile_FiftyThousandLatinAndCyrillicTerms() {
+        // Given - half the terms Cyrillic, which widens the alphabet well beyond ASCII
+        Random random = new Random(42);
+        String latin = "abcdefghijklmnopqrstuvwxyz0123456789-.";
+        String cyrillic = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+        List<ThreatKeywordMatcher.Keyword> keywords = new ArrayList<>();
+        int totalLength = 0;
+        for (int i = 0; i < 50_000; i++) {
+            String letters = i % 2 == 0 ? latin : cyrillic;
+            StringBuilder term = new StringBuilder();
+            for (int length = 6 + random.nextInt(14); term.length() < length; ) {
+                term.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            keywords.add(word(term.toString()));
+            totalLength += term.length();
+        }
+
+        // When
+        ThreatKeywordMatcher matcher = ThreatKeywordMatcher.compile(keywords);
+
+        // Then
+        assertEquals(50_000, matcher.getKeywordCount());
+        assertTrue(matcher.getStateCount() <= totalLength + 1);
+        String latinTerm = keywords.get(1234).getTerm();
+        String cyrillicTerm = keywords.get(4321).getTerm();
+        List<ThreatKeywordMatcher.Match> matches =
+            matcher.findAll("seen " + latinTerm.toUpperCase() + " and " + cyrillicTerm.toUpperCase() + " today");
+        assertTrue(matches.stream().anyMatch(m -> m.getTerm().equals(latinTerm)));
+        assertTrue(matches.stream().anyMatch(m -> m.getTerm().equals(cyrillicTerm)));
+    }
+}
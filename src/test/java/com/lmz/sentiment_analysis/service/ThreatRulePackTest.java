@@ -0,0 +1,109 @@
+package com.lmz.sentiment_analysis.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ThreatRulePack and ThreatRuleSet.
+ * Tests the rule pack format, its error messages, and compiling several packs together.
+ */
+class ThreatRulePackTest {
+
+    private static final String PACK = String.join("\n",
+        "# Example pack",
+        "@name intel",
+        "@version 2026.10.1",
+        "",
+        "[malware] weight=20 score=category match=word",
+        "ransomware",
+        "wiper | 40",
+        "",
+        "[critical] weight=10 score=term match=substring threat=false",
+        "zero-day");
+
+    @Test
+    void testParse_ReadsHeadersCategoriesAndWeights() throws IOException {
+        // When
+        ThreatRulePack pack = parse("file:/etc/rules/intel.rules", PACK);
+
+        // Then
+        assertEquals("intel", pack.getName());
+        assertEquals("2026.10.1", pack.getVersion());
+        assertEquals(3, pack.getKeywords().size());
+        ThreatKeywordMatcher.Keyword wiper = pack.getKeywords().get(1);
+        assertEquals("wiper", wiper.getTerm());
+        assertEquals(40, wiper.getWeight());
+        assertTrue(wiper.isWholeWord());
+
+        ThreatRulePack.Category critical = pack.getCategories().get("critical");
+        assertTrue(critical.isScoredPerTerm());
+        assertFalse(critical.isWholeWord());
+        assertFalse(critical.isThreat());
+        assertFalse(pack.getKeywords().get(2).isWholeWord());
+    }
+
+    @Test
+    void testParse_NameDefaultsToFileName() throws IOException {
+        // When
+        ThreatRulePack pack = parse("classpath:threat-rules/botnets.rules", "@version 3\n[botnet]\nmirai");
+
+        // Then
+        assertEquals("botnets", pack.getName());
+        assertEquals(10, pack.getKeywords().get(0).getWeight());
+    }
+
+    @Test
+    void testParse_MissingVersion_Rejected() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> parse("intel.rules", "[malware]\nransomware"));
+        assertTrue(error.getMessage().contains("@version"));
+    }
+
+    @Test
+    void testParse_MalformedLine_ReportsSourceAndLine() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> parse("intel.rules", "@version 1\n[malware] weight=heavy\nransomware"));
+        assertTrue(error.getMessage().startsWith("intel.rules:2: "));
+    }
+
+    @Test
+    void testParse_TermOutsideCategory_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> parse("intel.rules", "@version 1\nransomware"));
+    }
+
+    @Test
+    void testCompile_MergesPacksIntoOneMatcher() throws IOException {
+        // Given
+        ThreatRulePack first = parse("a.rules", "@version 1\n[malware] weight=20\nransomware");
+        ThreatRulePack second = parse("b.rules", "@version 7\n[malware] weight=20\nwiper\n[botnet]\nmirai");
+
+        // When
+        ThreatRuleSet rules = ThreatRuleSet.compile(List.of(first, second));
+
+        // Then
+        assertEquals(3, rules.getMatcher().getKeywordCount());
+        assertEquals(2, rules.getMatcher().findAll("ransomware and mirai").size());
+        assertNotNull(rules.getCategory("botnet"));
+        assertEquals("a@1, b@7", rules.toString());
+    }
+
+    @Test
+    void testCompile_ConflictingCategorySettings_Rejected() throws IOException {
+        // Given
+        ThreatRulePack first = parse("a.rules", "@version 1\n[malware] weight=20\nransomware");
+        ThreatRulePack second = parse("b.rules", "@version 1\n[malware] weight=30\nwiper");
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> ThreatRuleSet.compile(List.of(first, second)));
+    }
+
+    private static ThreatRulePack parse(String source, String content) throws IOException {
+        return ThreatRulePack.parse(source, new BufferedReader(new StringReader(content)));
+    }
+}
@@ -0,0 +1,174 @@
+package com.lmz.sentiment_analysis.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ThreatRuleRegistry.
+ * Tests loading rule packs from files, hot reload with an atomic swap off the polling thread, and the rule metrics.
+ */
+class ThreatRuleRegistryTest {
+
+    @TempDir
+    Path rulesDir;
+
+    private Path packFile;
+    private ThreatRuleRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        packFile = rulesDir.resolve("intel.rules");
+        write("@version 1\n[malware] weight=20\nransomware\nwiper | 40\n", 1000);
+        registry = new ThreatRuleRegistry(new DefaultResourceLoader(), new SyncTaskExecutor());
+        ReflectionTestUtils.setField(registry, "locations", new String[] {packFile.toUri().toString()});
+        registry.init();
+    }
+
+    @Test
+    void testInit_LoadsPackFromFile() {
+        // Then
+        ThreatRuleSet rules = registry.getRules();
+        assertEquals("intel@1", rules.toString());
+        assertEquals(2, rules.getMatcher().getKeywordCount());
+    }
+
+    @Test
+    void testInit_BrokenPack_FailsStartup() throws IOException {
+        // Given
+        write("[malware]\nransomware\n", 2000);
+        ThreatRuleRegistry broken = new ThreatRuleRegistry(new DefaultResourceLoader(), new SyncTaskExecutor());
+        ReflectionTestUtils.setField(broken, "locations", new String[] {packFile.toUri().toString()});
+
+        // Then
+        assertThrows(IllegalStateException.class, broken::init);
+    }
+
+    @Test
+    void testReloadIfChanged_UnchangedFile_KeepsRuleSet() {
+        // Given
+        ThreatRuleSet before = registry.getRules();
+
+        // When
+        registry.reloadIfChanged();
+
+        // Then
+        assertSame(before, registry.getRules());
+        assertEquals(0, registry.getReloads());
+    }
+
+    @Test
+    void testReloadIfChanged_ChangedFile_PublishesNewRuleSet() throws IOException {
+        // Given
+        ThreatRuleSet before = registry.getRules();
+        write("@version 2\n[malware] weight=20\nransomware\nwiper | 40\n[botnet]\nmirai\n", 2000);
+
+        // When
+        registry.reloadIfChanged();
+
+        // Then
+        ThreatRuleSet after = registry.getRules();
+        assertNotSame(before, after);
+        assertEquals("intel@2", after.toString());
+        assertEquals(3, after.getMatcher().getKeywordCount());
+        // An analysis still holding the old rule set is unaffected
+        assertTrue(before.getMatcher().findAll("mirai").isEmpty());
+        assertEquals(1, registry.getReloads());
+    }
+
+    @Test
+    void testReloadIfChanged_CompilesOnTheExecutorWithoutWaiting() throws IOException {
+        // Given
+        List<Runnable> submitted = new ArrayList<>();
+        ThreatRuleRegistry deferred = new ThreatRuleRegistry(new DefaultResourceLoader(), submitted::add);
+        ReflectionTestUtils.setField(deferred, "locations", new String[] {packFile.toUri().toString()});
+        deferred.init();
+        ThreatRuleSet before = deferred.getRules();
+        write("@version 2\n[malware] weight=20\nransomware\n", 2000);
+
+        // When
+        deferred.reloadIfChanged();
+        write("@version 3\n[malware] weight=20\nransomware\n", 3000);
+        deferred.reloadIfChanged();
+
+        // Then - the poll only submits the compile, and does not submit another while it is pending
+        assertSame(before, deferred.getRules());
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+        assertEquals("intel@3", deferred.getRules().toString());
+
+        // The version 3 fingerprint is picked up by the next poll
+        deferred.reloadIfChanged();
+        assertEquals(2, submitted.size());
+    }
+
+    @Test
+    void testReloadIfChanged_BrokenFile_KeepsPreviousRules() throws IOException {
+        // Given
+        ThreatRuleSet before = registry.getRules();
+        write("@version 2\n[malware] weight=lots\nransomware\n", 2000);
+
+        // When
+        registry.reloadIfChanged();
+        registry.reloadIfChanged();
+
+        // Then - the broken version is tried once, not on every poll
+        assertSame(before, registry.getRules());
+        assertEquals(1, registry.getReloadFailures());
+    }
+
+    @Test
+    void testAnalyzeSecurityContent_UsesTermWeights() {
+        // Given
+        SecurityAnalysisService service = new SecurityAnalysisService(registry);
+
+        // When
+        SecurityAnalysisService.SecurityAnalysisResult result =
+            service.analyzeSecurityContent("A wiper followed the ransomware");
+
+        // Then - the category scores its heaviest term once
+        assertEquals(40, result.getThreatScore());
+        assertTrue(result.isThreat());
+    }
+
+    @Test
+    void testBindTo_ReportsVersionAndReplacesItOnReload() throws IOException {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        registry.bindTo(meterRegistry);
+        assertEquals(1.0, meterRegistry.get("security.rules.version").tag("pack", "intel").tag("version", "1")
+            .gauge().value());
+        assertEquals(2.0, meterRegistry.get("security.rules.keywords").gauge().value());
+        assertNotNull(meterRegistry.get("security.rules.compile.time").timeGauge());
+
+        // When
+        write("@version 2\n[malware] weight=20\nransomware\n", 2000);
+        registry.reloadIfChanged();
+
+        // Then
+        assertEquals(1, meterRegistry.get("security.rules.version").gauges().size());
+        assertNotNull(meterRegistry.find("security.rules.version").tag("version", "2").gauge());
+        assertNull(meterRegistry.find("security.rules.version").tag("version", "1").gauge());
+        assertEquals(1.0, meterRegistry.get("security.rules.reloads").tag("result", "success")
+            .functionCounter().count());
+    }
+
+    // Write the pack with an explicit modification time, so a change is detected even within one second
+    private void write(String content, long modifiedMillis) throws IOException {
+        Files.writeString(packFile, content);
+        Files.setLastModifiedTime(packFile, FileTime.fromMillis(modifiedMillis));
+    }
+}
@@ -0,0 +1,82 @@
+package com.lmz.sentiment_analysis.service;
+
+import com.lmz.sentiment_analysis.model.Role;
+import com.lmz.sentiment_analysis.model.User;
+import com.lmz.sentiment_analysis.repository.UserRepository;
+import com.lmz.sentiment_analysis.security.CustomUserDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for UserDetailsServiceImpl.
+ * Tests that the principal built at login carries the user id and roles.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void testLoadUserByUsername_PrincipalCarriesIdAndRoles() {
+        // Given
+        User user = new User();
+        user.setId(12L);
+        user.setUsername("admin");
+        user.setPassword("encoded");
+        user.addRole(new Role("ROLE_ADMIN"));
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user));
+
+        // When
+        UserDetails details = userDetailsService.loadUserByUsername("admin");
+
+        // Then
+        CustomUserDetails custom = assertInstanceOf(CustomUserDetails.class, details);
+        assertEquals(12L, custom.getId());
+        assertEquals("admin", custom.getUsername());
+        assertEquals("encoded", custom.getPassword());
+        assertTrue(custom.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .anyMatch("ROLE_ADMIN"::equals));
+    }
+
+    @Test
+    void testEraseCredentials_DropsPasswordButKeepsIdentity() {
+        // Given
+        User user = new User();
+        user.setId(12L);
+        user.setUsername("admin");
+        user.setPassword("encoded");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user));
+        CustomUserDetails details = (CustomUserDetails) userDetailsService.loadUserByUsername("admin");
+
+        // When
+        details.eraseCredentials();
+
+        // Then
+        assertNull(details.getPassword());
+        assertEquals(12L, details.getId());
+        assertEquals("admin", details.getUsername());
+    }
+
+    @Test
+    void testLoadUserByUsername_UnknownUser() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+    }
+}